@@ -0,0 +1,25 @@
+-- Migration: loans.submission_date wajib diisi.
+-- TIDAK dijalankan oleh aplikasi (ddl-auto=update tidak mengubah nullability kolom yang sudah
+-- ada). DBA menerapkannya sebelum versi aplikasi ini di-deploy.
+--
+-- Keyset pagination antrian loan (LoanCursor, LoanRepository.findPageAfter) mengurutkan dan
+-- memfilter dengan (submission_date, id). Baris dengan submission_date NULL tidak pernah lolos
+-- predicate "submission_date > :submittedAt" dan cursor-nya tidak bisa di-decode, sehingga
+-- kolom ini harus NOT NULL. Baris lama diisi dari created_at, atau waktu sekarang bila
+-- created_at juga kosong.
+--
+-- Index yang memuat submission_date harus di-drop dulu karena SQL Server tidak mengizinkan
+-- ALTER COLUMN pada kolom yang dipakai index; keduanya dibuat ulang sama seperti di entity Loan.
+UPDATE dbo.loans
+SET submission_date = COALESCE(created_at, SYSDATETIME())
+WHERE submission_date IS NULL;
+
+DROP INDEX IF EXISTS idx_loans_status_submission ON dbo.loans;
+DROP INDEX IF EXISTS idx_loans_submission ON dbo.loans;
+DROP INDEX IF EXISTS idx_loans_plafond_submission ON dbo.loans;
+
+ALTER TABLE dbo.loans ALTER COLUMN submission_date DATETIME2(6) NOT NULL;
+
+CREATE INDEX idx_loans_status_submission ON dbo.loans (status, submission_date, id);
+CREATE INDEX idx_loans_submission ON dbo.loans (submission_date, id);
+CREATE INDEX idx_loans_plafond_submission ON dbo.loans (plafond_id, submission_date);
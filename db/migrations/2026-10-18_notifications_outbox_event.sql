@@ -0,0 +1,16 @@
+-- Migration: notifikasi dari outbox unik per (event, user, type, loan).
+-- TIDAK dijalankan oleh aplikasi. DBA menerapkannya sebelum versi aplikasi ini di-deploy.
+--
+-- LoanNotificationHandler mengirim notifikasi ke banyak penerima dari satu baris outbox. Bila
+-- sebagian gagal, OutboxRelay mengulang seluruh event; NotificationService melewati penerima
+-- yang sudah punya baris untuk event yang sama. Index ini menjaga hal itu juga ketika dua relay
+-- memproses event yang sama (lease habis): insert kedua gagal sebelum email/push dikirim.
+-- Filtered index, karena notifikasi di luar outbox (register, reset password) tidak punya event id
+-- dan SQL Server menganggap NULL sama pada unique index biasa.
+IF COL_LENGTH('dbo.notifications', 'outbox_event_id') IS NULL
+    ALTER TABLE dbo.notifications ADD outbox_event_id BIGINT NULL;
+GO
+
+CREATE UNIQUE INDEX ux_notifications_outbox_delivery
+    ON dbo.notifications (outbox_event_id, user_id, type, loan_id)
+    WHERE outbox_event_id IS NOT NULL;
@@ -0,0 +1,45 @@
+-- Migration: sp_CreateLoanWithLimitCheck mengembalikan baris loan yang baru dibuat.
+-- TIDAK dijalankan oleh aplikasi. DBA membandingkan script ini dengan definisi yang terpasang
+-- (EXEC sp_helptext 'dbo.sp_CreateLoanWithLimitCheck'), menyesuaikan bila perlu, lalu
+-- menerapkannya sebelum versi aplikasi ini di-deploy. Aplikasi menolak start bila procedure
+-- yang terpasang tidak mengembalikan baris loan (lihat StoredProcedureVerifier).
+--
+-- Membuat loan baru dan memotong available_limit customer secara atomik.
+-- Dijalankan di dalam transaksi pemanggil (LoanService.submitLoan), jadi tidak membuka
+-- transaksi sendiri. UPDATE bersyarat mengunci baris limit, sehingga dua submission
+-- bersamaan untuk customer/plafond yang sama tidak bisa sama-sama lolos pengecekan limit.
+-- Baris loan yang baru dikembalikan lewat OUTPUT inserted.*, sehingga aplikasi tidak perlu
+-- query tambahan untuk mengambil loan yang baru dibuat.
+CREATE OR ALTER PROCEDURE dbo.sp_CreateLoanWithLimitCheck
+    @CustomerID   BIGINT,
+    @PlafondID    BIGINT,
+    @LoanAmount   DECIMAL(38, 2),
+    @TenorMonth   BIGINT,
+    @InterestRate DECIMAL(38, 2),
+    @Purpose      NVARCHAR(500),
+    @Latitude     DECIMAL(9, 6),
+    @Longitude    DECIMAL(9, 6)
+AS
+BEGIN
+    SET NOCOUNT ON;
+    SET XACT_ABORT ON;
+
+    UPDATE dbo.customer_limits
+    SET available_limit = available_limit - @LoanAmount,
+        version = version + 1,
+        updated_at = SYSDATETIME()
+    WHERE customer_id = @CustomerID
+      AND plafond_id = @PlafondID
+      AND available_limit >= @LoanAmount;
+
+    IF @@ROWCOUNT = 0
+        THROW 50001, 'Limit tidak mencukupi atau data limit tidak ditemukan.', 1;
+
+    INSERT INTO dbo.loans
+        (customer_id, plafond_id, loan_amount, tenor_month, interest_rate, purpose,
+         latitude, longitude, status, submission_date, created_at)
+    OUTPUT inserted.*
+    VALUES
+        (@CustomerID, @PlafondID, @LoanAmount, @TenorMonth, @InterestRate, @Purpose,
+         @Latitude, @Longitude, 'SUBMITTED', SYSDATETIME(), SYSDATETIME());
+END
@@ -0,0 +1,91 @@
+package com.example.genggamin.service;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput dan alokasi per simulasi: BigDecimal (implementasi lama) vs FlatRateCalculator.
+ * Jalankan dengan {@code mvn -Pbenchmark test-compile exec:exec}; kolom {@code gc.alloc.rate.norm}
+ * dari GCProfiler menunjukkan byte yang dialokasikan per operasi.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlatRateCalculatorBenchmark {
+
+  private static final int INPUTS = 1024;
+
+  private BigDecimal[] amounts;
+  private BigDecimal[] rates;
+  private long[] amountCents;
+  private long[] rateMicros;
+  private long[] tenors;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    amounts = new BigDecimal[INPUTS];
+    rates = new BigDecimal[INPUTS];
+    amountCents = new long[INPUTS];
+    rateMicros = new long[INPUTS];
+    tenors = new long[INPUTS];
+    for (int i = 0; i < INPUTS; i++) {
+      amounts[i] = BigDecimal.valueOf(1_000_000L + random.nextInt(100_000_000));
+      rates[i] = BigDecimal.valueOf(50 + random.nextInt(300), 2);
+      amountCents[i] = FlatRateCalculator.toCents(amounts[i]);
+      rateMicros[i] = FlatRateCalculator.toRateMicros(rates[i]);
+      tenors[i] = 1 + random.nextInt(36);
+    }
+  }
+
+  /** Input berikutnya; berputar supaya JIT tidak bisa melipat hasil menjadi konstanta */
+  private int nextIndex() {
+    next = (next + 1) & (INPUTS - 1);
+    return next;
+  }
+
+  @Benchmark
+  public void bigDecimal(Blackhole blackhole) {
+    int i = nextIndex();
+    blackhole.consume(BigDecimalFlatRate.calculate(amounts[i], rates[i], tenors[i]));
+  }
+
+  @Benchmark
+  public void longCents(Blackhole blackhole) {
+    int i = nextIndex();
+    long interest = FlatRateCalculator.totalInterestCents(amountCents[i], rateMicros[i], tenors[i]);
+    long payment = amountCents[i] + interest;
+    blackhole.consume(interest);
+    blackhole.consume(payment);
+    blackhole.consume(FlatRateCalculator.installmentCents(payment, tenors[i]));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(FlatRateCalculatorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,44 @@
+package com.example.genggamin.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/** Executor untuk side effect loan (notifikasi, email) yang dijalankan setelah commit */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+  public static final String LOAN_EVENT_EXECUTOR = "loanEventExecutor";
+
+  /**
+   * Virtual thread executor dengan concurrency dan antrian yang dibatasi, supaya SMTP/FCM yang
+   * lambat tidak menumpuk tanpa batas. Jika antrian penuh, thread pemanggil yang menjalankan
+   * handler (backpressure, tidak ada notifikasi yang dibuang).
+   */
+  @Bean(name = LOAN_EVENT_EXECUTOR)
+  public ThreadPoolTaskExecutor loanEventExecutor(MeterRegistry meterRegistry) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadFactory(Thread.ofVirtual().name("loan-event-", 0).factory());
+    executor.setCorePoolSize(16);
+    executor.setMaxPoolSize(16);
+    executor.setQueueCapacity(1000);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    executor.initialize();
+
+    Gauge.builder(
+            "loan.events.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+        .description("Loan side-effect tasks waiting for a thread")
+        .register(meterRegistry);
+    Gauge.builder("loan.events.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+        .description("Loan side-effect tasks currently running")
+        .register(meterRegistry);
+    return executor;
+  }
+}
@@ -15,6 +15,7 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -45,6 +46,15 @@ public class RedisConfig {
     return template;
   }
 
+  /** Container Redis pub/sub untuk invalidasi cache in-process antar node */
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(
+      RedisConnectionFactory connectionFactory) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    return container;
+  }
+
   /**
    * Configure Cache Manager untuk Spring Cache Abstraction Menggunakan Redis sebagai cache provider
    */
@@ -72,12 +82,17 @@ public class RedisConfig {
     RedisCacheConfiguration roleConfig =
         defaultConfig.entryTtl(Duration.ofMinutes(30)); // Role cache 30 menit (jarang berubah)
 
+    RedisCacheConfiguration scheduleConfig =
+        defaultConfig.entryTtl(
+            Duration.ofHours(1)); // Jadwal angsuran hanya berubah saat regenerasi
+
     return RedisCacheManager.builder(factory)
         .cacheDefaults(defaultConfig)
         .withCacheConfiguration("users", userConfig)
         .withCacheConfiguration("userByUsername", userConfig)
         .withCacheConfiguration("userById", userConfig)
         .withCacheConfiguration("roles", roleConfig)
+        .withCacheConfiguration("loanSchedules", scheduleConfig)
         .build();
   }
 
@@ -60,8 +60,11 @@ public class SecurityConfig {
                     // Allow public access to GET plafonds endpoints
                     .requestMatchers(org.springframework.http.HttpMethod.GET, "/plafonds/**")
                     .permitAll()
-                    // Allow public access to POST simulation endpoint
-                    .requestMatchers(org.springframework.http.HttpMethod.POST, "/plafonds/simulate")
+                    // Allow public access to POST simulation endpoints
+                    .requestMatchers(
+                        org.springframework.http.HttpMethod.POST,
+                        "/plafonds/simulate",
+                        "/plafonds/simulate/batch")
                     .permitAll()
                     .anyRequest()
                     .authenticated())
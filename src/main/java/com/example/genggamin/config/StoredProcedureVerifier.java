@@ -0,0 +1,46 @@
+package com.example.genggamin.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Memastikan stored procedure yang dipakai kode sudah sesuai sebelum aplikasi melayani request.
+ * Procedure tidak dipasang oleh aplikasi; script-nya ada di db/migrations dan diterapkan oleh DBA.
+ * Bila definisi yang terpasang belum mengembalikan baris loan, startup gagal di sini, bukan setiap
+ * submit loan gagal saat runtime.
+ */
+@Component
+public class StoredProcedureVerifier implements CommandLineRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(StoredProcedureVerifier.class);
+
+  static final String CREATE_LOAN_PROCEDURE = "dbo.sp_CreateLoanWithLimitCheck";
+
+  /** Kolom result set pertama procedure menurut SQL Server, tanpa mengeksekusinya */
+  private static final String FIRST_RESULT_SET_COLUMNS =
+      "SELECT COUNT(*) FROM sys.dm_exec_describe_first_result_set_for_object("
+          + "OBJECT_ID(?, 'P'), 0) WHERE name = 'id' AND error_number IS NULL";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public StoredProcedureVerifier(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public void run(String... args) {
+    Integer idColumns =
+        jdbcTemplate.queryForObject(FIRST_RESULT_SET_COLUMNS, Integer.class, CREATE_LOAN_PROCEDURE);
+    if (idColumns == null || idColumns == 0) {
+      throw new IllegalStateException(
+          CREATE_LOAN_PROCEDURE
+              + " is missing or does not return the created loan row. Apply"
+              + " db/migrations/2026-10-18_sp_CreateLoanWithLimitCheck.sql before starting"
+              + " this version.");
+    }
+    logger.info("Verified {} returns the created loan row", CREATE_LOAN_PROCEDURE);
+  }
+}
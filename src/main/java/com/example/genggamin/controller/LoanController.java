@@ -1,48 +1,107 @@
 package com.example.genggamin.controller;
 
 import com.example.genggamin.dto.ApiResponse;
+import com.example.genggamin.dto.BulkLoanActionRequest;
+import com.example.genggamin.dto.BulkLoanActionResponse;
+import com.example.genggamin.dto.CursorPageResponse;
 import com.example.genggamin.dto.CustomerLimitResponse;
+import com.example.genggamin.dto.DisbursementBatchRequest;
+import com.example.genggamin.dto.DisbursementBatchResponse;
 import com.example.genggamin.dto.LoanActionRequest;
+import com.example.genggamin.dto.LoanFilterRequest;
 import com.example.genggamin.dto.LoanRequest;
 import com.example.genggamin.dto.LoanResponse;
+import com.example.genggamin.dto.LoanScheduleResponse;
+import com.example.genggamin.dto.LoanStatsResponse;
 import com.example.genggamin.dto.LoanWithApprovalResponse;
 import com.example.genggamin.dto.LoanWithDisbursementResponse;
 import com.example.genggamin.dto.LoanWithReviewResponse;
+import com.example.genggamin.dto.ResourceVersion;
+import com.example.genggamin.service.DisbursementBatchService;
+import com.example.genggamin.service.IdempotencyService;
+import com.example.genggamin.service.LoanBulkService;
 import com.example.genggamin.service.LoanService;
+import com.example.genggamin.service.RepaymentScheduleService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/loans")
 public class LoanController {
 
+  /** Tipe body response untuk replay Idempotency-Key */
+  private static final TypeReference<ApiResponse<LoanResponse>> LOAN_RESPONSE_TYPE =
+      new TypeReference<>() {};
+
+  // Roles that may read any loan's schedule; other callers must own the loan
+  private static final Set<String> STAFF_AUTHORITIES =
+      Set.of("ROLE_MARKETING", "ROLE_BRANCH_MANAGER", "ROLE_BACK_OFFICE", "ROLE_ADMIN");
+
   private final LoanService loanService;
+  private final LoanBulkService loanBulkService;
+  private final IdempotencyService idempotencyService;
+  private final DisbursementBatchService disbursementBatchService;
+  private final RepaymentScheduleService repaymentScheduleService;
 
-  public LoanController(LoanService loanService) {
+  public LoanController(
+      LoanService loanService,
+      LoanBulkService loanBulkService,
+      IdempotencyService idempotencyService,
+      DisbursementBatchService disbursementBatchService,
+      RepaymentScheduleService repaymentScheduleService) {
     this.loanService = loanService;
+    this.loanBulkService = loanBulkService;
+    this.idempotencyService = idempotencyService;
+    this.disbursementBatchService = disbursementBatchService;
+    this.repaymentScheduleService = repaymentScheduleService;
   }
 
-  /** CUSTOMER: Submit a loan application */
+  /** CUSTOMER: Submit a loan application (supports Idempotency-Key for safe retries) */
   @PostMapping("/submit")
   @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
   public ResponseEntity<ApiResponse<LoanResponse>> submitLoan(
-      @RequestBody LoanRequest request, Authentication authentication) {
-    try {
-      String username = authentication.getName();
-      LoanResponse response = loanService.submitLoan(username, request);
-      return ResponseEntity.ok(
-          ApiResponse.<LoanResponse>builder()
-              .success(true)
-              .message("Loan submitted successfully")
-              .data(response)
-              .build());
-    } catch (Exception e) {
-      return ResponseEntity.badRequest()
-          .body(ApiResponse.<LoanResponse>builder().success(false).message(e.getMessage()).build());
-    }
+      @RequestBody LoanRequest request,
+      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+      Authentication authentication) {
+    String username = authentication.getName();
+    return idempotencyService.execute(
+        "loan-submit:" + username,
+        idempotencyKey,
+        request,
+        LOAN_RESPONSE_TYPE,
+        () -> {
+          try {
+            LoanResponse response = loanService.submitLoan(username, request);
+            return ResponseEntity.ok(
+                ApiResponse.<LoanResponse>builder()
+                    .success(true)
+                    .message("Loan submitted successfully")
+                    .data(response)
+                    .build());
+          } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(
+                    ApiResponse.<LoanResponse>builder()
+                        .success(false)
+                        .message(e.getMessage())
+                        .build());
+          }
+        });
   }
 
   /** CUSTOMER: Get my limits */
@@ -72,9 +131,15 @@ public class LoanController {
   /** CUSTOMER: Get my loan applications */
   @GetMapping("/my-loans")
   @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
-  public ResponseEntity<ApiResponse<List<LoanResponse>>> getMyLoans(Authentication authentication) {
+  public ResponseEntity<ApiResponse<List<LoanResponse>>> getMyLoans(
+      Authentication authentication, WebRequest webRequest) {
     try {
       String username = authentication.getName();
+      // Conditional GET: 304 before the loan list is assembled when nothing changed
+      ResourceVersion version = loanService.getMyLoansVersion(username);
+      if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+        return null;
+      }
       List<LoanResponse> loans = loanService.getMyLoans(username);
       return ResponseEntity.ok(
           ApiResponse.<List<LoanResponse>>builder()
@@ -92,14 +157,15 @@ public class LoanController {
     }
   }
 
-  /** MARKETING: Review submitted loans */
+  /** MARKETING: Review submitted loans (keyset paginated, oldest submission first) */
   @GetMapping("/review")
   @PreAuthorize("hasAnyRole('MARKETING', 'ADMIN')")
-  public ResponseEntity<ApiResponse<List<LoanResponse>>> getLoansForReview() {
+  public ResponseEntity<ApiResponse<CursorPageResponse<LoanResponse>>> getLoansForReview(
+      @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
     try {
-      List<LoanResponse> loans = loanService.getLoansForReview();
+      CursorPageResponse<LoanResponse> loans = loanService.getLoansForReview(cursor, size);
       return ResponseEntity.ok(
-          ApiResponse.<List<LoanResponse>>builder()
+          ApiResponse.<CursorPageResponse<LoanResponse>>builder()
               .success(true)
               .message("Loans retrieved successfully")
               .data(loans)
@@ -107,7 +173,7 @@ public class LoanController {
     } catch (Exception e) {
       return ResponseEntity.badRequest()
           .body(
-              ApiResponse.<List<LoanResponse>>builder()
+              ApiResponse.<CursorPageResponse<LoanResponse>>builder()
                   .success(false)
                   .message(e.getMessage())
                   .build());
@@ -136,14 +202,39 @@ public class LoanController {
     }
   }
 
-  /** MARKETING/ADMIN: Get all reviewed loans with review details */
+  /** MARKETING: Review several loans at once; returns a result per loan */
+  @PostMapping("/review/bulk")
+  @PreAuthorize("hasAnyRole('MARKETING', 'ADMIN')")
+  public ResponseEntity<ApiResponse<BulkLoanActionResponse>> reviewLoans(
+      @RequestBody BulkLoanActionRequest request, Authentication authentication) {
+    try {
+      String username = authentication.getName();
+      BulkLoanActionResponse response = loanBulkService.reviewLoans(username, request);
+      return ResponseEntity.ok(
+          ApiResponse.<BulkLoanActionResponse>builder()
+              .success(true)
+              .message("Bulk review processed")
+              .data(response)
+              .build());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest()
+          .body(
+              ApiResponse.<BulkLoanActionResponse>builder()
+                  .success(false)
+                  .message(e.getMessage())
+                  .build());
+    }
+  }
+
+  /** MARKETING/ADMIN: Get all reviewed loans with review details (paged) */
   @GetMapping("/reviewed")
   @PreAuthorize("hasAnyRole('MARKETING', 'ADMIN')")
-  public ResponseEntity<ApiResponse<List<LoanWithReviewResponse>>> getReviewedLoans() {
+  public ResponseEntity<ApiResponse<Page<LoanWithReviewResponse>>> getReviewedLoans(
+      @PageableDefault(size = 20) Pageable pageable) {
     try {
-      List<LoanWithReviewResponse> loans = loanService.getReviewedLoans();
+      Page<LoanWithReviewResponse> loans = loanService.getReviewedLoans(pageable);
       return ResponseEntity.ok(
-          ApiResponse.<List<LoanWithReviewResponse>>builder()
+          ApiResponse.<Page<LoanWithReviewResponse>>builder()
               .success(true)
               .message("Reviewed loans retrieved successfully")
               .data(loans)
@@ -151,21 +242,22 @@ public class LoanController {
     } catch (Exception e) {
       return ResponseEntity.badRequest()
           .body(
-              ApiResponse.<List<LoanWithReviewResponse>>builder()
+              ApiResponse.<Page<LoanWithReviewResponse>>builder()
                   .success(false)
                   .message(e.getMessage())
                   .build());
     }
   }
 
-  /** BRANCH_MANAGER: Get loans for approval */
+  /** BRANCH_MANAGER: Get loans for approval (keyset paginated) */
   @GetMapping("/approve")
   @PreAuthorize("hasAnyRole('BRANCH_MANAGER', 'ADMIN')")
-  public ResponseEntity<ApiResponse<List<LoanResponse>>> getLoansForApproval() {
+  public ResponseEntity<ApiResponse<CursorPageResponse<LoanResponse>>> getLoansForApproval(
+      @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
     try {
-      List<LoanResponse> loans = loanService.getLoansForApproval();
+      CursorPageResponse<LoanResponse> loans = loanService.getLoansForApproval(cursor, size);
       return ResponseEntity.ok(
-          ApiResponse.<List<LoanResponse>>builder()
+          ApiResponse.<CursorPageResponse<LoanResponse>>builder()
               .success(true)
               .message("Loans retrieved successfully")
               .data(loans)
@@ -173,7 +265,7 @@ public class LoanController {
     } catch (Exception e) {
       return ResponseEntity.badRequest()
           .body(
-              ApiResponse.<List<LoanResponse>>builder()
+              ApiResponse.<CursorPageResponse<LoanResponse>>builder()
                   .success(false)
                   .message(e.getMessage())
                   .build());
@@ -202,14 +294,39 @@ public class LoanController {
     }
   }
 
-  /** BRANCH_MANAGER/ADMIN: Get all approved/rejected loans with approval details */
+  /** BRANCH_MANAGER: Approve or reject several loans at once; returns a result per loan */
+  @PostMapping("/approve/bulk")
+  @PreAuthorize("hasAnyRole('BRANCH_MANAGER', 'ADMIN')")
+  public ResponseEntity<ApiResponse<BulkLoanActionResponse>> approveLoans(
+      @RequestBody BulkLoanActionRequest request, Authentication authentication) {
+    try {
+      String username = authentication.getName();
+      BulkLoanActionResponse response = loanBulkService.approveLoans(username, request);
+      return ResponseEntity.ok(
+          ApiResponse.<BulkLoanActionResponse>builder()
+              .success(true)
+              .message("Bulk approval processed")
+              .data(response)
+              .build());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest()
+          .body(
+              ApiResponse.<BulkLoanActionResponse>builder()
+                  .success(false)
+                  .message(e.getMessage())
+                  .build());
+    }
+  }
+
+  /** BRANCH_MANAGER/ADMIN: Get all approved/rejected loans with approval details (paged) */
   @GetMapping("/approved")
   @PreAuthorize("hasAnyRole('BRANCH_MANAGER', 'ADMIN')")
-  public ResponseEntity<ApiResponse<List<LoanWithApprovalResponse>>> getApprovedLoans() {
+  public ResponseEntity<ApiResponse<Page<LoanWithApprovalResponse>>> getApprovedLoans(
+      @PageableDefault(size = 20) Pageable pageable) {
     try {
-      List<LoanWithApprovalResponse> loans = loanService.getApprovedLoansWithDetails();
+      Page<LoanWithApprovalResponse> loans = loanService.getApprovedLoansWithDetails(pageable);
       return ResponseEntity.ok(
-          ApiResponse.<List<LoanWithApprovalResponse>>builder()
+          ApiResponse.<Page<LoanWithApprovalResponse>>builder()
               .success(true)
               .message("Approved loans retrieved successfully")
               .data(loans)
@@ -217,21 +334,22 @@ public class LoanController {
     } catch (Exception e) {
       return ResponseEntity.badRequest()
           .body(
-              ApiResponse.<List<LoanWithApprovalResponse>>builder()
+              ApiResponse.<Page<LoanWithApprovalResponse>>builder()
                   .success(false)
                   .message(e.getMessage())
                   .build());
     }
   }
 
-  /** BACK_OFFICE: Get loans for disbursement */
+  /** BACK_OFFICE: Get loans for disbursement (keyset paginated) */
   @GetMapping("/disburse")
   @PreAuthorize("hasAnyRole('BACK_OFFICE', 'ADMIN')")
-  public ResponseEntity<ApiResponse<List<LoanResponse>>> getLoansForDisbursement() {
+  public ResponseEntity<ApiResponse<CursorPageResponse<LoanResponse>>> getLoansForDisbursement(
+      @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
     try {
-      List<LoanResponse> loans = loanService.getLoansForDisbursement();
+      CursorPageResponse<LoanResponse> loans = loanService.getLoansForDisbursement(cursor, size);
       return ResponseEntity.ok(
-          ApiResponse.<List<LoanResponse>>builder()
+          ApiResponse.<CursorPageResponse<LoanResponse>>builder()
               .success(true)
               .message("Loans retrieved successfully")
               .data(loans)
@@ -239,21 +357,88 @@ public class LoanController {
     } catch (Exception e) {
       return ResponseEntity.badRequest()
           .body(
-              ApiResponse.<List<LoanResponse>>builder()
+              ApiResponse.<CursorPageResponse<LoanResponse>>builder()
+                  .success(false)
+                  .message(e.getMessage())
+                  .build());
+    }
+  }
+
+  /** BACK_OFFICE: Disburse several loans at once; returns a result per loan */
+  @PostMapping("/disburse/bulk")
+  @PreAuthorize("hasAnyRole('BACK_OFFICE', 'ADMIN')")
+  public ResponseEntity<ApiResponse<BulkLoanActionResponse>> disburseLoans(
+      @RequestBody BulkLoanActionRequest request, Authentication authentication) {
+    try {
+      String username = authentication.getName();
+      BulkLoanActionResponse response = loanBulkService.disburseLoans(username, request);
+      return ResponseEntity.ok(
+          ApiResponse.<BulkLoanActionResponse>builder()
+              .success(true)
+              .message("Bulk disbursement processed")
+              .data(response)
+              .build());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest()
+          .body(
+              ApiResponse.<BulkLoanActionResponse>builder()
+                  .success(false)
+                  .message(e.getMessage())
+                  .build());
+    }
+  }
+
+  /**
+   * BACK_OFFICE: Disburse every APPROVED loan (or the given loanIds) and generate a bank transfer
+   * file (CSV or FIXED_WIDTH)
+   */
+  @PostMapping("/disburse/batch")
+  @PreAuthorize("hasAnyRole('BACK_OFFICE', 'ADMIN')")
+  public ResponseEntity<ApiResponse<DisbursementBatchResponse>> disburseBatch(
+      @RequestBody DisbursementBatchRequest request, Authentication authentication) {
+    try {
+      String username = authentication.getName();
+      DisbursementBatchResponse response = disbursementBatchService.disburse(username, request);
+      return ResponseEntity.ok(
+          ApiResponse.<DisbursementBatchResponse>builder()
+              .success(true)
+              .message("Disbursement batch processed")
+              .data(response)
+              .build());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest()
+          .body(
+              ApiResponse.<DisbursementBatchResponse>builder()
                   .success(false)
                   .message(e.getMessage())
                   .build());
     }
   }
 
-  /** BACK_OFFICE/ADMIN: Get all disbursed loans with disbursement details */
+  /** BACK_OFFICE: Download a generated bank transfer file */
+  @GetMapping("/disburse/batch/{fileName}")
+  @PreAuthorize("hasAnyRole('BACK_OFFICE', 'ADMIN')")
+  public ResponseEntity<Resource> downloadDisbursementFile(@PathVariable String fileName) {
+    try {
+      Path file = disbursementBatchService.getBatchFile(fileName);
+      return ResponseEntity.ok()
+          .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+          .contentType(MediaType.TEXT_PLAIN)
+          .body(new FileSystemResource(file));
+    } catch (Exception e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+
+  /** BACK_OFFICE/ADMIN: Get all disbursed loans with disbursement details (paged) */
   @GetMapping("/disbursed")
   @PreAuthorize("hasAnyRole('BACK_OFFICE', 'ADMIN')")
-  public ResponseEntity<ApiResponse<List<LoanWithDisbursementResponse>>> getDisbursedLoans() {
+  public ResponseEntity<ApiResponse<Page<LoanWithDisbursementResponse>>> getDisbursedLoans(
+      @PageableDefault(size = 20) Pageable pageable) {
     try {
-      List<LoanWithDisbursementResponse> loans = loanService.getDisbursedLoansWithDetails();
+      Page<LoanWithDisbursementResponse> loans = loanService.getDisbursedLoansWithDetails(pageable);
       return ResponseEntity.ok(
-          ApiResponse.<List<LoanWithDisbursementResponse>>builder()
+          ApiResponse.<Page<LoanWithDisbursementResponse>>builder()
               .success(true)
               .message("Disbursed loans retrieved successfully")
               .data(loans)
@@ -261,51 +446,156 @@ public class LoanController {
     } catch (Exception e) {
       return ResponseEntity.badRequest()
           .body(
-              ApiResponse.<List<LoanWithDisbursementResponse>>builder()
+              ApiResponse.<Page<LoanWithDisbursementResponse>>builder()
                   .success(false)
                   .message(e.getMessage())
                   .build());
     }
   }
 
-  /** BACK_OFFICE: Disburse a loan */
+  /** BACK_OFFICE: Disburse a loan (supports Idempotency-Key for safe retries) */
   @PostMapping("/disburse/{loanId}")
   @PreAuthorize("hasAnyRole('BACK_OFFICE', 'ADMIN')")
   public ResponseEntity<ApiResponse<LoanResponse>> disburseLoan(
       @PathVariable Long loanId,
       @RequestBody LoanActionRequest request,
+      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
       Authentication authentication) {
+    String username = authentication.getName();
+    return idempotencyService.execute(
+        "loan-disburse:" + username + ":" + loanId,
+        idempotencyKey,
+        request,
+        LOAN_RESPONSE_TYPE,
+        () -> {
+          try {
+            LoanResponse response = loanService.disburseLoan(loanId, username, request);
+            return ResponseEntity.ok(
+                ApiResponse.<LoanResponse>builder()
+                    .success(true)
+                    .message("Loan disbursed successfully")
+                    .data(response)
+                    .build());
+          } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(
+                    ApiResponse.<LoanResponse>builder()
+                        .success(false)
+                        .message(e.getMessage())
+                        .build());
+          }
+        });
+  }
+
+  /** ADMIN: Get all loans (keyset paginated) */
+  @GetMapping("/all")
+  @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+  public ResponseEntity<ApiResponse<CursorPageResponse<LoanResponse>>> getAllLoans(
+      @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
     try {
-      String username = authentication.getName();
-      LoanResponse response = loanService.disburseLoan(loanId, username, request);
+      CursorPageResponse<LoanResponse> loans = loanService.getAllLoans(cursor, size);
       return ResponseEntity.ok(
-          ApiResponse.<LoanResponse>builder()
+          ApiResponse.<CursorPageResponse<LoanResponse>>builder()
               .success(true)
-              .message("Loan disbursed successfully")
-              .data(response)
+              .message("All loans retrieved successfully")
+              .data(loans)
               .build());
     } catch (Exception e) {
       return ResponseEntity.badRequest()
-          .body(ApiResponse.<LoanResponse>builder().success(false).message(e.getMessage()).build());
+          .body(
+              ApiResponse.<CursorPageResponse<LoanResponse>>builder()
+                  .success(false)
+                  .message(e.getMessage())
+                  .build());
     }
   }
 
-  /** ADMIN: Get all loans */
-  @GetMapping("/all")
-  @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-  public ResponseEntity<ApiResponse<List<LoanResponse>>> getAllLoans() {
+  /**
+   * Staff: Search loans by status, plafond, customer, amount range and submission date range. Sort
+   * with {@code sort=submittedAt,desc} (also amount, updatedAt, id); size is capped at 100.
+   */
+  @GetMapping("/search")
+  @PreAuthorize("hasAnyRole('MARKETING', 'BRANCH_MANAGER', 'BACK_OFFICE', 'ADMIN')")
+  public ResponseEntity<ApiResponse<Page<LoanResponse>>> searchLoans(
+      @ModelAttribute LoanFilterRequest filter, @PageableDefault(size = 20) Pageable pageable) {
     try {
-      List<LoanResponse> loans = loanService.getAllLoans();
+      Page<LoanResponse> loans = loanService.searchLoans(filter, pageable);
       return ResponseEntity.ok(
-          ApiResponse.<List<LoanResponse>>builder()
+          ApiResponse.<Page<LoanResponse>>builder()
               .success(true)
-              .message("All loans retrieved successfully")
+              .message("Loans retrieved successfully")
               .data(loans)
               .build());
     } catch (Exception e) {
       return ResponseEntity.badRequest()
           .body(
-              ApiResponse.<List<LoanResponse>>builder()
+              ApiResponse.<Page<LoanResponse>>builder()
+                  .success(false)
+                  .message(e.getMessage())
+                  .build());
+    }
+  }
+
+  /** Staff: Get loan counts per status for dashboard badges */
+  @GetMapping("/stats")
+  @PreAuthorize("hasAnyRole('MARKETING', 'BRANCH_MANAGER', 'BACK_OFFICE', 'ADMIN')")
+  public ResponseEntity<ApiResponse<LoanStatsResponse>> getLoanStats() {
+    try {
+      LoanStatsResponse stats = loanService.getLoanStats();
+      return ResponseEntity.ok(
+          ApiResponse.<LoanStatsResponse>builder()
+              .success(true)
+              .message("Loan stats retrieved successfully")
+              .data(stats)
+              .build());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest()
+          .body(
+              ApiResponse.<LoanStatsResponse>builder()
+                  .success(false)
+                  .message(e.getMessage())
+                  .build());
+    }
+  }
+
+  /** ADMIN: Regenerate the repayment schedules of all disbursed loans */
+  @PostMapping("/schedules/regenerate")
+  @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+  public ResponseEntity<ApiResponse<Integer>> regenerateSchedules() {
+    try {
+      int regenerated = repaymentScheduleService.regenerateAll();
+      return ResponseEntity.ok(
+          ApiResponse.<Integer>builder()
+              .success(true)
+              .message("Repayment schedules regenerated successfully")
+              .data(regenerated)
+              .build());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest()
+          .body(ApiResponse.<Integer>builder().success(false).message(e.getMessage()).build());
+    }
+  }
+
+  /** Get the repayment schedule of a disbursed loan (staff, or the customer who owns the loan) */
+  @GetMapping("/{loanId}/schedule")
+  @PreAuthorize("hasAnyRole('CUSTOMER', 'MARKETING', 'BRANCH_MANAGER', 'BACK_OFFICE', 'ADMIN')")
+  public ResponseEntity<ApiResponse<LoanScheduleResponse>> getLoanSchedule(
+      @PathVariable Long loanId, Authentication authentication) {
+    try {
+      if (!isStaff(authentication)) {
+        repaymentScheduleService.requireOwnedBy(loanId, authentication.getName());
+      }
+      LoanScheduleResponse schedule = repaymentScheduleService.getSchedule(loanId);
+      return ResponseEntity.ok(
+          ApiResponse.<LoanScheduleResponse>builder()
+              .success(true)
+              .message("Repayment schedule retrieved successfully")
+              .data(schedule)
+              .build());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest()
+          .body(
+              ApiResponse.<LoanScheduleResponse>builder()
                   .success(false)
                   .message(e.getMessage())
                   .build());
@@ -314,8 +604,13 @@ public class LoanController {
 
   /** Get loan by ID (accessible by all authenticated users) */
   @GetMapping("/{loanId}")
-  public ResponseEntity<ApiResponse<LoanResponse>> getLoanById(@PathVariable Long loanId) {
+  public ResponseEntity<ApiResponse<LoanResponse>> getLoanById(
+      @PathVariable Long loanId, WebRequest webRequest) {
     try {
+      ResourceVersion version = loanService.getLoanVersion(loanId);
+      if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+        return null;
+      }
       LoanResponse loan = loanService.getLoanById(loanId);
       return ResponseEntity.ok(
           ApiResponse.<LoanResponse>builder()
@@ -328,4 +623,10 @@ public class LoanController {
           .body(ApiResponse.<LoanResponse>builder().success(false).message(e.getMessage()).build());
     }
   }
+
+  private boolean isStaff(Authentication authentication) {
+    return authentication.getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority)
+        .anyMatch(STAFF_AUTHORITIES::contains);
+  }
 }
@@ -3,6 +3,7 @@ package com.example.genggamin.controller;
 import com.example.genggamin.dto.ApiResponse;
 import com.example.genggamin.dto.NotificationResponse;
 import com.example.genggamin.entity.User;
+import com.example.genggamin.repository.NotificationRepository;
 import com.example.genggamin.repository.UserRepository;
 import com.example.genggamin.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +14,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 @RestController
@@ -40,9 +42,18 @@ public class NotificationController {
   }
 
   @GetMapping("/unread-count")
-  public ResponseEntity<ApiResponse<Long>> getUnreadCount(Authentication authentication) {
-    User user = getCurrentUser(authentication);
-    long count = notificationService.countUnread(user);
+  public ResponseEntity<ApiResponse<Long>> getUnreadCount(
+      Authentication authentication, WebRequest webRequest) {
+    NotificationRepository.UnreadSummary summary =
+        notificationService.getUnreadSummary(authentication.getName());
+    long count = summary.getUnread();
+
+    // ETag berubah saat ada notifikasi baru atau notifikasi dibaca; 304 jika client sudah up to
+    // date
+    String etag = "unread-" + count + "-" + summary.getLatestId();
+    if (webRequest.checkNotModified(etag)) {
+      return null;
+    }
 
     return ResponseEntity.ok(new ApiResponse<>(true, "Unread count", count));
   }
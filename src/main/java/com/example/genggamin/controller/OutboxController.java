@@ -0,0 +1,46 @@
+package com.example.genggamin.controller;
+
+import com.example.genggamin.dto.ApiResponse;
+import com.example.genggamin.dto.OutboxReplayRequest;
+import com.example.genggamin.service.OutboxService;
+import java.util.Map;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/outbox")
+public class OutboxController {
+
+  private final OutboxService outboxService;
+
+  public OutboxController(OutboxService outboxService) {
+    this.outboxService = outboxService;
+  }
+
+  /** Kirim ulang event loan (notifikasi, email, webhook) dalam rentang waktu tertentu */
+  @PostMapping("/replay")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<ApiResponse<Map<String, Integer>>> replay(
+      @RequestBody OutboxReplayRequest request) {
+    try {
+      int replayed = outboxService.replay(request);
+      return ResponseEntity.ok(
+          ApiResponse.<Map<String, Integer>>builder()
+              .success(true)
+              .message("Outbox events queued for replay")
+              .data(Map.of("replayed", replayed))
+              .build());
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest()
+          .body(
+              ApiResponse.<Map<String, Integer>>builder()
+                  .success(false)
+                  .message(e.getMessage())
+                  .build());
+    }
+  }
+}
@@ -1,8 +1,12 @@
 package com.example.genggamin.controller;
 
 import com.example.genggamin.dto.ApiResponse;
+import com.example.genggamin.dto.LoanSimulationBatchRequest;
+import com.example.genggamin.dto.LoanSimulationBatchResponse;
 import com.example.genggamin.dto.LoanSimulationRequest;
 import com.example.genggamin.dto.LoanSimulationResponse;
+import com.example.genggamin.dto.PlafondRecommendationRequest;
+import com.example.genggamin.dto.PlafondRecommendationResponse;
 import com.example.genggamin.dto.PlafondRequest;
 import com.example.genggamin.dto.PlafondResponse;
 import com.example.genggamin.service.PlafondService;
@@ -134,6 +138,41 @@ public class PlafondController {
     }
   }
 
+  /**
+   * Recommend plafonds for an income, amount and tenor PUBLIC - Accessible without authentication
+   * e.g. /plafonds/recommend?income=8000000&amount=10000000&tenor=12, ranked by lowest total cost
+   */
+  @GetMapping("/recommend")
+  public ResponseEntity<ApiResponse<List<PlafondRecommendationResponse>>> recommendPlafonds(
+      @Valid PlafondRecommendationRequest request) {
+    try {
+      List<PlafondRecommendationResponse> recommendations = plafondService.recommend(request);
+      return ResponseEntity.ok(
+          ApiResponse.<List<PlafondRecommendationResponse>>builder()
+              .success(true)
+              .message(
+                  recommendations.isEmpty()
+                      ? "No plafond matches the requested income, amount and tenor"
+                      : "Plafond recommendations retrieved successfully")
+              .data(recommendations)
+              .build());
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body(
+              ApiResponse.<List<PlafondRecommendationResponse>>builder()
+                  .success(false)
+                  .message(e.getMessage())
+                  .build());
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body(
+              ApiResponse.<List<PlafondRecommendationResponse>>builder()
+                  .success(false)
+                  .message("Failed to recommend plafonds: " + e.getMessage())
+                  .build());
+    }
+  }
+
   /**
    * Simulate loan installment (GET version) PUBLIC - Accessible without authentication Allows
    * simulation via query params e.g. /plafonds/simulate?amount=10000000&tenor=12
@@ -173,6 +212,38 @@ public class PlafondController {
     }
   }
 
+  /**
+   * Simulate a whole amount x tenor grid in one call PUBLIC - Accessible without authentication.
+   * Cells without a matching plafond are null.
+   */
+  @PostMapping("/simulate/batch")
+  public ResponseEntity<ApiResponse<LoanSimulationBatchResponse>> simulateLoanBatch(
+      @Valid @RequestBody LoanSimulationBatchRequest request) {
+    try {
+      LoanSimulationBatchResponse simulation = plafondService.simulateBatch(request);
+      return ResponseEntity.ok(
+          ApiResponse.<LoanSimulationBatchResponse>builder()
+              .success(true)
+              .message("Loan simulation successful")
+              .data(simulation)
+              .build());
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body(
+              ApiResponse.<LoanSimulationBatchResponse>builder()
+                  .success(false)
+                  .message(e.getMessage())
+                  .build());
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body(
+              ApiResponse.<LoanSimulationBatchResponse>builder()
+                  .success(false)
+                  .message("Simulation failed: " + e.getMessage())
+                  .build());
+    }
+  }
+
   /** Create new plafond Only accessible by ADMIN */
   @PostMapping
   @PreAuthorize("hasAuthority('ROLE_ADMIN')")
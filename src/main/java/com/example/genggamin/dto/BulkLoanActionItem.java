@@ -0,0 +1,22 @@
+package com.example.genggamin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Satu loan di dalam bulk action; field action/notes/approved/bankAccount sama dengan
+ * LoanActionRequest
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLoanActionItem {
+  private Long loanId;
+  private String action;
+  private String notes;
+  private Boolean approved;
+  private String bankAccount;
+}
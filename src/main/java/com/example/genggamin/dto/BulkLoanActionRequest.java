@@ -0,0 +1,15 @@
+package com.example.genggamin.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLoanActionRequest {
+  private List<BulkLoanActionItem> items;
+}
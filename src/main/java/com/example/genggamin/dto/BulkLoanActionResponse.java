@@ -0,0 +1,17 @@
+package com.example.genggamin.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLoanActionResponse {
+  private int succeeded;
+  private int failed;
+  private List<BulkLoanActionResult> results;
+}
@@ -0,0 +1,18 @@
+package com.example.genggamin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Hasil bulk action untuk satu loan */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLoanActionResult {
+  private Long loanId;
+  private boolean success;
+  private String status;
+  private String message;
+}
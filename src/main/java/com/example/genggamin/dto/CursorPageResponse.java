@@ -0,0 +1,22 @@
+package com.example.genggamin.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Satu halaman hasil keyset pagination. Kirim {@code nextCursor} sebagai parameter {@code cursor}
+ * untuk mengambil halaman berikutnya; null berarti sudah halaman terakhir.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+  private List<T> items;
+  private String nextCursor;
+  private boolean hasNext;
+  private int size;
+}
@@ -0,0 +1,21 @@
+package com.example.genggamin.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisbursementBatchRequest {
+  /** Loan yang akan dicairkan; kosong = semua loan APPROVED */
+  private List<Long> loanIds;
+
+  /** CSV (default) atau FIXED_WIDTH */
+  private String format;
+
+  private String notes;
+}
@@ -0,0 +1,26 @@
+package com.example.genggamin.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisbursementBatchResponse {
+  private String batchId;
+
+  /** Nama file transfer; null bila tidak ada loan yang dicairkan */
+  private String fileName;
+
+  private String format;
+  private int disbursedCount;
+
+  /** Loan yang dilewati: bukan APPROVED, sudah dicairkan, atau customer belum punya rekening */
+  private int skippedCount;
+
+  private BigDecimal totalAmount;
+}
@@ -0,0 +1,40 @@
+package com.example.genggamin.dto;
+
+import com.example.genggamin.entity.Loan;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posisi keyset (submission_date, id) untuk pagination antrian loan. Di-encode sebagai string
+ * Base64 URL-safe supaya opaque bagi client.
+ */
+public record LoanCursor(LocalDateTime submittedAt, Long id) {
+
+  public static LoanCursor of(Loan loan) {
+    return new LoanCursor(loan.getSubmittedAt(), loan.getId());
+  }
+
+  public String encode() {
+    String raw = submittedAt + "|" + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Decode cursor dari request, null jika cursor tidak dikirim */
+  public static LoanCursor decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf('|');
+      return new LoanCursor(
+          LocalDateTime.parse(raw.substring(0, separator)),
+          Long.parseLong(raw.substring(separator + 1)));
+    } catch (RuntimeException e) {
+      throw new RuntimeException("Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.genggamin.dto;
+
+import com.example.genggamin.entity.Loan.LoanStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+/** Filter untuk pencarian loan oleh staff; semua field opsional */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanFilterRequest {
+  private LoanStatus status;
+  private Long plafondId;
+  private Long customerId;
+  private BigDecimal minAmount;
+  private BigDecimal maxAmount;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private LocalDateTime submittedFrom;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private LocalDateTime submittedTo;
+}
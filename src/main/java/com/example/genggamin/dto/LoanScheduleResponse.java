@@ -0,0 +1,36 @@
+package com.example.genggamin.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanScheduleResponse {
+  private Long loanId;
+  private BigDecimal loanAmount;
+  private Long tenorMonth;
+  private BigDecimal interestRate; // Monthly rate in percent
+  private BigDecimal totalInterest;
+  private BigDecimal totalPayment;
+  private List<Installment> installments;
+
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Installment {
+    private Integer number;
+    private LocalDate dueDate;
+    private BigDecimal principal;
+    private BigDecimal interest;
+    private BigDecimal amount;
+    private BigDecimal outstandingPrincipal;
+  }
+}
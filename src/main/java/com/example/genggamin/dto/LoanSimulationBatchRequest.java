@@ -0,0 +1,37 @@
+package com.example.genggamin.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanSimulationBatchRequest {
+  @NotEmpty(message = "At least one amount is required")
+  @Size(max = 100, message = "At most 100 amounts per request")
+  private List<
+          @NotNull(message = "Loan amount is required") @DecimalMin(value = "1.0", message = "Loan amount must be greater than 0") BigDecimal>
+      amounts;
+
+  @NotEmpty(message = "At least one tenor is required")
+  @Size(max = 60, message = "At most 60 tenors per request")
+  private List<
+          @NotNull(message = "Tenor is required") @Min(value = 1, message = "Tenor must be at least 1") Long>
+      tenors;
+
+  // Optional: simulate every cell against one specific plafond
+  private Long plafondId;
+
+  // Optional: FLAT (default) or ANNUITY (effective rate)
+  private String calculationMode;
+}
@@ -0,0 +1,20 @@
+package com.example.genggamin.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanSimulationBatchResponse {
+  private List<BigDecimal> amounts;
+  private List<Long> tenors;
+  // results.get(i).get(j) = simulation for amounts[i] x tenors[j]; null if no plafond fits
+  private List<List<LoanSimulationResponse>> results;
+  private Integer availableCount;
+}
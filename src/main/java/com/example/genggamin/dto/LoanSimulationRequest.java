@@ -20,4 +20,7 @@ public class LoanSimulationRequest {
 
   // Optional: if user selects a specific plafond
   private Long plafondId;
+
+  // Optional: FLAT (default) or ANNUITY (effective rate)
+  private String calculationMode;
 }
@@ -7,7 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class LoanSimulationResponse {
@@ -18,4 +18,5 @@ public class LoanSimulationResponse {
   private BigDecimal totalInterest;
   private BigDecimal totalPayment;
   private Long plafondId; // Reference to the used rule
+  private String calculationMode; // FLAT or ANNUITY
 }
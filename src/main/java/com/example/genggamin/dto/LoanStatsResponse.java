@@ -0,0 +1,18 @@
+package com.example.genggamin.dto;
+
+import com.example.genggamin.entity.Loan.LoanStatus;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Jumlah loan per status untuk badge dashboard staff */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanStatsResponse {
+  private Map<LoanStatus, Long> counts;
+  private long total;
+}
@@ -1,6 +1,7 @@
 package com.example.genggamin.dto;
 
 import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
 import com.example.genggamin.entity.LoanApproval;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -36,6 +37,46 @@ public class LoanWithApprovalResponse {
   private String approvalNotes;
   private LocalDateTime approvedAt;
 
+  /** Dipakai oleh JPQL constructor expression di LoanRepository */
+  public LoanWithApprovalResponse(
+      Long id,
+      Long customerId,
+      Long plafondId,
+      BigDecimal loanAmount,
+      Long tenorMonth,
+      BigDecimal interestRate,
+      String purpose,
+      LoanStatus status,
+      LocalDateTime submissionDate,
+      LocalDateTime createdAt,
+      LocalDateTime updatedAt,
+      BigDecimal latitude,
+      BigDecimal longitude,
+      Long approvalId,
+      Long approvedBy,
+      String approvalStatus,
+      String approvalNotes,
+      LocalDateTime approvedAt) {
+    this.id = id;
+    this.customerId = customerId;
+    this.plafondId = plafondId;
+    this.loanAmount = loanAmount;
+    this.tenorMonth = tenorMonth;
+    this.interestRate = interestRate;
+    this.purpose = purpose;
+    this.status = status != null ? status.toString() : null;
+    this.submissionDate = submissionDate;
+    this.createdAt = createdAt;
+    this.updatedAt = updatedAt;
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.approvalId = approvalId;
+    this.approvedBy = approvedBy;
+    this.approvalStatus = approvalStatus;
+    this.approvalNotes = approvalNotes;
+    this.approvedAt = approvedAt;
+  }
+
   public static LoanWithApprovalResponse fromEntities(Loan loan, LoanApproval approval) {
     return LoanWithApprovalResponse.builder()
         .id(loan.getId())
@@ -1,5 +1,6 @@
 package com.example.genggamin.dto;
 
+import com.example.genggamin.entity.Loan.LoanStatus;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -38,6 +39,58 @@ public class LoanWithDisbursementResponse {
   // Constructors
   public LoanWithDisbursementResponse() {}
 
+  /** Dipakai oleh JPQL constructor expression di LoanRepository */
+  public LoanWithDisbursementResponse(
+      Long id,
+      Long customerId,
+      Long plafondId,
+      BigDecimal loanAmount,
+      Long tenorMonth,
+      BigDecimal interestRate,
+      String purpose,
+      LoanStatus status,
+      LocalDateTime submissionDate,
+      LocalDateTime createdAt,
+      LocalDateTime updatedAt,
+      BigDecimal latitude,
+      BigDecimal longitude,
+      Long disbursementId,
+      Long disbursedBy,
+      BigDecimal disbursementAmount,
+      LocalDateTime disbursementDate,
+      String bankAccount,
+      String disbursementStatus,
+      Long approvalId,
+      Long approvedBy,
+      String approvalStatus,
+      String approvalNotes,
+      LocalDateTime approvedAt) {
+    this.id = id;
+    this.customerId = customerId;
+    this.plafondId = plafondId;
+    this.loanAmount = loanAmount;
+    this.tenorMonth = tenorMonth;
+    this.interestRate = interestRate;
+    this.purpose = purpose;
+    this.status = status != null ? status.toString() : null;
+    this.submissionDate = submissionDate;
+    this.createdAt = createdAt;
+    this.updatedAt = updatedAt;
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.disbursementId = disbursementId;
+    this.disbursedBy = disbursedBy;
+    this.disbursementAmount = disbursementAmount;
+    this.disbursementDate = disbursementDate;
+    this.bankAccount = bankAccount;
+    this.disbursementStatus = disbursementStatus;
+    this.approvalId = approvalId;
+    this.approvedBy = approvedBy;
+    this.approvalStatus = approvalStatus;
+    this.approvalNotes = approvalNotes;
+    this.approvedAt = approvedAt;
+  }
+
   // Getters and Setters
   public Long getId() {
     return id;
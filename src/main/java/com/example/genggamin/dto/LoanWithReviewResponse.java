@@ -1,6 +1,7 @@
 package com.example.genggamin.dto;
 
 import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
 import com.example.genggamin.entity.LoanReview;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -36,6 +37,46 @@ public class LoanWithReviewResponse {
   private String reviewStatus;
   private LocalDateTime reviewedAt;
 
+  /** Dipakai oleh JPQL constructor expression di LoanRepository */
+  public LoanWithReviewResponse(
+      Long id,
+      Long customerId,
+      Long plafondId,
+      BigDecimal loanAmount,
+      Long tenorMonth,
+      BigDecimal interestRate,
+      String purpose,
+      LoanStatus status,
+      LocalDateTime submissionDate,
+      LocalDateTime createdAt,
+      LocalDateTime updatedAt,
+      BigDecimal latitude,
+      BigDecimal longitude,
+      Long reviewId,
+      Long reviewedBy,
+      String reviewNotes,
+      String reviewStatus,
+      LocalDateTime reviewedAt) {
+    this.id = id;
+    this.customerId = customerId;
+    this.plafondId = plafondId;
+    this.loanAmount = loanAmount;
+    this.tenorMonth = tenorMonth;
+    this.interestRate = interestRate;
+    this.purpose = purpose;
+    this.status = status != null ? status.toString() : null;
+    this.submissionDate = submissionDate;
+    this.createdAt = createdAt;
+    this.updatedAt = updatedAt;
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.reviewId = reviewId;
+    this.reviewedBy = reviewedBy;
+    this.reviewNotes = reviewNotes;
+    this.reviewStatus = reviewStatus;
+    this.reviewedAt = reviewedAt;
+  }
+
   public static LoanWithReviewResponse fromEntities(Loan loan, LoanReview review) {
     return LoanWithReviewResponse.builder()
         .id(loan.getId())
@@ -0,0 +1,19 @@
+package com.example.genggamin.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Rentang event outbox yang dikirim ulang; destination kosong berarti semua destination */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxReplayRequest {
+  private LocalDateTime from;
+  private LocalDateTime to;
+  private String destination;
+  private Boolean failedOnly;
+}
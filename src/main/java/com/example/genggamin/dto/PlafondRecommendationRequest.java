@@ -0,0 +1,28 @@
+package com.example.genggamin.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlafondRecommendationRequest {
+  @NotNull(message = "Income is required") @DecimalMin(value = "1.0", message = "Income must be greater than 0")
+  private BigDecimal income;
+
+  @NotNull(message = "Loan amount is required") @DecimalMin(value = "1.0", message = "Loan amount must be greater than 0")
+  private BigDecimal amount;
+
+  @NotNull(message = "Tenor is required") @Min(value = 1, message = "Tenor must be at least 1")
+  private Long tenor;
+
+  // Optional: FLAT (default) or ANNUITY (effective rate)
+  private String calculationMode;
+}
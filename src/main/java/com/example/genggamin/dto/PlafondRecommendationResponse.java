@@ -0,0 +1,20 @@
+package com.example.genggamin.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlafondRecommendationResponse {
+  private Integer rank; // 1 = lowest total cost
+  private Long plafondId;
+  private String title;
+  private BigDecimal maxAmount;
+  private Long maxTenorMonth;
+  private LoanSimulationResponse simulation; // Requested amount and tenor on this plafond
+}
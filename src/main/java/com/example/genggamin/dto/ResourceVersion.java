@@ -0,0 +1,7 @@
+package com.example.genggamin.dto;
+
+/**
+ * Versi sebuah resource untuk conditional GET. {@code etag} dibandingkan dengan If-None-Match dan
+ * {@code lastModified} (epoch millis) dengan If-Modified-Since sebelum response lengkap dibangun.
+ */
+public record ResourceVersion(String etag, long lastModified) {}
@@ -35,6 +35,16 @@ public class CustomerLimit {
   @Builder.Default
   private Boolean isLocked = false;
 
+  /**
+   * Versi optimistic locking. Perubahan limit memakai UPDATE atomik (stored procedure dan {@code
+   * CustomerLimitService#restoreLimit}) yang juga menaikkan versi, sehingga entity lama yang
+   * disimpan setelahnya gagal dengan OptimisticLockException, bukan menimpa limit.
+   */
+  @Version
+  @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+  @Builder.Default
+  private Long version = 0L;
+
   @Column(name = "updated_at")
   @org.hibernate.annotations.UpdateTimestamp
   private LocalDateTime updatedAt;
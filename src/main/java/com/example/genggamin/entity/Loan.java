@@ -9,7 +9,18 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "loans")
+@Table(
+    name = "loans",
+    indexes = {
+      // Keyset pagination antrian per status dan /loans/all: ORDER BY submission_date, id
+      @Index(name = "idx_loans_status_submission", columnList = "status, submission_date, id"),
+      @Index(name = "idx_loans_submission", columnList = "submission_date, id"),
+      // Keyset per id untuk batch disbursement (semua loan APPROVED)
+      @Index(name = "idx_loans_status_id", columnList = "status, id"),
+      // Filter /loans/search per customer dan per plafond
+      @Index(name = "idx_loans_customer", columnList = "customer_id, id"),
+      @Index(name = "idx_loans_plafond_submission", columnList = "plafond_id, submission_date")
+    })
 @Data
 @Builder
 @NoArgsConstructor
@@ -56,7 +67,8 @@ public class Loan {
 
   @Transient private String disbursementNotes;
 
-  @Column(name = "submission_date")
+  // NOT NULL: kunci keyset pagination (LoanCursor), lihat db/migrations
+  @Column(name = "submission_date", nullable = false)
   @Builder.Default
   private LocalDateTime submittedAt = LocalDateTime.now();
 
@@ -0,0 +1,56 @@
+package com.example.genggamin.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Jadwal angsuran loan yang sudah dicairkan. Nominal disimpan dalam satuan sen (long) supaya jumlah
+ * seluruh angsuran selalu sama persis dengan pokok + bunga, tanpa selisih pembulatan.
+ */
+@Entity
+@Table(
+    name = "loan_installments",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_loan_installments_loan_number",
+            columnNames = {"loan_id", "installment_number"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanInstallment {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "loan_id", nullable = false)
+  private Long loanId;
+
+  @Column(name = "installment_number", nullable = false)
+  private Integer installmentNumber;
+
+  @Column(name = "due_date", nullable = false)
+  private LocalDate dueDate;
+
+  @Column(name = "principal_cents", nullable = false)
+  private Long principalCents;
+
+  @Column(name = "interest_cents", nullable = false)
+  private Long interestCents;
+
+  @Column(name = "amount_cents", nullable = false)
+  private Long amountCents;
+
+  /** Sisa pokok setelah angsuran ini dibayar */
+  @Column(name = "outstanding_cents", nullable = false)
+  private Long outstandingCents;
+
+  @Column(name = "generated_at", nullable = false)
+  private LocalDateTime generatedAt;
+}
@@ -0,0 +1,33 @@
+package com.example.genggamin.entity;
+
+import com.example.genggamin.entity.Loan.LoanStatus;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counter jumlah loan per status. Diperbarui secara atomik (count = count +/- 1) di transaksi yang
+ * sama dengan perubahan status loan, dan dikoreksi berkala oleh job rekonsiliasi.
+ */
+@Entity
+@Table(name = "loan_status_counters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanStatusCounter {
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(length = 30)
+  private LoanStatus status;
+
+  @Column(name = "loan_count", nullable = false)
+  private long count;
+
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+}
@@ -0,0 +1,64 @@
+package com.example.genggamin.entity;
+
+import com.example.genggamin.entity.Loan.LoanStatus;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read model denormalisasi untuk detail loan. Satu baris per loan berisi status serta username,
+ * waktu dan catatan dari setiap tahap (review, approval, disbursement). Diperbarui di transaksi
+ * yang sama dengan perubahan status loan sehingga tampilan list/detail tidak perlu join ke
+ * loan_reviews, loan_approvals, loan_disbursements dan users.
+ */
+@Entity
+@Table(
+    name = "loan_timeline",
+    indexes = {@Index(name = "idx_loan_timeline_status", columnList = "status, loan_id")})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanTimeline {
+
+  @Id
+  @Column(name = "loan_id")
+  private Long loanId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 30)
+  private LoanStatus status;
+
+  @Column(name = "reviewed_by")
+  private String reviewedBy;
+
+  @Column(name = "reviewed_at")
+  private LocalDateTime reviewedAt;
+
+  @Column(name = "review_notes", length = 500)
+  private String reviewNotes;
+
+  @Column(name = "approved_by")
+  private String approvedBy;
+
+  @Column(name = "approved_at")
+  private LocalDateTime approvedAt;
+
+  @Column(name = "approval_notes", length = 500)
+  private String approvalNotes;
+
+  @Column(name = "disbursed_by")
+  private String disbursedBy;
+
+  @Column(name = "disbursed_at")
+  private LocalDateTime disbursedAt;
+
+  @Column(name = "disbursement_notes", length = 500)
+  private String disbursementNotes;
+
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+}
@@ -44,6 +44,14 @@ public class Notification {
   @Column(length = 500)
   private String message;
 
+  /**
+   * Id baris outbox yang menghasilkan notifikasi ini; null untuk notifikasi di luar outbox. Unik
+   * per (event, user, type, loan) lewat filtered index di db/migrations, sehingga retry relay tidak
+   * menyimpan dan mengirim ulang notifikasi yang sudah terkirim.
+   */
+  @Column(name = "outbox_event_id")
+  private Long outboxEventId;
+
   @Column(name = "is_read")
   @Builder.Default
   private Boolean isRead = false;
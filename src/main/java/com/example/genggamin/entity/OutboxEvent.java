@@ -0,0 +1,68 @@
+package com.example.genggamin.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Event loan yang ditulis di transaksi yang sama dengan perubahan status, satu baris per
+ * destination (notification, email, webhook). OutboxRelay mengirimkannya setelah commit, sehingga
+ * event tidak hilang walaupun aplikasi mati tepat setelah commit.
+ */
+@Entity
+@Table(
+    name = "outbox",
+    indexes = {
+      @Index(name = "idx_outbox_pending", columnList = "status, available_at, id"),
+      @Index(name = "idx_outbox_created", columnList = "created_at")
+    })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "event_type", nullable = false, length = 50)
+  private String eventType;
+
+  @Column(nullable = false, length = 30)
+  private String destination;
+
+  @Column(nullable = false, columnDefinition = "NVARCHAR(MAX)")
+  private String payload;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  @Builder.Default
+  private OutboxStatus status = OutboxStatus.PENDING;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private Integer attempts = 0;
+
+  /** Baris baru bisa di-claim relay setelah waktu ini (lease saat diproses, backoff saat gagal) */
+  @Column(name = "available_at", nullable = false)
+  private LocalDateTime availableAt;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "processed_at")
+  private LocalDateTime processedAt;
+
+  @Column(name = "last_error", length = 1000)
+  private String lastError;
+
+  public enum OutboxStatus {
+    PENDING,
+    PROCESSED,
+    FAILED
+  }
+}
@@ -0,0 +1,7 @@
+package com.example.genggamin.enums;
+
+/** Format file transfer bank untuk batch disbursement */
+public enum DisbursementFileFormat {
+  CSV,
+  FIXED_WIDTH
+}
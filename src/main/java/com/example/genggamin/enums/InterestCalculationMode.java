@@ -0,0 +1,7 @@
+package com.example.genggamin.enums;
+
+/** Cara menghitung bunga simulasi: flat (bunga dari pokok awal) atau anuitas (efektif) */
+public enum InterestCalculationMode {
+  FLAT,
+  ANNUITY
+}
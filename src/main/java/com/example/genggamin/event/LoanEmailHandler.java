@@ -0,0 +1,74 @@
+package com.example.genggamin.event;
+
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.User;
+import com.example.genggamin.repository.LoanRepository;
+import com.example.genggamin.repository.UserRepository;
+import com.example.genggamin.service.EmailService;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/** Email ke customer saat loan ditolak, disetujui atau dicairkan */
+@Component
+public class LoanEmailHandler implements LoanEventHandler {
+
+  private final LoanRepository loanRepository;
+  private final UserRepository userRepository;
+  private final EmailService emailService;
+
+  public LoanEmailHandler(
+      LoanRepository loanRepository, UserRepository userRepository, EmailService emailService) {
+    this.loanRepository = loanRepository;
+    this.userRepository = userRepository;
+    this.emailService = emailService;
+  }
+
+  @Override
+  public String destination() {
+    return "email";
+  }
+
+  @Override
+  public boolean isPerLoan() {
+    return true;
+  }
+
+  @Override
+  public void handle(Long eventId, LoanTransitionEvent event) {
+    Map<Long, Loan> loans = LoanEvents.loadLoans(loanRepository, event);
+
+    for (LoanTransitionEvent.Transition transition : event.transitions()) {
+      Loan loan = loans.get(transition.loanId());
+      if (loan == null) {
+        continue;
+      }
+      User customerUser = LoanEvents.customerUserOf(userRepository, loan);
+      if (customerUser == null) {
+        continue;
+      }
+
+      switch (transition.to()) {
+        case REJECTED ->
+            emailService.sendLoanRejectedEmail(
+                customerUser.getEmail(),
+                customerUser.getUsername(),
+                loan.getId(),
+                transition.notes());
+        case APPROVED ->
+            emailService.sendLoanApprovedEmail(
+                customerUser.getEmail(),
+                customerUser.getUsername(),
+                loan.getId(),
+                loan.getAmount());
+        case DISBURSED ->
+            emailService.sendLoanDisbursedEmail(
+                customerUser.getEmail(),
+                customerUser.getUsername(),
+                loan.getId(),
+                loan.getAmount(),
+                transition.bankAccount());
+        default -> {}
+      }
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.genggamin.event;
+
+/**
+ * Tujuan pengiriman event loan dari outbox. Setiap handler mendapat baris outbox sendiri, sehingga
+ * retry satu destination tidak mengirim ulang ke destination lain. Handler melempar exception bila
+ * gagal; relay akan mencoba lagi dengan backoff, jadi implementasi harus aman dipanggil ulang.
+ */
+public interface LoanEventHandler {
+
+  /** Nama destination yang disimpan di kolom outbox.destination */
+  String destination();
+
+  /** Handler yang tidak aktif (mis. webhook tanpa URL) tidak mendapat baris outbox */
+  default boolean isEnabled() {
+    return true;
+  }
+
+  /**
+   * true bila event bulk dipecah menjadi satu baris per loan, supaya retry tidak mengulang side
+   * effect yang tidak idempotent (mis. email) untuk loan lain dalam batch yang sama
+   */
+  default boolean isPerLoan() {
+    return false;
+  }
+
+  /**
+   * @param eventId id baris outbox, dipakai sebagai idempotency key oleh penerima eksternal
+   */
+  void handle(Long eventId, LoanTransitionEvent event);
+}
@@ -0,0 +1,31 @@
+package com.example.genggamin.event;
+
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.User;
+import com.example.genggamin.repository.LoanRepository;
+import com.example.genggamin.repository.UserRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Helper bersama untuk handler event loan */
+final class LoanEvents {
+
+  private LoanEvents() {}
+
+  /** Loan dalam event beserta customer dan user-nya, di-load dalam satu query */
+  static Map<Long, Loan> loadLoans(LoanRepository loanRepository, LoanTransitionEvent event) {
+    List<Long> loanIds =
+        event.transitions().stream().map(LoanTransitionEvent.Transition::loanId).toList();
+    return loanRepository.findWithCustomerByIdIn(loanIds).stream()
+        .collect(Collectors.toMap(Loan::getId, Function.identity()));
+  }
+
+  static User customerUserOf(UserRepository userRepository, Loan loan) {
+    User customerUser = loan.getCustomer().getUser();
+    return customerUser != null
+        ? customerUser
+        : userRepository.findById(loan.getCustomer().getUserId()).orElse(null);
+  }
+}
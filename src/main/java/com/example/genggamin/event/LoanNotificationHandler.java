@@ -0,0 +1,131 @@
+package com.example.genggamin.event;
+
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.entity.User;
+import com.example.genggamin.enums.NotificationType;
+import com.example.genggamin.repository.LoanRepository;
+import com.example.genggamin.repository.UserRepository;
+import com.example.genggamin.service.NotificationService;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * Notifikasi in-app/push untuk transisi loan: customer per loan, staff tahap berikutnya sebagai
+ * satu ringkasan per orang, dan konfirmasi untuk staff yang melakukan aksi. Setiap notifikasi
+ * dicatat dengan id event outbox; saat relay mengulang event, penerima yang sudah mendapat
+ * notifikasinya dilewati.
+ */
+@Component
+public class LoanNotificationHandler implements LoanEventHandler {
+
+  private final LoanRepository loanRepository;
+  private final UserRepository userRepository;
+  private final NotificationService notificationService;
+
+  public LoanNotificationHandler(
+      LoanRepository loanRepository,
+      UserRepository userRepository,
+      NotificationService notificationService) {
+    this.loanRepository = loanRepository;
+    this.userRepository = userRepository;
+    this.notificationService = notificationService;
+  }
+
+  @Override
+  public String destination() {
+    return "notification";
+  }
+
+  @Override
+  public void handle(Long eventId, LoanTransitionEvent event) {
+    Map<Long, Loan> loans = LoanEvents.loadLoans(loanRepository, event);
+
+    List<Loan> submitted = new ArrayList<>();
+    List<Loan> readyForApproval = new ArrayList<>();
+    List<Loan> readyForDisbursement = new ArrayList<>();
+    Map<NotificationType, List<Loan>> completedByActor = new EnumMap<>(NotificationType.class);
+
+    for (LoanTransitionEvent.Transition transition : event.transitions()) {
+      Loan loan = loans.get(transition.loanId());
+      if (loan == null) {
+        continue;
+      }
+
+      notifyCustomer(eventId, transition, loan);
+
+      switch (transition.to()) {
+        case SUBMITTED -> submitted.add(loan);
+        case UNDER_REVIEW -> readyForApproval.add(loan);
+        case APPROVED -> readyForDisbursement.add(loan);
+        default -> {}
+      }
+
+      NotificationType completion = completionType(transition.from());
+      if (completion != null) {
+        completedByActor.computeIfAbsent(completion, type -> new ArrayList<>()).add(loan);
+      }
+    }
+
+    // Staff fan-out: one (summary) notification per staff member
+    notifyRole(eventId, "MARKETING", NotificationType.LOAN_NEW, submitted);
+    notifyRole(eventId, "BRANCH_MANAGER", NotificationType.READY_FOR_APPROVAL, readyForApproval);
+    notifyRole(
+        eventId, "BACK_OFFICE", NotificationType.READY_FOR_DISBURSEMENT, readyForDisbursement);
+
+    // Confirmation for the staff member who performed the action
+    if (!completedByActor.isEmpty()) {
+      userRepository
+          .findById(event.actorUserId())
+          .ifPresent(
+              actor ->
+                  completedByActor.forEach(
+                      (type, completed) ->
+                          notificationService.sendSummaryNotification(
+                              actor, type, completed, eventId)));
+    }
+  }
+
+  private void notifyCustomer(Long eventId, LoanTransitionEvent.Transition transition, Loan loan) {
+    NotificationType type =
+        switch (transition.to()) {
+          case SUBMITTED -> NotificationType.LOAN_SUBMISSION;
+          case REJECTED -> NotificationType.LOAN_REJECTED;
+          case APPROVED -> NotificationType.LOAN_APPROVED;
+          case DISBURSED -> NotificationType.LOAN_DISBURSED;
+          default -> null;
+        };
+    if (type == null) {
+      return;
+    }
+    User customerUser = LoanEvents.customerUserOf(userRepository, loan);
+    if (customerUser != null) {
+      notificationService.sendNotification(customerUser, type, loan, eventId);
+    }
+  }
+
+  private void notifyRole(Long eventId, String roleName, NotificationType type, List<Loan> loans) {
+    if (loans.isEmpty()) {
+      return;
+    }
+    for (User staff : userRepository.findByRoles_Name(roleName)) {
+      notificationService.sendSummaryNotification(staff, type, loans, eventId);
+    }
+  }
+
+  /** Notifikasi konfirmasi untuk staff berdasarkan tahap yang baru diselesaikan */
+  private NotificationType completionType(LoanStatus from) {
+    if (from == null) {
+      return null;
+    }
+    return switch (from) {
+      case SUBMITTED -> NotificationType.REVIEW_COMPLETED;
+      case UNDER_REVIEW -> NotificationType.APPROVAL_COMPLETED;
+      case APPROVED -> NotificationType.DISBURSEMENT_COMPLETED;
+      default -> null;
+    };
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.genggamin.event;
+
+import com.example.genggamin.entity.Loan.LoanStatus;
+import java.util.List;
+
+/**
+ * Ditulis ke outbox oleh LoanService/LoanBulkService di dalam transaksi setiap kali status loan
+ * berubah, lalu dikirim ke setiap {@link LoanEventHandler} oleh OutboxRelay setelah commit.
+ *
+ * @param actorUserId user yang melakukan aksi (customer untuk submission, staff untuk lainnya)
+ * @param transitions satu entry per loan; bulk action mengirim semua loan dalam satu event
+ */
+public record LoanTransitionEvent(Long actorUserId, List<Transition> transitions) {
+
+  /**
+   * @param from status sebelum transisi, null untuk submission
+   */
+  public record Transition(
+      Long loanId, LoanStatus from, LoanStatus to, String notes, String bankAccount) {}
+
+  public static LoanTransitionEvent of(
+      Long actorUserId,
+      Long loanId,
+      LoanStatus from,
+      LoanStatus to,
+      String notes,
+      String bankAccount) {
+    return new LoanTransitionEvent(
+        actorUserId, List.of(new Transition(loanId, from, to, notes, bankAccount)));
+  }
+
+  /** Pecah event bulk menjadi satu event per loan */
+  public List<LoanTransitionEvent> perLoan() {
+    if (transitions.size() == 1) {
+      return List.of(this);
+    }
+    return transitions.stream()
+        .map(transition -> new LoanTransitionEvent(actorUserId, List.of(transition)))
+        .toList();
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.genggamin.event;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Meneruskan event transisi loan ke sistem eksternal lewat HTTP POST. Aktif hanya bila
+ * app.outbox.webhook.url diisi. Header X-Event-Id berisi id outbox; penerima memakainya untuk
+ * mengabaikan kiriman ulang.
+ */
+@Component
+public class LoanWebhookHandler implements LoanEventHandler {
+
+  private final String url;
+  private final RestClient restClient;
+
+  public LoanWebhookHandler(
+      @Value("${app.outbox.webhook.url:}") String url,
+      @Value("${app.outbox.webhook.timeout-ms:5000}") long timeoutMs) {
+    this.url = url;
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(Duration.ofMillis(timeoutMs));
+    requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+    this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+  }
+
+  @Override
+  public String destination() {
+    return "webhook";
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return url != null && !url.isBlank();
+  }
+
+  @Override
+  public void handle(Long eventId, LoanTransitionEvent event) {
+    // Non-2xx responses throw, so the relay retries with backoff
+    restClient
+        .post()
+        .uri(url)
+        .contentType(MediaType.APPLICATION_JSON)
+        .header("X-Event-Id", String.valueOf(eventId))
+        .body(event)
+        .retrieve()
+        .toBodilessEntity();
+  }
+}
@@ -1,11 +1,46 @@
 package com.example.genggamin.repository;
 
 import com.example.genggamin.entity.CustomerLimit;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CustomerLimitRepository extends JpaRepository<CustomerLimit, Long> {
   java.util.List<CustomerLimit> findByCustomer_Id(Long customerId);
 
   Optional<CustomerLimit> findByCustomer_IdAndPlafond_Id(Long customerId, Long plafondId);
+
+  /**
+   * Limit yang available_limit-nya tidak sama dengan total_limit dikurangi jumlah loan yang masih
+   * memakai limit (semua status kecuali {@code released}).
+   */
+  @Query(
+      "SELECT cl.id AS limitId, cl.customer.id AS customerId, cl.plafond.id AS plafondId, "
+          + "cl.totalLimit AS totalLimit, cl.availableLimit AS availableLimit, "
+          + "COALESCE(SUM(l.amount), 0) AS usedAmount "
+          + "FROM CustomerLimit cl LEFT JOIN Loan l "
+          + "ON l.customer.id = cl.customer.id AND l.plafondId = cl.plafond.id "
+          + "AND l.status <> :released "
+          + "GROUP BY cl.id, cl.customer.id, cl.plafond.id, cl.totalLimit, cl.availableLimit "
+          + "HAVING cl.availableLimit <> cl.totalLimit - COALESCE(SUM(l.amount), 0)")
+  List<LedgerMismatchView> findLedgerMismatches(@Param("released") LoanStatus released);
+
+  /** Projection selisih ledger limit */
+  interface LedgerMismatchView {
+    Long getLimitId();
+
+    Long getCustomerId();
+
+    Long getPlafondId();
+
+    BigDecimal getTotalLimit();
+
+    BigDecimal getAvailableLimit();
+
+    BigDecimal getUsedAmount();
+  }
 }
@@ -1,6 +1,8 @@
 package com.example.genggamin.repository;
 
 import com.example.genggamin.entity.LoanApproval;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -8,4 +10,6 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface LoanApprovalRepository extends JpaRepository<LoanApproval, Long> {
   Optional<LoanApproval> findByLoanId(Long loanId);
+
+  List<LoanApproval> findByLoanIdIn(Collection<Long> loanIds);
 }
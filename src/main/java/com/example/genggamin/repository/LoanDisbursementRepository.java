@@ -1,6 +1,8 @@
 package com.example.genggamin.repository;
 
 import com.example.genggamin.entity.LoanDisbursement;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -11,4 +13,6 @@ public interface LoanDisbursementRepository extends JpaRepository<LoanDisburseme
   Optional<LoanDisbursement> findByLoanId(Long loanId);
 
   boolean existsByLoanId(Long loanId);
+
+  List<LoanDisbursement> findByLoanIdIn(Collection<Long> loanIds);
 }
@@ -0,0 +1,12 @@
+package com.example.genggamin.repository;
+
+import com.example.genggamin.entity.LoanInstallment;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment, Long> {
+
+  List<LoanInstallment> findByLoanIdOrderByInstallmentNumberAsc(Long loanId);
+}
@@ -1,47 +1,199 @@
 package com.example.genggamin.repository;
 
+import com.example.genggamin.dto.LoanWithApprovalResponse;
+import com.example.genggamin.dto.LoanWithDisbursementResponse;
+import com.example.genggamin.dto.LoanWithReviewResponse;
 import com.example.genggamin.entity.Loan;
 import com.example.genggamin.entity.Loan.LoanStatus;
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface LoanRepository extends JpaRepository<Loan, Long> {
+public interface LoanRepository extends JpaRepository<Loan, Long>, JpaSpecificationExecutor<Loan> {
   List<Loan> findByCustomerId(Long customerId);
 
+  @EntityGraph(attributePaths = {"customer", "customer.user"})
   List<Loan> findByStatus(LoanStatus status);
 
+  /** Filtered search used by /loans/search; customer and user are fetched in the same query */
+  @Override
+  @EntityGraph(attributePaths = {"customer", "customer.user"})
+  Page<Loan> findAll(Specification<Loan> spec, Pageable pageable);
+
+  /** Loans with customer and user loaded, for after-commit notification handling */
+  @EntityGraph(attributePaths = {"customer", "customer.user"})
+  List<Loan> findWithCustomerByIdIn(Collection<Long> ids);
+
+  // Status transitions (LoanStateMachine): compare-and-set on the expected current status.
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+      "UPDATE Loan l SET l.status = :to, l.updatedAt = :now "
+          + "WHERE l.id = :id AND l.status = :from")
+  int compareAndSetStatus(
+      @Param("id") Long id,
+      @Param("from") LoanStatus from,
+      @Param("to") LoanStatus to,
+      @Param("now") LocalDateTime now);
+
+  @Query("SELECT l.status FROM Loan l WHERE l.id = :id")
+  Optional<LoanStatus> findStatusById(@Param("id") Long id);
+
+  // Bulk review/approve/disburse: lock the requested loans, then move them with one UPDATE.
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @EntityGraph(attributePaths = {"customer", "customer.user"})
+  @Query("SELECT l FROM Loan l WHERE l.id IN :ids")
+  List<Loan> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE Loan l SET l.status = :to, l.updatedAt = :now "
+          + "WHERE l.id IN :ids AND l.status = :from")
+  int transitionStatus(
+      @Param("ids") Collection<Long> ids,
+      @Param("from") LoanStatus from,
+      @Param("to") LoanStatus to,
+      @Param("now") LocalDateTime now);
+
+  // Keyset pagination on (submittedAt, id). Callers pass PageRequest.of(0, size) as the limit,
+  // so every page is an index seek regardless of how deep the cursor is.
+
+  @EntityGraph(attributePaths = {"customer", "customer.user"})
+  @Query("SELECT l FROM Loan l ORDER BY l.submittedAt ASC, l.id ASC")
+  List<Loan> findFirstPage(Pageable limit);
+
+  @EntityGraph(attributePaths = {"customer", "customer.user"})
+  @Query(
+      "SELECT l FROM Loan l WHERE l.submittedAt > :submittedAt "
+          + "OR (l.submittedAt = :submittedAt AND l.id > :id) "
+          + "ORDER BY l.submittedAt ASC, l.id ASC")
+  List<Loan> findPageAfter(
+      @Param("submittedAt") LocalDateTime submittedAt, @Param("id") Long id, Pageable limit);
+
+  @EntityGraph(attributePaths = {"customer", "customer.user"})
+  @Query("SELECT l FROM Loan l WHERE l.status = :status ORDER BY l.submittedAt ASC, l.id ASC")
+  List<Loan> findFirstPageByStatus(@Param("status") LoanStatus status, Pageable limit);
+
+  @EntityGraph(attributePaths = {"customer", "customer.user"})
   @Query(
-      "SELECT l FROM Loan l WHERE l.id IN "
-          + "(SELECT lr.loanId FROM LoanReview lr) "
-          + "ORDER BY l.updatedAt DESC")
-  List<Loan> findAllReviewedLoans();
+      "SELECT l FROM Loan l WHERE l.status = :status AND (l.submittedAt > :submittedAt "
+          + "OR (l.submittedAt = :submittedAt AND l.id > :id)) "
+          + "ORDER BY l.submittedAt ASC, l.id ASC")
+  List<Loan> findPageByStatusAfter(
+      @Param("status") LoanStatus status,
+      @Param("submittedAt") LocalDateTime submittedAt,
+      @Param("id") Long id,
+      Pageable limit);
+
+  /** Id loan dengan status tertentu setelah {@code afterId}, urut id (keyset untuk job batch) */
+  @Query("SELECT l.id FROM Loan l WHERE l.status = :status AND l.id > :afterId ORDER BY l.id ASC")
+  List<Long> findIdsByStatusAfter(
+      @Param("status") LoanStatus status, @Param("afterId") Long afterId, Pageable limit);
+
+  /** Cek kepemilikan loan oleh customer tanpa load entity */
+  @Query(
+      "SELECT CASE WHEN COUNT(l) > 0 THEN true ELSE false END FROM Loan l "
+          + "WHERE l.id = :id AND l.customer.user.username = :username")
+  boolean isOwnedBy(@Param("id") Long id, @Param("username") String username);
+
+  // Cheap version lookups for conditional GET (ETag / Last-Modified) on loan reads
+
+  @Query("SELECT COALESCE(l.updatedAt, l.createdAt) FROM Loan l WHERE l.id = :id")
+  Optional<LocalDateTime> findLastModifiedById(@Param("id") Long id);
 
   @Query(
-      "SELECT l FROM Loan l WHERE l.id IN "
-          + "(SELECT la.loanId FROM LoanApproval la) "
-          + "ORDER BY l.updatedAt DESC")
-  List<Loan> findAllApprovedLoans();
+      "SELECT COUNT(l) AS total, MAX(l.id) AS maxId, "
+          + "MAX(COALESCE(l.updatedAt, l.createdAt)) AS lastModified "
+          + "FROM Loan l WHERE l.customer.user.username = :username")
+  LoanVersionView findVersionByUsername(@Param("username") String username);
+
+  /** Projection versi kumpulan loan milik satu customer */
+  interface LoanVersionView {
+    Long getTotal();
+
+    Long getMaxId();
+
+    LocalDateTime getLastModified();
+  }
 
-  @org.springframework.data.jpa.repository.query.Procedure(
-      procedureName = "sp_CreateLoanWithLimitCheck")
-  void createLoanWithLimitCheck(
-      @org.springframework.data.repository.query.Param("CustomerID") Long customerId,
-      @org.springframework.data.repository.query.Param("PlafondID") Long plafondId,
-      @org.springframework.data.repository.query.Param("LoanAmount")
-          java.math.BigDecimal loanAmount,
-      @org.springframework.data.repository.query.Param("TenorMonth") Long tenorMonth,
-      @org.springframework.data.repository.query.Param("InterestRate")
-          java.math.BigDecimal interestRate,
-      @org.springframework.data.repository.query.Param("Purpose") String purpose,
-      @org.springframework.data.repository.query.Param("Latitude") java.math.BigDecimal latitude,
-      @org.springframework.data.repository.query.Param("Longitude") java.math.BigDecimal longitude);
+  // Detail lists are built from a single join and mapped straight into the response DTOs.
+
+  /** Kolom loan yang dipakai bersama oleh constructor expression LoanWith*Response */
+  String LOAN_DETAIL_COLUMNS =
+      "l.id, l.customer.id, l.plafondId, l.amount, l.tenureMonths, l.interestRate, "
+          + "l.purpose, l.status, l.submittedAt, l.createdAt, l.updatedAt, "
+          + "l.latitude, l.longitude, ";
+
+  @Query(
+      value =
+          "SELECT new com.example.genggamin.dto.LoanWithReviewResponse("
+              + LOAN_DETAIL_COLUMNS
+              + "lr.id, lr.reviewedBy, lr.reviewNotes, lr.reviewStatus, lr.reviewedAt) "
+              + "FROM Loan l JOIN LoanReview lr ON lr.loanId = l.id "
+              + "ORDER BY l.updatedAt DESC, l.id DESC",
+      countQuery = "SELECT COUNT(l) FROM Loan l JOIN LoanReview lr ON lr.loanId = l.id")
+  Page<LoanWithReviewResponse> findReviewedLoanDetails(Pageable pageable);
+
+  @Query(
+      value =
+          "SELECT new com.example.genggamin.dto.LoanWithApprovalResponse("
+              + LOAN_DETAIL_COLUMNS
+              + "la.id, la.approvedBy, la.approvalStatus, la.approvalNotes, la.approvedAt) "
+              + "FROM Loan l JOIN LoanApproval la ON la.loanId = l.id "
+              + "ORDER BY l.updatedAt DESC, l.id DESC",
+      countQuery = "SELECT COUNT(l) FROM Loan l JOIN LoanApproval la ON la.loanId = l.id")
+  Page<LoanWithApprovalResponse> findApprovedLoanDetails(Pageable pageable);
+
+  @Query(
+      value =
+          "SELECT new com.example.genggamin.dto.LoanWithDisbursementResponse("
+              + LOAN_DETAIL_COLUMNS
+              + "ld.id, ld.disbursedBy, ld.disbursementAmount, ld.disbursementDate, "
+              + "ld.bankAccount, ld.status, "
+              + "la.id, la.approvedBy, la.approvalStatus, la.approvalNotes, la.approvedAt) "
+              + "FROM Loan l JOIN LoanDisbursement ld ON ld.loanId = l.id "
+              + "LEFT JOIN LoanApproval la ON la.loanId = l.id "
+              + "WHERE l.status = :status "
+              + "ORDER BY ld.disbursementDate DESC, l.id DESC",
+      countQuery =
+          "SELECT COUNT(l) FROM Loan l JOIN LoanDisbursement ld ON ld.loanId = l.id "
+              + "WHERE l.status = :status")
+  Page<LoanWithDisbursementResponse> findDisbursedLoanDetails(
+      @Param("status") LoanStatus status, Pageable pageable);
 
+  /**
+   * Memotong limit dan membuat loan dalam satu panggilan; procedure mengembalikan baris loan baru
+   * lewat OUTPUT inserted.* (migration db/migrations/2026-10-18_sp_CreateLoanWithLimitCheck.sql,
+   * dicek saat startup oleh StoredProcedureVerifier)
+   */
   @Query(
-      value = "SELECT TOP 1 * FROM loans WHERE customer_id = :customerId ORDER BY id DESC",
+      value =
+          "EXEC sp_CreateLoanWithLimitCheck :customerId, :plafondId, :loanAmount, :tenorMonth, "
+              + ":interestRate, :purpose, :latitude, :longitude",
       nativeQuery = true)
-  java.util.Optional<Loan> findLatestLoanByCustomerId(
-      @org.springframework.data.repository.query.Param("customerId") Long customerId);
+  Loan createLoanWithLimitCheck(
+      @Param("customerId") Long customerId,
+      @Param("plafondId") Long plafondId,
+      @Param("loanAmount") BigDecimal loanAmount,
+      @Param("tenorMonth") Long tenorMonth,
+      @Param("interestRate") BigDecimal interestRate,
+      @Param("purpose") String purpose,
+      @Param("latitude") BigDecimal latitude,
+      @Param("longitude") BigDecimal longitude);
 }
@@ -1,6 +1,8 @@
 package com.example.genggamin.repository;
 
 import com.example.genggamin.entity.LoanReview;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -8,4 +10,6 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface LoanReviewRepository extends JpaRepository<LoanReview, Long> {
   Optional<LoanReview> findByLoanId(Long loanId);
+
+  List<LoanReview> findByLoanIdIn(Collection<Long> loanIds);
 }
@@ -0,0 +1,45 @@
+package com.example.genggamin.repository;
+
+import com.example.genggamin.dto.LoanFilterRequest;
+import com.example.genggamin.entity.Loan;
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+/** Specification untuk filter loan; setiap field filter yang null diabaikan */
+public final class LoanSpecifications {
+
+  private LoanSpecifications() {}
+
+  public static Specification<Loan> matching(LoanFilterRequest filter) {
+    return (root, query, cb) -> {
+      List<Predicate> predicates = new ArrayList<>();
+
+      if (filter.getStatus() != null) {
+        predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+      }
+      if (filter.getPlafondId() != null) {
+        predicates.add(cb.equal(root.get("plafondId"), filter.getPlafondId()));
+      }
+      if (filter.getCustomerId() != null) {
+        // customer.id dibaca dari foreign key loans.customer_id, tanpa join ke customers
+        predicates.add(cb.equal(root.get("customer").get("id"), filter.getCustomerId()));
+      }
+      if (filter.getMinAmount() != null) {
+        predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), filter.getMinAmount()));
+      }
+      if (filter.getMaxAmount() != null) {
+        predicates.add(cb.lessThanOrEqualTo(root.get("amount"), filter.getMaxAmount()));
+      }
+      if (filter.getSubmittedFrom() != null) {
+        predicates.add(cb.greaterThanOrEqualTo(root.get("submittedAt"), filter.getSubmittedFrom()));
+      }
+      if (filter.getSubmittedTo() != null) {
+        predicates.add(cb.lessThan(root.get("submittedAt"), filter.getSubmittedTo()));
+      }
+
+      return cb.and(predicates.toArray(new Predicate[0]));
+    };
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.genggamin.repository;
+
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.entity.LoanStatusCounter;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LoanStatusCounterRepository extends JpaRepository<LoanStatusCounter, LoanStatus> {
+
+  /** Atomic increment/decrement; mengembalikan 0 jika baris counter belum ada */
+  @Modifying
+  @Query(
+      "UPDATE LoanStatusCounter c SET c.count = c.count + :delta, c.updatedAt = :now "
+          + "WHERE c.status = :status")
+  int addToCount(
+      @Param("status") LoanStatus status,
+      @Param("delta") long delta,
+      @Param("now") LocalDateTime now);
+
+  /** Tulis nilai absolut hasil rekonsiliasi; dipanggil saat tabel loans dikunci */
+  @Modifying
+  @Query(
+      "UPDATE LoanStatusCounter c SET c.count = :count, c.updatedAt = :now WHERE c.status = :status")
+  int setCount(
+      @Param("status") LoanStatus status,
+      @Param("count") long count,
+      @Param("now") LocalDateTime now);
+}
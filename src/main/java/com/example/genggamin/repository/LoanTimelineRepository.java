@@ -0,0 +1,8 @@
+package com.example.genggamin.repository;
+
+import com.example.genggamin.entity.LoanTimeline;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LoanTimelineRepository extends JpaRepository<LoanTimeline, Long> {}
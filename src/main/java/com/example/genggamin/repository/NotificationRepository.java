@@ -5,6 +5,8 @@ import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -18,6 +20,33 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
   long countByUserIdAndChannelAndIsReadFalse(
       Long userId, com.example.genggamin.enums.NotificationChannel channel);
 
+  /** Jumlah dan id terbaru notifikasi unread, untuk ETag /unread-count */
+  @Query(
+      "SELECT COUNT(n) AS unread, MAX(n.id) AS latestId FROM Notification n "
+          + "WHERE n.user.username = :username AND n.channel = :channel AND n.isRead = false")
+  UnreadSummary findUnreadSummary(
+      @Param("username") String username,
+      @Param("channel") com.example.genggamin.enums.NotificationChannel channel);
+
+  /** Projection ringkasan notifikasi unread */
+  interface UnreadSummary {
+    Long getUnread();
+
+    Long getLatestId();
+  }
+
+  /** true bila event outbox ini sudah menghasilkan notifikasi untuk user, type dan loan tersebut */
+  @Query(
+      "SELECT CASE WHEN COUNT(n) > 0 THEN true ELSE false END FROM Notification n "
+          + "WHERE n.outboxEventId = :eventId "
+          + "AND n.user.id = :userId AND n.type = :type "
+          + "AND ((:loanId IS NULL AND n.loan IS NULL) OR n.loan.id = :loanId)")
+  boolean existsDelivery(
+      @Param("eventId") Long eventId,
+      @Param("userId") Long userId,
+      @Param("type") com.example.genggamin.enums.NotificationType type,
+      @Param("loanId") Long loanId);
+
   List<Notification> findByUserIdAndChannelAndIsReadFalse(
       Long userId, com.example.genggamin.enums.NotificationChannel channel);
 }
@@ -0,0 +1,41 @@
+package com.example.genggamin.repository;
+
+import com.example.genggamin.entity.OutboxEvent;
+import com.example.genggamin.entity.OutboxEvent.OutboxStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  long countByStatus(OutboxStatus status);
+
+  @Query("SELECT MIN(o.createdAt) FROM OutboxEvent o WHERE o.status = :status")
+  Optional<LocalDateTime> findOldestCreatedAtByStatus(@Param("status") OutboxStatus status);
+
+  /** Kembalikan event dalam rentang waktu ke PENDING supaya dikirim ulang oleh relay */
+  @Modifying
+  @Query(
+      "UPDATE OutboxEvent o SET o.status = :pending, o.attempts = 0, o.availableAt = :now, "
+          + "o.processedAt = NULL, o.lastError = NULL "
+          + "WHERE o.createdAt >= :from AND o.createdAt < :to AND o.status IN :statuses "
+          + "AND (:destination IS NULL OR o.destination = :destination)")
+  int replay(
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to,
+      @Param("statuses") Collection<OutboxStatus> statuses,
+      @Param("destination") String destination,
+      @Param("pending") OutboxStatus pending,
+      @Param("now") LocalDateTime now);
+
+  @Modifying
+  @Query("DELETE FROM OutboxEvent o WHERE o.status = :status AND o.processedAt < :before")
+  int deleteByStatusAndProcessedAtBefore(
+      @Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
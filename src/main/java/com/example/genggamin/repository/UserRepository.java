@@ -1,8 +1,12 @@
 package com.example.genggamin.repository;
 
 import com.example.genggamin.entity.User;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -16,4 +20,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
   boolean existsByEmail(String email);
 
   java.util.List<User> findByRoles_Name(String roleName);
+
+  /** Resolve id -> username tanpa load entity User (dan roles EAGER-nya) */
+  @Query("SELECT u.id AS id, u.username AS username FROM User u WHERE u.id IN :ids")
+  List<UsernameView> findUsernamesByIdIn(@Param("ids") Collection<Long> ids);
+
+  /** Id dan username semua user yang memiliki salah satu role (untuk warm-up directory staff) */
+  @Query(
+      "SELECT DISTINCT u.id AS id, u.username AS username FROM User u JOIN u.roles r "
+          + "WHERE r.name IN :roleNames")
+  List<UsernameView> findUsernamesByRoleNames(@Param("roleNames") Collection<String> roleNames);
+
+  /** Projection ringan untuk id dan username user */
+  interface UsernameView {
+    Long getId();
+
+    String getUsername();
+  }
 }
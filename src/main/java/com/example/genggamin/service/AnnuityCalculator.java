@@ -0,0 +1,60 @@
+package com.example.genggamin.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Perhitungan anuitas (bunga efektif): angsuran tetap A = P x r / (1 - (1 + r)^-n). Bagian yang
+ * mahal (pangkat) ada di faktor anuitas r / (1 - (1 + r)^-n), yang dihitung sekali per (rate,
+ * tenor) saat {@link PlafondCatalog} dimuat; simulasi hanya mengalikan pokok dengan faktor.
+ */
+public final class AnnuityCalculator {
+
+  /** Presisi faktor: 34 digit, jauh di atas yang dibutuhkan untuk pembulatan ke sen */
+  private static final MathContext PRECISION = MathContext.DECIMAL128;
+
+  private static final BigDecimal RATE_SCALE = BigDecimal.valueOf(100_000_000L);
+
+  private AnnuityCalculator() {}
+
+  /**
+   * Faktor anuitas untuk tenor 1..maxTenor sekaligus (index = tenor, index 0 tidak dipakai). (1 +
+   * r)^n dihitung bertahap dari (1 + r)^(n-1).
+   *
+   * @param rateMicros rate bulanan dalam persen x 10^6, lihat {@link
+   *     FlatRateCalculator#toRateMicros}
+   */
+  public static BigDecimal[] factors(long rateMicros, int maxTenor) {
+    if (maxTenor <= 0) {
+      throw new IllegalArgumentException("Tenor must be positive");
+    }
+    BigDecimal[] factors = new BigDecimal[maxTenor + 1];
+    BigDecimal rate = BigDecimal.valueOf(rateMicros).divide(RATE_SCALE, PRECISION);
+    BigDecimal growth = BigDecimal.ONE.add(rate, PRECISION);
+    BigDecimal compounded = BigDecimal.ONE;
+    for (int tenor = 1; tenor <= maxTenor; tenor++) {
+      compounded = compounded.multiply(growth, PRECISION);
+      factors[tenor] =
+          rateMicros == 0
+              ? BigDecimal.ONE.divide(BigDecimal.valueOf(tenor), PRECISION)
+              // r / (1 - (1 + r)^-n) = r x (1 + r)^n / ((1 + r)^n - 1)
+              : rate.multiply(compounded, PRECISION)
+                  .divide(compounded.subtract(BigDecimal.ONE, PRECISION), PRECISION);
+    }
+    return factors;
+  }
+
+  /** Faktor untuk satu (rate, tenor) */
+  public static BigDecimal factor(long rateMicros, int tenor) {
+    return factors(rateMicros, tenor)[tenor];
+  }
+
+  /** Angsuran bulanan dalam sen: round(pokok x faktor) HALF_UP */
+  public static long installmentCents(long principalCents, BigDecimal factor) {
+    return BigDecimal.valueOf(principalCents)
+        .multiply(factor)
+        .setScale(0, RoundingMode.HALF_UP)
+        .longValueExact();
+  }
+}
@@ -0,0 +1,134 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.repository.CustomerLimitRepository;
+import com.example.genggamin.repository.CustomerLimitRepository.LedgerMismatchView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Perubahan available limit customer. Limit dipotong saat submission (sp_CreateLoanWithLimitCheck)
+ * dan dikembalikan saat loan ditolak; keduanya UPDATE atomik di database, tanpa lock pessimistic
+ * dan tanpa read-modify-write di Java. {@link #verifyLedger()} memeriksa secara berkala bahwa
+ * available_limit = total_limit - jumlah loan yang belum ditolak.
+ */
+@Service
+public class CustomerLimitService {
+
+  private static final Logger logger = LoggerFactory.getLogger(CustomerLimitService.class);
+
+  private static final int JDBC_BATCH_SIZE = 50;
+
+  // The only statement that gives limit back, for single and bulk rejections alike. It bumps the
+  // version so a stale CustomerLimit entity saved afterwards fails instead of overwriting it.
+  private static final String RESTORE_LIMIT_SQL =
+      "UPDATE customer_limits SET available_limit = available_limit + ?, "
+          + "version = version + 1, updated_at = ? "
+          + "WHERE customer_id = ? AND plafond_id = ?";
+
+  private final CustomerLimitRepository customerLimitRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final AtomicLong ledgerMismatches = new AtomicLong();
+
+  public CustomerLimitService(
+      CustomerLimitRepository customerLimitRepository,
+      JdbcTemplate jdbcTemplate,
+      MeterRegistry meterRegistry) {
+    this.customerLimitRepository = customerLimitRepository;
+    this.jdbcTemplate = jdbcTemplate;
+
+    Gauge.builder("customer.limit.ledger.mismatches", ledgerMismatches, AtomicLong::get)
+        .description("Customer limits whose available limit does not match their loans")
+        .register(meterRegistry);
+  }
+
+  /** Kembalikan amount loan yang ditolak ke available limit customer */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void restoreLimit(Loan loan) {
+    int updated =
+        jdbcTemplate.update(
+            RESTORE_LIMIT_SQL,
+            loan.getAmount(),
+            Timestamp.valueOf(LocalDateTime.now()),
+            loan.getCustomer().getId(),
+            loan.getPlafondId());
+    if (updated == 0) {
+      throw new RuntimeException("Customer limit not found");
+    }
+  }
+
+  /**
+   * Varian bulk dari {@link #restoreLimit}: satu JDBC batch untuk semua loan yang ditolak. Beberapa
+   * loan dengan limit yang sama cukup dijumlahkan oleh UPDATE masing-masing.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void restoreLimits(List<Loan> loans) {
+    if (loans.isEmpty()) {
+      return;
+    }
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    int[][] counts =
+        jdbcTemplate.batchUpdate(
+            RESTORE_LIMIT_SQL,
+            loans,
+            JDBC_BATCH_SIZE,
+            (ps, loan) -> {
+              ps.setBigDecimal(1, loan.getAmount());
+              ps.setTimestamp(2, now);
+              ps.setLong(3, loan.getCustomer().getId());
+              ps.setLong(4, loan.getPlafondId());
+            });
+
+    int index = 0;
+    for (int[] batch : counts) {
+      for (int count : batch) {
+        if (count == 0) {
+          throw new RuntimeException(
+              "Customer limit not found for loan id: " + loans.get(index).getId());
+        }
+        index++;
+      }
+    }
+  }
+
+  /**
+   * Verifikasi ledger limit setiap malam. Selisih hanya dilaporkan (log dan gauge
+   * customer.limit.ledger.mismatches), tidak dikoreksi otomatis, karena penyebabnya perlu diperiksa
+   * dulu.
+   */
+  @Scheduled(cron = "${app.limits.ledger-cron:0 0 3 * * ?}")
+  @Transactional(readOnly = true)
+  public List<LedgerMismatchView> verifyLedger() {
+    List<LedgerMismatchView> mismatches =
+        customerLimitRepository.findLedgerMismatches(LoanStatus.REJECTED);
+    ledgerMismatches.set(mismatches.size());
+
+    for (LedgerMismatchView mismatch : mismatches) {
+      logger.warn(
+          "Customer limit ledger mismatch for limit {} (customer {}, plafond {}): "
+              + "total={}, available={}, used by loans={}",
+          mismatch.getLimitId(),
+          mismatch.getCustomerId(),
+          mismatch.getPlafondId(),
+          mismatch.getTotalLimit(),
+          mismatch.getAvailableLimit(),
+          mismatch.getUsedAmount());
+    }
+    if (mismatches.isEmpty()) {
+      logger.info("Customer limit ledger verified: no mismatches");
+    }
+    return mismatches;
+  }
+}
@@ -0,0 +1,372 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.dto.DisbursementBatchRequest;
+import com.example.genggamin.dto.DisbursementBatchResponse;
+import com.example.genggamin.entity.Customer;
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.entity.LoanDisbursement;
+import com.example.genggamin.entity.User;
+import com.example.genggamin.enums.DisbursementFileFormat;
+import com.example.genggamin.event.LoanTransitionEvent;
+import com.example.genggamin.repository.LoanDisbursementRepository;
+import com.example.genggamin.repository.LoanRepository;
+import com.example.genggamin.repository.UserRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Batch disbursement: mencairkan semua loan APPROVED (atau daftar loan tertentu) dan menulis file
+ * transfer bank. Loan diproses per chunk dengan transaksi sendiri (lock, status UPDATE via
+ * LoanStateMachine, insert loan_disbursements dengan JDBC batch, event outbox), lalu record chunk
+ * ditulis ke file. Persistence context dibuang setiap chunk dan file ditulis lewat buffer tetap,
+ * sehingga memori tidak bergantung pada jumlah loan. Bila transaksi chunk gagal, record chunk
+ * tersebut dibuang dari file dan batch berhenti; chunk sebelumnya tetap tercatat.
+ */
+@Service
+public class DisbursementBatchService {
+
+  private static final Logger logger = LoggerFactory.getLogger(DisbursementBatchService.class);
+
+  private static final int JDBC_BATCH_SIZE = 50;
+  private static final DateTimeFormatter BATCH_TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyMMddHHmmss");
+  private static final Pattern FILE_NAME =
+      Pattern.compile("disbursement-DB\\d{12}[0-9a-f]{4}\\.(csv|txt)");
+
+  private final LoanRepository loanRepository;
+  private final UserRepository userRepository;
+  private final LoanDisbursementRepository loanDisbursementRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final LoanTimelineService loanTimelineService;
+  private final RepaymentScheduleService repaymentScheduleService;
+  private final LoanStateMachine loanStateMachine;
+  private final OutboxService outboxService;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${app.disbursement.batch-dir:./disbursement-batches}")
+  private String batchDir;
+
+  @Value("${app.disbursement.chunk-size:500}")
+  private int chunkSize;
+
+  /** Jumlah loan yang dicairkan dan dilewati selama satu batch */
+  private static final class Totals {
+    private int disbursed;
+    private int skipped;
+    private BigDecimal amount = BigDecimal.ZERO;
+  }
+
+  /** Hasil satu chunk yang sudah commit */
+  private record ChunkResult(int disbursed, int skipped, BigDecimal amount) {}
+
+  public DisbursementBatchService(
+      LoanRepository loanRepository,
+      UserRepository userRepository,
+      LoanDisbursementRepository loanDisbursementRepository,
+      JdbcTemplate jdbcTemplate,
+      LoanTimelineService loanTimelineService,
+      RepaymentScheduleService repaymentScheduleService,
+      LoanStateMachine loanStateMachine,
+      OutboxService outboxService,
+      PlatformTransactionManager transactionManager) {
+    this.loanRepository = loanRepository;
+    this.userRepository = userRepository;
+    this.loanDisbursementRepository = loanDisbursementRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.loanTimelineService = loanTimelineService;
+    this.repaymentScheduleService = repaymentScheduleService;
+    this.loanStateMachine = loanStateMachine;
+    this.outboxService = outboxService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /** Tidak @Transactional: setiap chunk commit sendiri */
+  public DisbursementBatchResponse disburse(String username, DisbursementBatchRequest request) {
+    User user =
+        userRepository
+            .findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+    DisbursementFileFormat format = parseFormat(request.getFormat());
+
+    LocalDateTime startedAt = LocalDateTime.now();
+    String batchId =
+        "DB" + startedAt.format(BATCH_TIMESTAMP) + UUID.randomUUID().toString().substring(0, 4);
+    String fileName =
+        "disbursement-" + batchId + (format == DisbursementFileFormat.CSV ? ".csv" : ".txt");
+    Path file = batchDirectory().resolve(fileName);
+
+    Totals totals = new Totals();
+    RuntimeException failure = null;
+    try (DisbursementFileWriter writer =
+        DisbursementFileWriter.create(file, format, batchId, startedAt.toLocalDate())) {
+      try {
+        if (request.getLoanIds() == null || request.getLoanIds().isEmpty()) {
+          // Keyset over loan id: skipped loans stay APPROVED but are never read twice
+          long afterId = 0;
+          while (true) {
+            List<Long> ids =
+                loanRepository.findIdsByStatusAfter(
+                    LoanStatus.APPROVED, afterId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+              break;
+            }
+            processChunk(user, ids, request.getNotes(), writer, totals);
+            afterId = ids.get(ids.size() - 1);
+          }
+        } else {
+          List<Long> ids =
+              request.getLoanIds().stream().filter(Objects::nonNull).distinct().sorted().toList();
+          for (int from = 0; from < ids.size(); from += chunkSize) {
+            processChunk(
+                user,
+                ids.subList(from, Math.min(ids.size(), from + chunkSize)),
+                request.getNotes(),
+                writer,
+                totals);
+          }
+        }
+      } catch (RuntimeException e) {
+        // Committed chunks stay disbursed; close the file so it matches them
+        failure = e;
+      }
+      writer.finish(totals.disbursed, totals.amount);
+    } catch (IOException | UncheckedIOException e) {
+      throw new RuntimeException("Failed to write disbursement file: " + e.getMessage(), e);
+    }
+
+    if (failure != null) {
+      logger.error(
+          "Disbursement batch {} stopped after {} loans: {}",
+          batchId,
+          totals.disbursed,
+          failure.getMessage());
+      throw new RuntimeException(
+          "Disbursement batch "
+              + batchId
+              + " stopped after "
+              + totals.disbursed
+              + " loans (file "
+              + fileName
+              + "): "
+              + failure.getMessage(),
+          failure);
+    }
+    if (totals.disbursed == 0) {
+      deleteQuietly(file);
+      fileName = null;
+    }
+    logger.info(
+        "Disbursement batch {} by {}: {} disbursed ({}), {} skipped",
+        batchId,
+        username,
+        totals.disbursed,
+        totals.amount,
+        totals.skipped);
+
+    return DisbursementBatchResponse.builder()
+        .batchId(batchId)
+        .fileName(fileName)
+        .format(format.name())
+        .disbursedCount(totals.disbursed)
+        .skippedCount(totals.skipped)
+        .totalAmount(totals.amount)
+        .build();
+  }
+
+  /** File batch yang sudah dibuat; nama file divalidasi agar tidak bisa keluar dari folder batch */
+  public Path getBatchFile(String fileName) {
+    if (fileName == null || !FILE_NAME.matcher(fileName).matches()) {
+      throw new RuntimeException("Invalid disbursement file name");
+    }
+    Path file = batchDirectory().resolve(fileName);
+    if (!Files.isRegularFile(file)) {
+      throw new RuntimeException("Disbursement file not found: " + fileName);
+    }
+    return file;
+  }
+
+  /** Satu chunk dalam satu transaksi; record file ikut dibuang bila transaksi gagal */
+  private void processChunk(
+      User user, List<Long> ids, String notes, DisbursementFileWriter writer, Totals totals)
+      throws IOException {
+    long mark = writer.mark();
+    ChunkResult result;
+    try {
+      result = transactionTemplate.execute(status -> disburseChunk(user, ids, notes, writer));
+    } catch (RuntimeException e) {
+      writer.rollbackTo(mark);
+      throw e;
+    }
+    totals.disbursed += result.disbursed();
+    totals.skipped += result.skipped();
+    totals.amount = totals.amount.add(result.amount());
+  }
+
+  private ChunkResult disburseChunk(
+      User user, List<Long> ids, String notes, DisbursementFileWriter writer) {
+    LocalDateTime now = LocalDateTime.now();
+    Set<Long> alreadyDisbursed =
+        loanDisbursementRepository.findByLoanIdIn(ids).stream()
+            .map(LoanDisbursement::getLoanId)
+            .collect(Collectors.toSet());
+
+    List<Loan> loans = new ArrayList<>();
+    int skipped = ids.size();
+    for (Loan loan : loanRepository.findAllByIdForUpdate(ids)) {
+      if (loan.getStatus() != LoanStatus.APPROVED || alreadyDisbursed.contains(loan.getId())) {
+        continue;
+      }
+      String account = loan.getCustomer().getAccountNumber();
+      if (account == null || account.isBlank()) {
+        logger.warn("Loan {} skipped: customer has no bank account", loan.getId());
+        continue;
+      }
+      if (!DisbursementFileWriter.isValidAccountNumber(account)) {
+        logger.warn(
+            "Loan {} skipped: bank account is longer than {} characters or not plain ASCII",
+            loan.getId(),
+            DisbursementFileWriter.ACCOUNT_NUMBER_WIDTH);
+        continue;
+      }
+      loans.add(loan);
+    }
+    loans.sort(Comparator.comparing(Loan::getId));
+    skipped -= loans.size();
+    if (loans.isEmpty()) {
+      return new ChunkResult(0, skipped, BigDecimal.ZERO);
+    }
+
+    List<Long> loanIds = loans.stream().map(Loan::getId).toList();
+    int updated =
+        loanStateMachine.transitionAll(loanIds, LoanStatus.APPROVED, LoanStatus.DISBURSED, now);
+    if (updated != loanIds.size()) {
+      // Rows are locked, so this only happens if the lock was not honoured
+      throw new RuntimeException("Loan status changed concurrently, please retry");
+    }
+    loans.forEach(
+        loan -> {
+          loan.setStatus(LoanStatus.DISBURSED);
+          loan.setUpdatedAt(now);
+        });
+
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO loan_disbursements (loan_id, disbursed_by, disbursement_amount, "
+            + "disbursement_date, bank_account, status) VALUES (?, ?, ?, ?, ?, ?)",
+        loans,
+        JDBC_BATCH_SIZE,
+        (ps, loan) -> {
+          ps.setLong(1, loan.getId());
+          ps.setLong(2, user.getId());
+          ps.setBigDecimal(3, loan.getAmount());
+          ps.setTimestamp(4, Timestamp.valueOf(now));
+          ps.setString(5, loan.getCustomer().getAccountNumber());
+          ps.setString(6, "COMPLETED");
+        });
+
+    jdbcTemplate.batchUpdate(
+        "UPDATE customers SET current_total_debt = COALESCE(current_total_debt, 0) + ? "
+            + "WHERE id = ?",
+        loans,
+        JDBC_BATCH_SIZE,
+        (ps, loan) -> {
+          ps.setBigDecimal(1, loan.getAmount());
+          ps.setLong(2, loan.getCustomer().getId());
+        });
+
+    repaymentScheduleService.generate(loans, now);
+
+    loanTimelineService.recordAll(
+        loans,
+        (loan, timeline) -> {
+          timeline.setDisbursedBy(user.getUsername());
+          timeline.setDisbursedAt(now);
+          timeline.setDisbursementNotes(notes);
+        });
+
+    outboxService.append(
+        new LoanTransitionEvent(
+            user.getId(),
+            loans.stream()
+                .map(
+                    loan ->
+                        new LoanTransitionEvent.Transition(
+                            loan.getId(),
+                            LoanStatus.APPROVED,
+                            LoanStatus.DISBURSED,
+                            notes,
+                            loan.getCustomer().getAccountNumber()))
+                .toList()));
+
+    BigDecimal amount = BigDecimal.ZERO;
+    try {
+      for (Loan loan : loans) {
+        Customer customer = loan.getCustomer();
+        writer.write(
+            new DisbursementFileWriter.Transfer(
+                loan.getId(),
+                customer.getAccountNumber(),
+                customer.getAccountHolderName(),
+                loan.getAmount()));
+        amount = amount.add(loan.getAmount());
+      }
+      // Records must be on disk before the chunk commits
+      writer.mark();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return new ChunkResult(loans.size(), skipped, amount);
+  }
+
+  private DisbursementFileFormat parseFormat(String format) {
+    if (format == null || format.isBlank()) {
+      return DisbursementFileFormat.CSV;
+    }
+    try {
+      return DisbursementFileFormat.valueOf(format.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new RuntimeException("Invalid format. Must be CSV or FIXED_WIDTH");
+    }
+  }
+
+  private Path batchDirectory() {
+    Path dir = Paths.get(batchDir).toAbsolutePath().normalize();
+    try {
+      return Files.createDirectories(dir);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not create disbursement batch directory", e);
+    }
+  }
+
+  private void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      logger.warn("Could not delete empty disbursement file {}: {}", file, e.getMessage());
+    }
+  }
+}
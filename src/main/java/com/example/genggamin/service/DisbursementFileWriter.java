@@ -0,0 +1,201 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.enums.DisbursementFileFormat;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Menulis file transfer bank lewat FileChannel dengan satu buffer berukuran tetap, sehingga memori
+ * tidak bertambah dengan jumlah record. {@link #mark()} dan {@link #rollbackTo(long)} dipakai untuk
+ * membuang record sebuah chunk bila transaksi chunk tersebut gagal.
+ *
+ * <p>FIXED_WIDTH: record 100 karakter ASCII. Header {@code H} batchId(20) tanggal(8); detail {@code
+ * D} referensi(32) rekening(20) nama(32) nominal sen(15, zero-padded); trailer {@code T} jumlah
+ * record(10) total sen(18).
+ */
+final class DisbursementFileWriter implements AutoCloseable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int RECORD_LENGTH = 100;
+  private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+  /** Lebar field rekening di FIXED_WIDTH; berlaku juga untuk CSV supaya kedua format sama */
+  static final int ACCOUNT_NUMBER_WIDTH = 20;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private final DisbursementFileFormat format;
+  private final String batchId;
+
+  /** Satu baris transfer */
+  record Transfer(Long loanId, String accountNumber, String accountHolder, BigDecimal amount) {}
+
+  private DisbursementFileWriter(
+      FileChannel channel, DisbursementFileFormat format, String batchId) {
+    this.channel = channel;
+    this.format = format;
+    this.batchId = batchId;
+  }
+
+  /** Buat file baru (gagal bila sudah ada) dan tulis header */
+  static DisbursementFileWriter create(
+      Path file, DisbursementFileFormat format, String batchId, LocalDate date) throws IOException {
+    FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    DisbursementFileWriter writer = new DisbursementFileWriter(channel, format, batchId);
+    if (format == DisbursementFileFormat.CSV) {
+      writer.writeLine("reference,loan_id,account_number,account_holder,amount");
+    } else {
+      writer.writeLine(fixed("H" + pad(batchId, 20) + date.format(FILE_DATE)));
+    }
+    return writer;
+  }
+
+  /**
+   * true bila nomor rekening bisa ditulis apa adanya: tidak kosong, maksimal {@link
+   * #ACCOUNT_NUMBER_WIDTH} karakter, hanya ASCII yang terlihat. Nomor rekening tidak pernah
+   * dipotong atau diubah, karena hasilnya adalah rekening lain.
+   */
+  static boolean isValidAccountNumber(String accountNumber) {
+    return accountNumber != null
+        && !accountNumber.isEmpty()
+        && accountNumber.length() <= ACCOUNT_NUMBER_WIDTH
+        && accountNumber.chars().allMatch(c -> c > 0x20 && c < 0x7F);
+  }
+
+  void write(Transfer transfer) throws IOException {
+    if (!isValidAccountNumber(transfer.accountNumber())) {
+      throw new IllegalArgumentException(
+          "Loan " + transfer.loanId() + " has an account number that cannot be written as is");
+    }
+    String reference = batchId + "-" + transfer.loanId();
+    if (format == DisbursementFileFormat.CSV) {
+      writeLine(
+          String.join(
+              ",",
+              csv(reference),
+              String.valueOf(transfer.loanId()),
+              csv(transfer.accountNumber()),
+              csv(transfer.accountHolder()),
+              transfer.amount().setScale(2, RoundingMode.HALF_UP).toPlainString()));
+    } else {
+      writeLine(
+          fixed(
+              "D"
+                  + pad(reference, 32)
+                  + pad(transfer.accountNumber(), ACCOUNT_NUMBER_WIDTH)
+                  + pad(transfer.accountHolder(), 32)
+                  + zeros(cents(transfer.amount()), 15)));
+    }
+  }
+
+  /** Posisi akhir data yang sudah ditulis; buffer di-flush lebih dulu */
+  long mark() throws IOException {
+    flush();
+    return channel.position();
+  }
+
+  /** Buang semua yang ditulis setelah {@code mark} */
+  void rollbackTo(long mark) throws IOException {
+    buffer.clear();
+    channel.truncate(mark);
+    channel.position(mark);
+  }
+
+  /** Tulis trailer (FIXED_WIDTH) dan pastikan isi file sudah di disk */
+  void finish(int count, BigDecimal total) throws IOException {
+    if (format == DisbursementFileFormat.FIXED_WIDTH) {
+      writeLine(fixed("T" + zeros(String.valueOf(count), 10) + zeros(cents(total), 18)));
+    }
+    flush();
+    channel.force(true);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void writeLine(String line) throws IOException {
+    byte[] bytes =
+        (line + "\r\n")
+            .getBytes(
+                format == DisbursementFileFormat.CSV
+                    ? StandardCharsets.UTF_8
+                    : StandardCharsets.US_ASCII);
+    int offset = 0;
+    while (offset < bytes.length) {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      int length = Math.min(buffer.remaining(), bytes.length - offset);
+      buffer.put(bytes, offset, length);
+      offset += length;
+    }
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Quote sesuai RFC 4180. Field yang diawali {@code = + - @} diberi prefix {@code '} agar tidak
+   * dijalankan sebagai formula saat file dibuka staff bank di spreadsheet.
+   */
+  private static String csv(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+      value = "'" + value;
+    }
+    if (value.contains(",")
+        || value.contains("\"")
+        || value.contains("\n")
+        || value.contains("\r")) {
+      return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+    return value;
+  }
+
+  private static String cents(BigDecimal amount) {
+    return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).toPlainString();
+  }
+
+  /**
+   * Rata kiri, dipotong/diisi spasi sampai {@code width}; karakter non-ASCII dibuang aksennya.
+   * Hanya untuk field bebas (nama, referensi), bukan nomor rekening.
+   */
+  private static String pad(String value, int width) {
+    String ascii =
+        value == null
+            ? ""
+            : Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("[^\\x20-\\x7E]", "");
+    String cut = ascii.length() > width ? ascii.substring(0, width) : ascii;
+    return cut + " ".repeat(width - cut.length());
+  }
+
+  private static String zeros(String digits, int width) {
+    if (digits.length() > width) {
+      throw new IllegalArgumentException("Value " + digits + " does not fit in " + width);
+    }
+    return "0".repeat(width - digits.length()) + digits;
+  }
+
+  private static String fixed(String record) {
+    return pad(record, RECORD_LENGTH);
+  }
+}
@@ -0,0 +1,71 @@
+package com.example.genggamin.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Perhitungan flat rate dalam satuan sen (long), tanpa BigDecimal di jalur panas. Hasilnya sama
+ * persis dengan perhitungan BigDecimal lama di simulasi:
+ *
+ * <pre>
+ * rate         = ratePercent / 100                    (scale 8, HALF_UP)
+ * totalInterest = principal x rate x tenor             (scale 2, HALF_UP)
+ * totalPayment  = principal + totalInterest
+ * installment   = totalPayment / tenor                 (scale 2, HALF_UP)
+ * </pre>
+ *
+ * Rate disimpan sebagai "rate micros" (ratePercent x 10^6), yaitu rate desimal dengan scale 8 tanpa
+ * titik. Perkalian di-split supaya tidak overflow untuk nominal dan tenor yang realistis; nilai di
+ * luar jangkauan long menghasilkan ArithmeticException, bukan hasil yang salah.
+ */
+public final class FlatRateCalculator {
+
+  /** 10^8: penyebut rate micros ke sen (scale rate 8) */
+  private static final long RATE_SCALE = 100_000_000L;
+
+  private FlatRateCalculator() {}
+
+  /** Nominal ke sen, dibulatkan HALF_UP */
+  public static long toCents(BigDecimal amount) {
+    return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+  }
+
+  /** Rate bulanan dalam persen ke rate micros, sama dengan {@code ratePercent / 100} scale 8 */
+  public static long toRateMicros(BigDecimal monthlyRatePercent) {
+    return monthlyRatePercent.movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValueExact();
+  }
+
+  /** Sen ke BigDecimal scale 2, hanya untuk response */
+  public static BigDecimal toAmount(long cents) {
+    return BigDecimal.valueOf(cents, 2);
+  }
+
+  /** Total bunga flat: round(principal x rate x tenor) dalam sen */
+  public static long totalInterestCents(long principalCents, long rateMicros, long tenor) {
+    // principal x tenor x rateMicros / 10^8, split at 10^8 so neither product overflows
+    long base = Math.multiplyExact(principalCents, tenor);
+    long whole = base / RATE_SCALE;
+    long rest = base % RATE_SCALE;
+    return Math.addExact(
+        Math.multiplyExact(whole, rateMicros),
+        divideHalfUp(Math.multiplyExact(rest, rateMicros), RATE_SCALE));
+  }
+
+  /** Angsuran bulanan: round(total / tenor) dalam sen */
+  public static long installmentCents(long totalCents, long tenor) {
+    if (tenor <= 0) {
+      throw new IllegalArgumentException("Tenor must be positive");
+    }
+    return divideHalfUp(totalCents, tenor);
+  }
+
+  /** value / divisor dibulatkan HALF_UP (setengah menjauh dari nol); divisor harus positif */
+  static long divideHalfUp(long value, long divisor) {
+    long quotient = value / divisor;
+    long remainder = Math.abs(value % divisor);
+    if (remainder >= divisor - remainder) {
+      quotient += value < 0 ? -1 : 1;
+    }
+    return quotient;
+  }
+}
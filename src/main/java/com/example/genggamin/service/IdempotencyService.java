@@ -0,0 +1,213 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.dto.ApiResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+/**
+ * Idempotency-Key untuk endpoint POST yang sering di-retry oleh client mobile. Response sukses
+ * disimpan di Redis (dengan TTL) per user + endpoint + key; request ulang dengan key yang sama
+ * langsung mendapat response yang tersimpan tanpa menyentuh database. Request duplikat yang datang
+ * bersamaan digabung lewat lock SET NX berumur pendek: yang kalah menunggu hasil pemenang.
+ */
+@Service
+public class IdempotencyService {
+
+  private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final String KEY_PREFIX = "idempotency:";
+  private static final int MAX_KEY_LENGTH = 255;
+  private static final long WAIT_POLL_MILLIS = 100;
+
+  // Delete the lock only if this request still owns it
+  private static final RedisScript<Long> RELEASE_LOCK =
+      new DefaultRedisScript<>(
+          "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) "
+              + "else return 0 end",
+          Long.class);
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ObjectMapper objectMapper;
+
+  @Value("${app.idempotency.ttl-hours:24}")
+  private long ttlHours;
+
+  @Value("${app.idempotency.lock-seconds:30}")
+  private long lockSeconds;
+
+  @Value("${app.idempotency.wait-millis:5000}")
+  private long waitMillis;
+
+  /** Response yang disimpan untuk replay */
+  private record StoredResponse(int status, String requestHash, String body) {}
+
+  public IdempotencyService(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Jalankan {@code action} sekali per Idempotency-Key.
+   *
+   * @param scope endpoint dan user, mis. "loan-submit:budi"; key yang sama di scope lain tidak
+   *     saling mempengaruhi
+   * @param idempotencyKey nilai header Idempotency-Key; bila kosong action langsung dijalankan
+   * @param request body request, dipakai untuk menolak key yang dipakai ulang dengan isi berbeda
+   * @param responseType tipe body response untuk deserialisasi saat replay
+   */
+  public <T> ResponseEntity<ApiResponse<T>> execute(
+      String scope,
+      String idempotencyKey,
+      Object request,
+      TypeReference<ApiResponse<T>> responseType,
+      Supplier<ResponseEntity<ApiResponse<T>>> action) {
+    if (idempotencyKey == null || idempotencyKey.isBlank()) {
+      return action.get();
+    }
+    if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+      return error(
+          HttpStatus.BAD_REQUEST,
+          "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+    }
+
+    String resultKey = KEY_PREFIX + scope + ":" + idempotencyKey;
+    String lockKey = resultKey + ":lock";
+    String requestHash = hash(request);
+    String token = UUID.randomUUID().toString();
+
+    boolean locked;
+    try {
+      ResponseEntity<ApiResponse<T>> replay = replay(resultKey, requestHash, responseType);
+      if (replay != null) {
+        return replay;
+      }
+      locked =
+          Boolean.TRUE.equals(
+              stringRedisTemplate
+                  .opsForValue()
+                  .setIfAbsent(lockKey, token, Duration.ofSeconds(lockSeconds)));
+      if (!locked) {
+        return awaitInFlight(resultKey, requestHash, responseType);
+      }
+      // Another request may have stored its result and released the lock since the check above
+      replay = replay(resultKey, requestHash, responseType);
+      if (replay != null) {
+        releaseLock(lockKey, token);
+        return replay;
+      }
+    } catch (Exception e) {
+      // Redis down: process the request without idempotency rather than rejecting it
+      logger.warn("Idempotency check skipped for {}: {}", scope, e.getMessage());
+      return action.get();
+    }
+
+    try {
+      ResponseEntity<ApiResponse<T>> response = action.get();
+      if (response.getStatusCode().is2xxSuccessful()) {
+        store(resultKey, requestHash, response);
+      }
+      return response;
+    } finally {
+      releaseLock(lockKey, token);
+    }
+  }
+
+  /** Response tersimpan untuk key ini, atau null bila belum ada */
+  private <T> ResponseEntity<ApiResponse<T>> replay(
+      String resultKey, String requestHash, TypeReference<ApiResponse<T>> responseType)
+      throws Exception {
+    String stored = stringRedisTemplate.opsForValue().get(resultKey);
+    if (stored == null) {
+      return null;
+    }
+    StoredResponse response = objectMapper.readValue(stored, StoredResponse.class);
+    if (!response.requestHash().equals(requestHash)) {
+      return error(
+          HttpStatus.UNPROCESSABLE_ENTITY,
+          "Idempotency-Key has already been used with a different request");
+    }
+    return ResponseEntity.status(response.status())
+        .header(REPLAYED_HEADER, "true")
+        .body(objectMapper.readValue(response.body(), responseType));
+  }
+
+  /** Request yang sama sedang diproses: tunggu sebentar hasilnya sebelum menyerah dengan 409 */
+  private <T> ResponseEntity<ApiResponse<T>> awaitInFlight(
+      String resultKey, String requestHash, TypeReference<ApiResponse<T>> responseType)
+      throws Exception {
+    long deadline = System.currentTimeMillis() + waitMillis;
+    while (System.currentTimeMillis() < deadline) {
+      try {
+        Thread.sleep(WAIT_POLL_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      ResponseEntity<ApiResponse<T>> replay = replay(resultKey, requestHash, responseType);
+      if (replay != null) {
+        return replay;
+      }
+    }
+    return error(
+        HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+  }
+
+  private <T> void store(
+      String resultKey, String requestHash, ResponseEntity<ApiResponse<T>> response) {
+    try {
+      StoredResponse stored =
+          new StoredResponse(
+              response.getStatusCode().value(),
+              requestHash,
+              objectMapper.writeValueAsString(response.getBody()));
+      stringRedisTemplate
+          .opsForValue()
+          .set(resultKey, objectMapper.writeValueAsString(stored), Duration.ofHours(ttlHours));
+    } catch (Exception e) {
+      logger.error("Failed to store idempotent response {}: {}", resultKey, e.getMessage());
+    }
+  }
+
+  private void releaseLock(String lockKey, String token) {
+    try {
+      stringRedisTemplate.execute(RELEASE_LOCK, List.of(lockKey), token);
+    } catch (Exception e) {
+      // Lock expires on its own after lock-seconds
+      logger.warn("Failed to release idempotency lock {}: {}", lockKey, e.getMessage());
+    }
+  }
+
+  private String hash(Object request) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+    } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+      throw new IllegalStateException("Cannot fingerprint request", e);
+    }
+  }
+
+  private static <T> ResponseEntity<ApiResponse<T>> error(HttpStatus status, String message) {
+    return ResponseEntity.status(status)
+        .body(ApiResponse.<T>builder().success(false).message(message).build());
+  }
+}
@@ -0,0 +1,426 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.dto.BulkLoanActionItem;
+import com.example.genggamin.dto.BulkLoanActionRequest;
+import com.example.genggamin.dto.BulkLoanActionResponse;
+import com.example.genggamin.dto.BulkLoanActionResult;
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.entity.LoanDisbursement;
+import com.example.genggamin.entity.User;
+import com.example.genggamin.event.LoanTransitionEvent;
+import com.example.genggamin.repository.LoanDisbursementRepository;
+import com.example.genggamin.repository.LoanRepository;
+import com.example.genggamin.repository.UserRepository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Bulk variant of review/approve/disburse. A batch runs in one transaction: the requested loans are
+ * locked, ineligible ones are reported per loan, and eligible ones are moved with a single status
+ * UPDATE per target status. Detail rows are inserted with JDBC batches; notifications are published
+ * as one event per batch and coalesced into one summary per staff recipient after commit.
+ */
+@Service
+public class LoanBulkService {
+
+  private static final int MAX_BULK_SIZE = 100;
+  private static final int JDBC_BATCH_SIZE = 50;
+
+  private final LoanRepository loanRepository;
+  private final UserRepository userRepository;
+  private final LoanDisbursementRepository loanDisbursementRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final LoanTimelineService loanTimelineService;
+  private final RepaymentScheduleService repaymentScheduleService;
+  private final LoanStateMachine loanStateMachine;
+  private final OutboxService outboxService;
+  private final CustomerLimitService customerLimitService;
+
+  public LoanBulkService(
+      LoanRepository loanRepository,
+      UserRepository userRepository,
+      LoanDisbursementRepository loanDisbursementRepository,
+      JdbcTemplate jdbcTemplate,
+      LoanTimelineService loanTimelineService,
+      RepaymentScheduleService repaymentScheduleService,
+      LoanStateMachine loanStateMachine,
+      OutboxService outboxService,
+      CustomerLimitService customerLimitService) {
+    this.loanRepository = loanRepository;
+    this.userRepository = userRepository;
+    this.loanDisbursementRepository = loanDisbursementRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.loanTimelineService = loanTimelineService;
+    this.repaymentScheduleService = repaymentScheduleService;
+    this.loanStateMachine = loanStateMachine;
+    this.outboxService = outboxService;
+    this.customerLimitService = customerLimitService;
+  }
+
+  /** Loan yang lolos validasi beserta item request dan status tujuannya */
+  private record Decision(BulkLoanActionItem item, Loan loan, LoanStatus target) {}
+
+  @Transactional
+  public BulkLoanActionResponse reviewLoans(String username, BulkLoanActionRequest request) {
+    User user = findUser(username);
+    Map<Long, BulkLoanActionResult> results = new HashMap<>();
+    List<Decision> decisions =
+        lockEligible(
+            request,
+            LoanStatus.SUBMITTED,
+            results,
+            item -> {
+              if ("APPROVE".equalsIgnoreCase(item.getAction())) {
+                return LoanStatus.UNDER_REVIEW;
+              } else if ("REJECT".equalsIgnoreCase(item.getAction())) {
+                return LoanStatus.REJECTED;
+              }
+              throw new RuntimeException("Invalid action. Must be APPROVE or REJECT");
+            });
+    if (decisions.isEmpty()) {
+      return toResponse(request, results);
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    applyTransitions(decisions, LoanStatus.SUBMITTED, now);
+
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO loan_reviews (loan_id, reviewed_by, review_notes, review_status, reviewed_at) "
+            + "VALUES (?, ?, ?, ?, ?)",
+        decisions,
+        JDBC_BATCH_SIZE,
+        (ps, decision) -> {
+          ps.setLong(1, decision.loan().getId());
+          ps.setLong(2, user.getId());
+          ps.setString(3, decision.item().getNotes());
+          ps.setString(4, decision.target() == LoanStatus.REJECTED ? "REJECTED" : "APPROVED");
+          ps.setTimestamp(5, Timestamp.valueOf(now));
+        });
+
+    Map<Long, Decision> byLoanId = byLoanId(decisions);
+    loanTimelineService.recordAll(
+        loansOf(decisions),
+        (loan, timeline) -> {
+          timeline.setReviewedBy(user.getUsername());
+          timeline.setReviewedAt(now);
+          timeline.setReviewNotes(byLoanId.get(loan.getId()).item().getNotes());
+        });
+
+    customerLimitService.restoreLimits(loansOf(withTarget(decisions, LoanStatus.REJECTED)));
+
+    publishTransitions(user, decisions, LoanStatus.SUBMITTED);
+
+    markSucceeded(decisions, results);
+    return toResponse(request, results);
+  }
+
+  @Transactional
+  public BulkLoanActionResponse approveLoans(String username, BulkLoanActionRequest request) {
+    User user = findUser(username);
+    Map<Long, BulkLoanActionResult> results = new HashMap<>();
+    List<Decision> decisions =
+        lockEligible(
+            request,
+            LoanStatus.UNDER_REVIEW,
+            results,
+            item ->
+                Boolean.TRUE.equals(item.getApproved())
+                    ? LoanStatus.APPROVED
+                    : LoanStatus.REJECTED);
+    if (decisions.isEmpty()) {
+      return toResponse(request, results);
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    applyTransitions(decisions, LoanStatus.UNDER_REVIEW, now);
+
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO loan_approvals "
+            + "(loan_id, approved_by, approval_status, approval_notes, approved_at) "
+            + "VALUES (?, ?, ?, ?, ?)",
+        decisions,
+        JDBC_BATCH_SIZE,
+        (ps, decision) -> {
+          ps.setLong(1, decision.loan().getId());
+          ps.setLong(2, user.getId());
+          ps.setString(3, decision.target().name());
+          ps.setString(4, decision.item().getNotes());
+          ps.setTimestamp(5, Timestamp.valueOf(now));
+        });
+
+    Map<Long, Decision> byLoanId = byLoanId(decisions);
+    loanTimelineService.recordAll(
+        loansOf(decisions),
+        (loan, timeline) -> {
+          timeline.setApprovedBy(user.getUsername());
+          timeline.setApprovedAt(now);
+          timeline.setApprovalNotes(byLoanId.get(loan.getId()).item().getNotes());
+        });
+
+    // Limit sudah dipotong saat submission; hanya pengajuan yang ditolak yang dikembalikan
+    customerLimitService.restoreLimits(loansOf(withTarget(decisions, LoanStatus.REJECTED)));
+
+    publishTransitions(user, decisions, LoanStatus.UNDER_REVIEW);
+
+    markSucceeded(decisions, results);
+    return toResponse(request, results);
+  }
+
+  @Transactional
+  public BulkLoanActionResponse disburseLoans(String username, BulkLoanActionRequest request) {
+    User user = findUser(username);
+    Map<Long, BulkLoanActionResult> results = new HashMap<>();
+    List<Decision> eligible =
+        lockEligible(
+            request,
+            LoanStatus.APPROVED,
+            results,
+            item -> {
+              if (!"DISBURSE".equalsIgnoreCase(item.getAction())) {
+                throw new RuntimeException("Invalid action. Must be DISBURSE");
+              }
+              if (item.getBankAccount() == null || item.getBankAccount().trim().isEmpty()) {
+                throw new RuntimeException("Bank account is required for disbursement");
+              }
+              return LoanStatus.DISBURSED;
+            });
+
+    // Skip loans that already have a disbursement row
+    Set<Long> alreadyDisbursed =
+        eligible.isEmpty()
+            ? Set.of()
+            : loanDisbursementRepository
+                .findByLoanIdIn(eligible.stream().map(d -> d.loan().getId()).toList())
+                .stream()
+                .map(LoanDisbursement::getLoanId)
+                .collect(Collectors.toSet());
+    List<Decision> decisions = new ArrayList<>();
+    for (Decision decision : eligible) {
+      if (alreadyDisbursed.contains(decision.loan().getId())) {
+        results.put(
+            decision.loan().getId(),
+            failure(decision.loan().getId(), "Loan has already been disbursed"));
+      } else {
+        decisions.add(decision);
+      }
+    }
+    if (decisions.isEmpty()) {
+      return toResponse(request, results);
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    applyTransitions(decisions, LoanStatus.APPROVED, now);
+
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO loan_disbursements (loan_id, disbursed_by, disbursement_amount, "
+            + "disbursement_date, bank_account, status) VALUES (?, ?, ?, ?, ?, ?)",
+        decisions,
+        JDBC_BATCH_SIZE,
+        (ps, decision) -> {
+          ps.setLong(1, decision.loan().getId());
+          ps.setLong(2, user.getId());
+          ps.setBigDecimal(3, decision.loan().getAmount());
+          ps.setTimestamp(4, Timestamp.valueOf(now));
+          ps.setString(5, decision.item().getBankAccount());
+          ps.setString(6, "COMPLETED");
+        });
+
+    Map<Long, Decision> byLoanId = byLoanId(decisions);
+    loanTimelineService.recordAll(
+        loansOf(decisions),
+        (loan, timeline) -> {
+          timeline.setDisbursedBy(user.getUsername());
+          timeline.setDisbursedAt(now);
+          timeline.setDisbursementNotes(byLoanId.get(loan.getId()).item().getNotes());
+        });
+
+    // Update customer debt; several loans of the same customer simply add up
+    jdbcTemplate.batchUpdate(
+        "UPDATE customers SET current_total_debt = COALESCE(current_total_debt, 0) + ? "
+            + "WHERE id = ?",
+        decisions,
+        JDBC_BATCH_SIZE,
+        (ps, decision) -> {
+          ps.setBigDecimal(1, decision.loan().getAmount());
+          ps.setLong(2, decision.loan().getCustomer().getId());
+        });
+
+    repaymentScheduleService.generate(loansOf(decisions), now);
+
+    publishTransitions(user, decisions, LoanStatus.APPROVED);
+
+    markSucceeded(decisions, results);
+    return toResponse(request, results);
+  }
+
+  private User findUser(String username) {
+    return userRepository
+        .findByUsername(username)
+        .orElseThrow(() -> new RuntimeException("User not found"));
+  }
+
+  /**
+   * Validate the request items, lock the referenced loans and return those that are in the {@code
+   * from} status. Every rejected item gets a failure entry in {@code results}.
+   */
+  private List<Decision> lockEligible(
+      BulkLoanActionRequest request,
+      LoanStatus from,
+      Map<Long, BulkLoanActionResult> results,
+      Function<BulkLoanActionItem, LoanStatus> targetOf) {
+    List<BulkLoanActionItem> items = request.getItems();
+    if (items == null || items.isEmpty()) {
+      throw new RuntimeException("No loans to process");
+    }
+    if (items.size() > MAX_BULK_SIZE) {
+      throw new RuntimeException("Bulk action is limited to " + MAX_BULK_SIZE + " loans");
+    }
+
+    Map<Long, BulkLoanActionItem> valid = new LinkedHashMap<>();
+    Map<Long, LoanStatus> targets = new HashMap<>();
+    Set<Long> seen = new HashSet<>();
+    for (BulkLoanActionItem item : items) {
+      Long loanId = item.getLoanId();
+      if (loanId == null) {
+        throw new RuntimeException("loanId is required for every item");
+      }
+      if (!seen.add(loanId)) {
+        valid.remove(loanId);
+        results.put(loanId, failure(loanId, "Duplicate loan id in request"));
+        continue;
+      }
+      try {
+        targets.put(loanId, targetOf.apply(item));
+        valid.put(loanId, item);
+      } catch (RuntimeException e) {
+        results.put(loanId, failure(loanId, e.getMessage()));
+      }
+    }
+    if (valid.isEmpty()) {
+      return List.of();
+    }
+
+    Map<Long, Loan> loans =
+        loanRepository.findAllByIdForUpdate(valid.keySet()).stream()
+            .collect(Collectors.toMap(Loan::getId, Function.identity()));
+
+    List<Decision> decisions = new ArrayList<>();
+    valid.forEach(
+        (loanId, item) -> {
+          Loan loan = loans.get(loanId);
+          if (loan == null) {
+            results.put(loanId, failure(loanId, "Loan not found"));
+          } else if (loan.getStatus() != from) {
+            results.put(loanId, failure(loanId, "Loan is not in " + from + " status"));
+          } else {
+            decisions.add(new Decision(item, loan, targets.get(loanId)));
+          }
+        });
+    return decisions;
+  }
+
+  /** One set-based compare-and-set UPDATE per target status, via LoanStateMachine */
+  private void applyTransitions(List<Decision> decisions, LoanStatus from, LocalDateTime now) {
+    Map<LoanStatus, List<Decision>> byTarget =
+        decisions.stream()
+            .collect(
+                Collectors.groupingBy(
+                    Decision::target, () -> new EnumMap<>(LoanStatus.class), Collectors.toList()));
+
+    byTarget.forEach(
+        (target, group) -> {
+          List<Long> ids = group.stream().map(d -> d.loan().getId()).toList();
+          int updated = loanStateMachine.transitionAll(ids, from, target, now);
+          if (updated != ids.size()) {
+            // Rows are locked, so this only happens if the lock was not honoured
+            throw new RuntimeException("Loan status changed concurrently, please retry");
+          }
+          group.forEach(
+              d -> {
+                d.loan().setStatus(target);
+                d.loan().setUpdatedAt(now);
+              });
+        });
+  }
+
+  /**
+   * Satu event untuk seluruh batch; notifikasi customer, ringkasan staff, email dan webhook dikirim
+   * oleh OutboxRelay setelah commit.
+   */
+  private void publishTransitions(User user, List<Decision> decisions, LoanStatus from) {
+    List<LoanTransitionEvent.Transition> transitions =
+        decisions.stream()
+            .map(
+                d ->
+                    new LoanTransitionEvent.Transition(
+                        d.loan().getId(),
+                        from,
+                        d.target(),
+                        d.item().getNotes(),
+                        d.item().getBankAccount()))
+            .toList();
+    outboxService.append(new LoanTransitionEvent(user.getId(), transitions));
+  }
+
+  private void markSucceeded(List<Decision> decisions, Map<Long, BulkLoanActionResult> results) {
+    for (Decision decision : decisions) {
+      Long loanId = decision.loan().getId();
+      results.put(
+          loanId,
+          BulkLoanActionResult.builder()
+              .loanId(loanId)
+              .success(true)
+              .status(decision.target().name())
+              .message("Loan processed successfully")
+              .build());
+    }
+  }
+
+  /** Results in request order, one entry per distinct loan id */
+  private BulkLoanActionResponse toResponse(
+      BulkLoanActionRequest request, Map<Long, BulkLoanActionResult> results) {
+    List<BulkLoanActionResult> ordered = new ArrayList<>();
+    Set<Long> added = new HashSet<>();
+    for (BulkLoanActionItem item : request.getItems()) {
+      if (added.add(item.getLoanId())) {
+        ordered.add(results.get(item.getLoanId()));
+      }
+    }
+    int succeeded = (int) ordered.stream().filter(BulkLoanActionResult::isSuccess).count();
+    return BulkLoanActionResponse.builder()
+        .succeeded(succeeded)
+        .failed(ordered.size() - succeeded)
+        .results(ordered)
+        .build();
+  }
+
+  private BulkLoanActionResult failure(Long loanId, String message) {
+    return BulkLoanActionResult.builder().loanId(loanId).success(false).message(message).build();
+  }
+
+  private Map<Long, Decision> byLoanId(List<Decision> decisions) {
+    return decisions.stream().collect(Collectors.toMap(d -> d.loan().getId(), Function.identity()));
+  }
+
+  private List<Decision> withTarget(List<Decision> decisions, LoanStatus target) {
+    return decisions.stream().filter(d -> d.target() == target).toList();
+  }
+
+  private List<Loan> loansOf(List<Decision> decisions) {
+    return decisions.stream().map(Decision::loan).toList();
+  }
+}
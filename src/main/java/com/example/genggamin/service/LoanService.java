@@ -1,12 +1,17 @@
 package com.example.genggamin.service;
 
+import com.example.genggamin.dto.CursorPageResponse;
 import com.example.genggamin.dto.CustomerLimitResponse;
 import com.example.genggamin.dto.LoanActionRequest;
+import com.example.genggamin.dto.LoanCursor;
+import com.example.genggamin.dto.LoanFilterRequest;
 import com.example.genggamin.dto.LoanRequest;
 import com.example.genggamin.dto.LoanResponse;
+import com.example.genggamin.dto.LoanStatsResponse;
 import com.example.genggamin.dto.LoanWithApprovalResponse;
 import com.example.genggamin.dto.LoanWithDisbursementResponse;
 import com.example.genggamin.dto.LoanWithReviewResponse;
+import com.example.genggamin.dto.ResourceVersion;
 import com.example.genggamin.entity.Customer;
 import com.example.genggamin.entity.CustomerLimit;
 import com.example.genggamin.entity.Loan;
@@ -14,22 +19,32 @@ import com.example.genggamin.entity.Loan.LoanStatus;
 import com.example.genggamin.entity.LoanApproval;
 import com.example.genggamin.entity.LoanDisbursement;
 import com.example.genggamin.entity.LoanReview;
-import com.example.genggamin.entity.Plafond;
 import com.example.genggamin.entity.User;
-import com.example.genggamin.enums.NotificationType;
+import com.example.genggamin.event.LoanTransitionEvent;
 import com.example.genggamin.repository.CustomerLimitRepository;
 import com.example.genggamin.repository.CustomerRepository;
 import com.example.genggamin.repository.LoanApprovalRepository;
 import com.example.genggamin.repository.LoanDisbursementRepository;
 import com.example.genggamin.repository.LoanRepository;
 import com.example.genggamin.repository.LoanReviewRepository;
+import com.example.genggamin.repository.LoanSpecifications;
 import com.example.genggamin.repository.PlafondRepository;
 import com.example.genggamin.repository.UserRepository;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,38 +53,63 @@ public class LoanService {
 
   private static final Logger logger = LoggerFactory.getLogger(LoanService.class);
 
+  /** Batas atas ukuran halaman untuk endpoint antrian loan */
+  private static final int MAX_PAGE_SIZE = 100;
+
+  /** Sort properties accepted by {@link #searchLoans} */
+  private static final Set<String> SEARCH_SORT_PROPERTIES =
+      Set.of("submittedAt", "amount", "updatedAt", "id");
+
   private final LoanRepository loanRepository;
   private final UserRepository userRepository;
   private final CustomerRepository customerRepository;
   private final PlafondRepository plafondRepository;
+  private final PlafondCatalog plafondCatalog;
   private final LoanReviewRepository loanReviewRepository;
   private final LoanApprovalRepository loanApprovalRepository;
   private final LoanDisbursementRepository loanDisbursementRepository;
-  private final EmailService emailService;
-  private final NotificationService notificationService;
+  private final OutboxService outboxService;
   private final CustomerLimitRepository customerLimitRepository;
+  private final CustomerLimitService customerLimitService;
+  private final LoanTimelineService loanTimelineService;
+  private final RepaymentScheduleService repaymentScheduleService;
+  private final LoanStateMachine loanStateMachine;
+  private final StaffDirectoryService staffDirectoryService;
+  private final LoanStatsService loanStatsService;
 
   public LoanService(
       LoanRepository loanRepository,
       UserRepository userRepository,
       CustomerRepository customerRepository,
       PlafondRepository plafondRepository,
+      PlafondCatalog plafondCatalog,
       LoanReviewRepository loanReviewRepository,
       LoanApprovalRepository loanApprovalRepository,
       LoanDisbursementRepository loanDisbursementRepository,
-      EmailService emailService,
-      NotificationService notificationService,
-      CustomerLimitRepository customerLimitRepository) {
+      OutboxService outboxService,
+      CustomerLimitRepository customerLimitRepository,
+      CustomerLimitService customerLimitService,
+      LoanTimelineService loanTimelineService,
+      RepaymentScheduleService repaymentScheduleService,
+      LoanStateMachine loanStateMachine,
+      StaffDirectoryService staffDirectoryService,
+      LoanStatsService loanStatsService) {
     this.loanRepository = loanRepository;
     this.userRepository = userRepository;
     this.customerRepository = customerRepository;
     this.plafondRepository = plafondRepository;
+    this.plafondCatalog = plafondCatalog;
     this.loanReviewRepository = loanReviewRepository;
     this.loanApprovalRepository = loanApprovalRepository;
     this.loanDisbursementRepository = loanDisbursementRepository;
-    this.emailService = emailService;
-    this.notificationService = notificationService;
+    this.outboxService = outboxService;
     this.customerLimitRepository = customerLimitRepository;
+    this.customerLimitService = customerLimitService;
+    this.loanTimelineService = loanTimelineService;
+    this.repaymentScheduleService = repaymentScheduleService;
+    this.loanStateMachine = loanStateMachine;
+    this.staffDirectoryService = staffDirectoryService;
+    this.loanStatsService = loanStatsService;
   }
 
   @Transactional
@@ -92,25 +132,20 @@ public class LoanService {
       throw new RuntimeException("Plafond ID is required. Please select a plafond.");
     }
 
-    // Ambil plafond berdasarkan ID yang dipilih customer
-    Plafond plafond =
-        plafondRepository
-            .findById(request.getPlafondId())
+    // Ambil plafond dari katalog in-memory (tanpa query ke database)
+    PlafondCatalog.Entry plafond =
+        plafondCatalog
+            .find(request.getPlafondId())
             .orElseThrow(
                 () -> new RuntimeException("Plafond not found with ID: " + request.getPlafondId()));
 
     // Validasi plafond aktif
-    if (!plafond.getIsActive()) {
+    if (!plafond.active()) {
       throw new RuntimeException("Selected plafond is not active");
     }
 
     // Validasi plafond eligible untuk customer income
-    List<Plafond> eligiblePlafonds =
-        plafondRepository.findByIncomeRange(customer.getMonthlyIncome());
-
-    boolean isEligible = eligiblePlafonds.stream().anyMatch(p -> p.getId().equals(plafond.getId()));
-
-    if (!isEligible) {
+    if (!plafondCatalog.isEligible(plafond.id(), customer.getMonthlyIncome())) {
       throw new RuntimeException(
           "Selected plafond is not eligible for your income level (Rp "
               + customer.getMonthlyIncome()
@@ -118,36 +153,36 @@ public class LoanService {
     }
 
     // Validasi amount tidak melebihi max plafond
-    if (request.getAmount().compareTo(plafond.getMaxAmount()) > 0) {
+    if (request.getAmount().compareTo(plafond.maxAmount()) > 0) {
       throw new RuntimeException(
           "Loan amount ("
               + request.getAmount()
               + ") exceeds maximum allowed ("
-              + plafond.getMaxAmount()
+              + plafond.maxAmount()
               + ") for selected plafond");
     }
 
     // Validasi tenure tidak melebihi max plafond
-    if (request.getTenureMonths() > plafond.getTenorMonth()) {
+    if (request.getTenureMonths() > plafond.tenorMonth()) {
       throw new RuntimeException(
           "Loan tenure ("
               + request.getTenureMonths()
               + " months) exceeds maximum allowed ("
-              + plafond.getTenorMonth()
+              + plafond.tenorMonth()
               + " months) for selected plafond");
     }
 
     // Check Customer Limit (Initialize if not exists)
     CustomerLimit customerLimit =
         customerLimitRepository
-            .findByCustomer_IdAndPlafond_Id(customer.getId(), plafond.getId())
+            .findByCustomer_IdAndPlafond_Id(customer.getId(), plafond.id())
             .orElseGet(
                 () ->
                     CustomerLimit.builder()
                         .customer(customer)
-                        .plafond(plafond)
-                        .totalLimit(plafond.getMaxAmount())
-                        .availableLimit(plafond.getMaxAmount())
+                        .plafond(plafondRepository.getReferenceById(plafond.id()))
+                        .totalLimit(plafond.maxAmount())
+                        .availableLimit(plafond.maxAmount())
                         .isLocked(false)
                         .build());
 
@@ -157,17 +192,19 @@ public class LoanService {
       customerLimitRepository.saveAndFlush(customerLimit);
     }
 
-    // Call Stored Procedure to create loan and update limit atomically
+    // Call Stored Procedure to create loan and update limit atomically; it returns the new row
+    Loan savedLoan;
     try {
-      loanRepository.createLoanWithLimitCheck(
-          customer.getId(),
-          plafond.getId(),
-          request.getAmount(),
-          request.getTenureMonths(),
-          plafond.getInterestRate(),
-          request.getPurpose(),
-          request.getLatitude(),
-          request.getLongitude());
+      savedLoan =
+          loanRepository.createLoanWithLimitCheck(
+              customer.getId(),
+              plafond.id(),
+              request.getAmount(),
+              request.getTenureMonths(),
+              plafond.interestRate(),
+              request.getPurpose(),
+              request.getLatitude(),
+              request.getLongitude());
     } catch (Exception e) {
       // Extract specific error message from Stored Procedure
       String errorMessage = e.getMessage();
@@ -185,20 +222,17 @@ public class LoanService {
       throw new RuntimeException("Failed to submit loan: " + e.getMessage());
     }
 
-    // Fetch the newly created loan
-    Loan savedLoan =
-        loanRepository
-            .findLatestLoanByCustomerId(customer.getId())
-            .orElseThrow(() -> new RuntimeException("Failed to retrieve created loan"));
+    if (savedLoan == null) {
+      throw new RuntimeException("Failed to retrieve created loan");
+    }
 
-    // Notify Customer
-    notificationService.sendNotification(user, NotificationType.LOAN_SUBMISSION, savedLoan);
+    loanTimelineService.recordSubmission(savedLoan);
+    loanStatsService.recordSubmission(savedLoan.getStatus());
 
-    // Notify Marketing Staff (Simulated broadcast)
-    List<User> marketingStaff = userRepository.findByRoles_Name("MARKETING");
-    for (User marketing : marketingStaff) {
-      notificationService.sendNotification(marketing, NotificationType.LOAN_NEW, savedLoan);
-    }
+    // Notifications, emails and webhooks go through the outbox, written in this transaction
+    outboxService.append(
+        LoanTransitionEvent.of(
+            user.getId(), savedLoan.getId(), null, savedLoan.getStatus(), null, null));
 
     return LoanResponse.fromEntity(savedLoan);
   }
@@ -208,43 +242,114 @@ public class LoanService {
    * Loan @Transient fields
    */
   private void populateLoanDetails(Loan loan) {
-    // Populate review data
-    loanReviewRepository
-        .findByLoanId(loan.getId())
-        .ifPresent(
-            review -> {
-              loan.setReviewNotes(review.getReviewNotes());
-              loan.setReviewedAt(review.getReviewedAt());
-              // Get reviewer username
-              userRepository
-                  .findById(review.getReviewedBy())
-                  .ifPresent(user -> loan.setReviewedBy(user.getUsername()));
-            });
-
-    // Populate approval data
-    loanApprovalRepository
-        .findByLoanId(loan.getId())
-        .ifPresent(
-            approval -> {
-              loan.setApprovalNotes(approval.getApprovalNotes());
-              loan.setApprovedAt(approval.getApprovedAt());
-              // Get approver username
-              userRepository
-                  .findById(approval.getApprovedBy())
-                  .ifPresent(user -> loan.setApprovedBy(user.getUsername()));
-            });
-
-    // Populate disbursement data
-    loanDisbursementRepository
-        .findByLoanId(loan.getId())
-        .ifPresent(
-            disbursement -> {
-              loan.setDisbursedAt(disbursement.getDisbursementDate());
-              // Get disburser username
-              userRepository
-                  .findById(disbursement.getDisbursedBy())
-                  .ifPresent(user -> loan.setDisbursedBy(user.getUsername()));
-            });
+    populateLoanDetails(List.of(loan));
+  }
+
+  /**
+   * Batch version of {@link #populateLoanDetails(Loan)}. Details come from the loan_timeline read
+   * model; loans without a timeline row fall back to the source tables.
+   */
+  private void populateLoanDetails(List<Loan> loans) {
+    if (loans.isEmpty()) {
+      return;
+    }
+
+    List<Loan> withoutTimeline = loanTimelineService.applyTo(loans);
+    if (!withoutTimeline.isEmpty()) {
+      populateLoanDetailsFromSourceTables(withoutTimeline);
+    }
+  }
+
+  /**
+   * Reviews, approvals, disbursements and actor usernames for the whole list are loaded with one
+   * query per table instead of per loan.
+   */
+  private void populateLoanDetailsFromSourceTables(List<Loan> loans) {
+
+    List<Long> loanIds = loans.stream().map(Loan::getId).collect(Collectors.toList());
+
+    Map<Long, LoanReview> reviews =
+        loanReviewRepository.findByLoanIdIn(loanIds).stream()
+            .collect(Collectors.toMap(LoanReview::getLoanId, Function.identity()));
+    Map<Long, LoanApproval> approvals =
+        loanApprovalRepository.findByLoanIdIn(loanIds).stream()
+            .collect(Collectors.toMap(LoanApproval::getLoanId, Function.identity()));
+    Map<Long, LoanDisbursement> disbursements =
+        loanDisbursementRepository.findByLoanIdIn(loanIds).stream()
+            .collect(Collectors.toMap(LoanDisbursement::getLoanId, Function.identity()));
+
+    // Resolve reviewer/approver/disburser usernames from the in-process staff directory
+    Set<Long> actorIds = new HashSet<>();
+    reviews.values().forEach(review -> actorIds.add(review.getReviewedBy()));
+    approvals.values().forEach(approval -> actorIds.add(approval.getApprovedBy()));
+    disbursements.values().forEach(disbursement -> actorIds.add(disbursement.getDisbursedBy()));
+
+    Map<Long, String> usernames =
+        actorIds.isEmpty() ? Map.of() : staffDirectoryService.usernamesFor(actorIds);
+
+    for (Loan loan : loans) {
+      LoanReview review = reviews.get(loan.getId());
+      if (review != null) {
+        loan.setReviewNotes(review.getReviewNotes());
+        loan.setReviewedAt(review.getReviewedAt());
+        loan.setReviewedBy(usernames.get(review.getReviewedBy()));
+      }
+
+      LoanApproval approval = approvals.get(loan.getId());
+      if (approval != null) {
+        loan.setApprovalNotes(approval.getApprovalNotes());
+        loan.setApprovedAt(approval.getApprovedAt());
+        loan.setApprovedBy(usernames.get(approval.getApprovedBy()));
+      }
+
+      LoanDisbursement disbursement = disbursements.get(loan.getId());
+      if (disbursement != null) {
+        loan.setDisbursedAt(disbursement.getDisbursementDate());
+        loan.setDisbursedBy(usernames.get(disbursement.getDisbursedBy()));
+      }
+    }
+  }
+
+  /**
+   * Keyset-paginated loan listing ordered by (submittedAt, id). A null status lists all loans. One
+   * extra row is fetched to know whether another page exists without running a COUNT query.
+   */
+  private CursorPageResponse<LoanResponse> getLoanPage(LoanStatus status, String cursor, int size) {
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    Pageable limit = PageRequest.of(0, pageSize + 1);
+    LoanCursor after = LoanCursor.decode(cursor);
+
+    List<Loan> loans;
+    if (status == null) {
+      loans =
+          after == null
+              ? loanRepository.findFirstPage(limit)
+              : loanRepository.findPageAfter(after.submittedAt(), after.id(), limit);
+    } else {
+      loans =
+          after == null
+              ? loanRepository.findFirstPageByStatus(status, limit)
+              : loanRepository.findPageByStatusAfter(
+                  status, after.submittedAt(), after.id(), limit);
+    }
+
+    boolean hasNext = loans.size() > pageSize;
+    if (hasNext) {
+      loans = loans.subList(0, pageSize);
+    }
+
+    return CursorPageResponse.<LoanResponse>builder()
+        .items(toLoanResponses(loans))
+        .nextCursor(hasNext ? LoanCursor.of(loans.get(loans.size() - 1)).encode() : null)
+        .hasNext(hasNext)
+        .size(loans.size())
+        .build();
+  }
+
+  /** Map a page of loans to LoanResponse using the batched detail lookup */
+  private List<LoanResponse> toLoanResponses(List<Loan> loans) {
+    populateLoanDetails(loans);
+    return loans.stream().map(LoanResponse::fromEntity).collect(Collectors.toList());
   }
 
   @Transactional(readOnly = true)
@@ -259,13 +364,20 @@ public class LoanService {
             .findByUserId(user.getId())
             .orElseThrow(() -> new RuntimeException("Customer profile not found"));
 
-    return loanRepository.findByCustomerId(customer.getId()).stream()
-        .map(
-            loan -> {
-              populateLoanDetails(loan);
-              return LoanResponse.fromEntity(loan);
-            })
-        .collect(Collectors.toList());
+    return toLoanResponses(loanRepository.findByCustomerId(customer.getId()));
+  }
+
+  /**
+   * Version of the caller's loan list, derived from loan count, newest id and latest
+   * updatedAt/createdAt. Lets /loans/my-loans answer 304 without assembling the list.
+   */
+  @Transactional(readOnly = true)
+  public ResourceVersion getMyLoansVersion(String username) {
+    LoanRepository.LoanVersionView version = loanRepository.findVersionByUsername(username);
+    long lastModified = toEpochMillis(version.getLastModified());
+    return new ResourceVersion(
+        "my-loans-" + version.getTotal() + "-" + version.getMaxId() + "-" + lastModified,
+        lastModified);
   }
 
   @Transactional(readOnly = true)
@@ -286,25 +398,12 @@ public class LoanService {
   }
 
   @Transactional(readOnly = true)
-  public List<LoanResponse> getLoansForReview() {
-    return loanRepository.findByStatus(LoanStatus.SUBMITTED).stream()
-        .map(
-            loan -> {
-              populateLoanDetails(loan);
-              return LoanResponse.fromEntity(loan);
-            })
-        .collect(Collectors.toList());
+  public CursorPageResponse<LoanResponse> getLoansForReview(String cursor, int size) {
+    return getLoanPage(LoanStatus.SUBMITTED, cursor, size);
   }
 
   @Transactional
   public LoanResponse reviewLoan(Long loanId, String username, LoanActionRequest request) {
-    Loan loan =
-        loanRepository.findById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
-
-    if (loan.getStatus() != LoanStatus.SUBMITTED) {
-      throw new RuntimeException("Loan is not in SUBMITTED status");
-    }
-
     // Get user ID
     User user =
         userRepository
@@ -325,6 +424,9 @@ public class LoanService {
       throw new RuntimeException("Invalid action. Must be APPROVE or REJECT");
     }
 
+    // Update loan status; only one of two concurrent reviewers wins
+    Loan savedLoan = loanStateMachine.transition(loanId, LoanStatus.SUBMITTED, newLoanStatus);
+
     // Save to loan_reviews table
     LoanReview loanReview =
         LoanReview.builder()
@@ -337,103 +439,42 @@ public class LoanService {
 
     loanReviewRepository.save(loanReview);
 
-    // Update loan status
-    loan.setStatus(newLoanStatus);
-    loan.setUpdatedAt(LocalDateTime.now());
-
-    Loan savedLoan = loanRepository.save(loan);
+    loanTimelineService.recordReview(
+        savedLoan, user.getUsername(), loanReview.getReviewedAt(), request.getNotes());
 
     // Populate review details
     populateLoanDetails(savedLoan);
 
-    // Notifications
-    User customerUser = userRepository.findById(savedLoan.getCustomer().getUserId()).orElse(null);
-
-    if (newLoanStatus == LoanStatus.UNDER_REVIEW) {
-      // Notify Branch Manager
-      List<User> branchManagers = userRepository.findByRoles_Name("BRANCH_MANAGER");
-      for (User bm : branchManagers) {
-        notificationService.sendNotification(bm, NotificationType.READY_FOR_APPROVAL, savedLoan);
-      }
-      // Notify the Marketing user who completed the review
-      notificationService.sendNotification(user, NotificationType.REVIEW_COMPLETED, savedLoan);
-    } else if (newLoanStatus == LoanStatus.REJECTED) {
-      if (customerUser != null) {
-        notificationService.sendNotification(
-            customerUser, NotificationType.LOAN_REJECTED, savedLoan);
-      }
-      // Notify the Marketing user who completed the review
-      notificationService.sendNotification(user, NotificationType.REVIEW_COMPLETED, savedLoan);
-    }
-
-    // Send email if rejected
+    // Restore Limit if Rejected (atomic UPDATE, no read-modify-write)
     if (newLoanStatus == LoanStatus.REJECTED) {
-      // Restore Limit if Rejected
-      CustomerLimit limit =
-          customerLimitRepository
-              .findByCustomer_IdAndPlafond_Id(
-                  savedLoan.getCustomer().getId(), savedLoan.getPlafondId())
-              .orElseThrow(() -> new RuntimeException("Customer limit not found"));
-
-      limit.setAvailableLimit(limit.getAvailableLimit().add(savedLoan.getAmount()));
-      customerLimitRepository.save(limit);
-
-      try {
-        if (customerUser != null) {
-          emailService.sendLoanRejectedEmail(
-              customerUser.getEmail(),
-              customerUser.getUsername(),
-              savedLoan.getId(),
-              request.getNotes());
-        }
-      } catch (Exception e) {
-        // Log error (or use logger if available in class)
-        logger.error("Failed to send rejection email: {}", e.getMessage());
-      }
+      customerLimitService.restoreLimit(savedLoan);
     }
 
+    // Notifications, emails and webhooks go through the outbox, written in this transaction
+    outboxService.append(
+        LoanTransitionEvent.of(
+            user.getId(),
+            savedLoan.getId(),
+            LoanStatus.SUBMITTED,
+            savedLoan.getStatus(),
+            request.getNotes(),
+            null));
+
     return LoanResponse.fromEntity(savedLoan);
   }
 
   @Transactional(readOnly = true)
-  public List<LoanWithReviewResponse> getReviewedLoans() {
-    List<Loan> reviewedLoans = loanRepository.findAllReviewedLoans();
-
-    return reviewedLoans.stream()
-        .map(
-            loan -> {
-              LoanReview review =
-                  loanReviewRepository
-                      .findByLoanId(loan.getId())
-                      .orElseThrow(
-                          () ->
-                              new RuntimeException(
-                                  "Review not found for loan id: " + loan.getId()));
-              return LoanWithReviewResponse.fromEntities(loan, review);
-            })
-        .collect(Collectors.toList());
+  public Page<LoanWithReviewResponse> getReviewedLoans(Pageable pageable) {
+    return loanRepository.findReviewedLoanDetails(unsortedPage(pageable));
   }
 
   @Transactional(readOnly = true)
-  public List<LoanResponse> getLoansForApproval() {
-    return loanRepository.findByStatus(LoanStatus.UNDER_REVIEW).stream()
-        .map(
-            loan -> {
-              populateLoanDetails(loan);
-              return LoanResponse.fromEntity(loan);
-            })
-        .collect(Collectors.toList());
+  public CursorPageResponse<LoanResponse> getLoansForApproval(String cursor, int size) {
+    return getLoanPage(LoanStatus.UNDER_REVIEW, cursor, size);
   }
 
   @Transactional
   public LoanResponse approveLoan(Long loanId, String username, LoanActionRequest request) {
-    Loan loan =
-        loanRepository.findById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
-
-    if (loan.getStatus() != LoanStatus.UNDER_REVIEW) {
-      throw new RuntimeException("Loan is not in UNDER_REVIEW status");
-    }
-
     // Get user ID
     User user =
         userRepository
@@ -452,6 +493,9 @@ public class LoanService {
       newLoanStatus = LoanStatus.REJECTED;
     }
 
+    // Update loan status; only one of two concurrent approvers wins
+    Loan savedLoan = loanStateMachine.transition(loanId, LoanStatus.UNDER_REVIEW, newLoanStatus);
+
     // Save to loan_approvals table
     LoanApproval loanApproval =
         LoanApproval.builder()
@@ -464,120 +508,42 @@ public class LoanService {
 
     loanApprovalRepository.save(loanApproval);
 
-    // Update loan status
-    loan.setStatus(newLoanStatus);
-    loan.setUpdatedAt(LocalDateTime.now());
-
-    Loan savedLoan = loanRepository.save(loan);
+    loanTimelineService.recordApproval(
+        savedLoan, user.getUsername(), loanApproval.getApprovedAt(), request.getNotes());
 
     // Populate previous stages details (Review & Approval)
     populateLoanDetails(savedLoan);
 
-    // Notifications
-    User customerUser = userRepository.findById(savedLoan.getCustomer().getUserId()).orElse(null);
-    if (newLoanStatus == LoanStatus.APPROVED) {
-      // Note: Limit was already deducted at SUBMISSION via SP.
-      // We do not need to deduct it here again.
-
-      if (customerUser != null) {
-        notificationService.sendNotification(
-            customerUser, NotificationType.LOAN_APPROVED, savedLoan);
-      }
-      // Notify Back Office
-      List<User> backOfficeStaff = userRepository.findByRoles_Name("BACK_OFFICE");
-      for (User bo : backOfficeStaff) {
-        notificationService.sendNotification(
-            bo, NotificationType.READY_FOR_DISBURSEMENT, savedLoan);
-      }
-      // Notify the Branch Manager who completed the approval
-      notificationService.sendNotification(user, NotificationType.APPROVAL_COMPLETED, savedLoan);
-    } else if (newLoanStatus == LoanStatus.REJECTED) {
-      // Restore Limit if Rejected
-      CustomerLimit limit =
-          customerLimitRepository
-              .findByCustomer_IdAndPlafond_Id(
-                  savedLoan.getCustomer().getId(), savedLoan.getPlafondId())
-              .orElseThrow(() -> new RuntimeException("Customer limit not found"));
-
-      limit.setAvailableLimit(limit.getAvailableLimit().add(savedLoan.getAmount()));
-      customerLimitRepository.save(limit);
-
-      if (customerUser != null) {
-        notificationService.sendNotification(
-            customerUser, NotificationType.LOAN_REJECTED, savedLoan);
-      }
-      // Notify the Branch Manager who completed the approval
-      notificationService.sendNotification(user, NotificationType.APPROVAL_COMPLETED, savedLoan);
+    // Note: Limit was already deducted at SUBMISSION via SP; only a rejection restores it.
+    if (newLoanStatus == LoanStatus.REJECTED) {
+      customerLimitService.restoreLimit(savedLoan);
     }
 
-    // Send email
-    try {
-      if (customerUser != null) {
-        if (newLoanStatus == LoanStatus.APPROVED) {
-          emailService.sendLoanApprovedEmail(
-              customerUser.getEmail(),
-              customerUser.getUsername(),
-              savedLoan.getId(),
-              savedLoan.getAmount());
-        } else if (newLoanStatus == LoanStatus.REJECTED) {
-          emailService.sendLoanRejectedEmail(
-              customerUser.getEmail(),
-              customerUser.getUsername(),
-              savedLoan.getId(),
-              request.getNotes());
-        }
-      }
-    } catch (Exception e) {
-      logger.error("Failed to send approval/rejection email: {}", e.getMessage());
-    }
+    // Notifications, emails and webhooks go through the outbox, written in this transaction
+    outboxService.append(
+        LoanTransitionEvent.of(
+            user.getId(),
+            savedLoan.getId(),
+            LoanStatus.UNDER_REVIEW,
+            savedLoan.getStatus(),
+            request.getNotes(),
+            null));
 
     return LoanResponse.fromEntity(savedLoan);
   }
 
   @Transactional(readOnly = true)
-  public List<LoanWithApprovalResponse> getApprovedLoansWithDetails() {
-    List<Loan> approvedLoans = loanRepository.findAllApprovedLoans();
-
-    return approvedLoans.stream()
-        .map(
-            loan -> {
-              LoanApproval approval =
-                  loanApprovalRepository
-                      .findByLoanId(loan.getId())
-                      .orElseThrow(
-                          () ->
-                              new RuntimeException(
-                                  "Approval not found for loan id: " + loan.getId()));
-              return LoanWithApprovalResponse.fromEntities(loan, approval);
-            })
-        .collect(Collectors.toList());
+  public Page<LoanWithApprovalResponse> getApprovedLoansWithDetails(Pageable pageable) {
+    return loanRepository.findApprovedLoanDetails(unsortedPage(pageable));
   }
 
   @Transactional(readOnly = true)
-  public List<LoanResponse> getLoansForDisbursement() {
-    return loanRepository.findByStatus(LoanStatus.APPROVED).stream()
-        .map(
-            loan -> {
-              populateLoanDetails(loan);
-              return LoanResponse.fromEntity(loan);
-            })
-        .collect(Collectors.toList());
+  public CursorPageResponse<LoanResponse> getLoansForDisbursement(String cursor, int size) {
+    return getLoanPage(LoanStatus.APPROVED, cursor, size);
   }
 
   @Transactional
   public LoanResponse disburseLoan(Long loanId, String username, LoanActionRequest request) {
-    Loan loan =
-        loanRepository.findById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
-
-    if (loan.getStatus() != LoanStatus.APPROVED) {
-      throw new RuntimeException("Loan is not in APPROVED status");
-    }
-
-    // Check if loan already disbursed
-    if (loanDisbursementRepository.existsByLoanId(loanId)) {
-      throw new RuntimeException("Loan has already been disbursed");
-    }
-
     // Validate action
     if (!"DISBURSE".equalsIgnoreCase(request.getAction())) {
       throw new RuntimeException("Invalid action. Must be DISBURSE");
@@ -594,124 +560,126 @@ public class LoanService {
             .findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
 
+    // Update loan status; a second concurrent disbursement loses here
+    Loan savedLoan = loanStateMachine.transition(loanId, LoanStatus.APPROVED, LoanStatus.DISBURSED);
+
+    // Check if loan already disbursed
+    if (loanDisbursementRepository.existsByLoanId(loanId)) {
+      throw new RuntimeException("Loan has already been disbursed");
+    }
+
     // Save to loan_disbursements table
     LoanDisbursement disbursement =
         new LoanDisbursement(
-            loanId, user.getId(), loan.getAmount(), request.getBankAccount(), "COMPLETED");
-
-    loanDisbursementRepository.save(disbursement);
+            loanId, user.getId(), savedLoan.getAmount(), request.getBankAccount(), "COMPLETED");
 
-    // Update loan status
-    loan.setStatus(LoanStatus.DISBURSED);
-    loan.setUpdatedAt(LocalDateTime.now());
+    disbursement = loanDisbursementRepository.save(disbursement);
 
-    Loan savedLoan = loanRepository.save(loan);
+    // Disbursement notes are only persisted in the timeline
+    loanTimelineService.recordDisbursement(
+        savedLoan, user.getUsername(), disbursement.getDisbursementDate(), request.getNotes());
 
     // Populate previous stages details (Review, Approval, Disbursement)
     populateLoanDetails(savedLoan);
 
-    // Manually set disbursement notes from request since we don't persist it
-    savedLoan.setDisbursementNotes(request.getNotes());
-
     // Update Customer Debt
     Customer customer = savedLoan.getCustomer();
     customer.setCurrentTotalDebt(customer.getCurrentTotalDebt().add(savedLoan.getAmount()));
     customerRepository.save(customer);
 
-    // Send email
-    User customerUser = userRepository.findById(savedLoan.getCustomer().getUserId()).orElse(null);
-    try {
-      if (customerUser != null) {
-        emailService.sendLoanDisbursedEmail(
-            customerUser.getEmail(),
-            customerUser.getUsername(),
+    // Jadwal angsuran ditulis di transaksi yang sama dengan pencairan
+    repaymentScheduleService.generate(List.of(savedLoan), disbursement.getDisbursementDate());
+
+    // Notifications, emails and webhooks go through the outbox, written in this transaction
+    outboxService.append(
+        LoanTransitionEvent.of(
+            user.getId(),
             savedLoan.getId(),
-            savedLoan.getAmount(),
-            request.getBankAccount());
-      }
-    } catch (Exception e) {
-      logger.error("Failed to send disbursement email: {}", e.getMessage());
+            LoanStatus.APPROVED,
+            savedLoan.getStatus(),
+            request.getNotes(),
+            request.getBankAccount()));
+
+    return LoanResponse.fromEntity(savedLoan);
+  }
+
+  @Transactional(readOnly = true)
+  public Page<LoanWithDisbursementResponse> getDisbursedLoansWithDetails(Pageable pageable) {
+    return loanRepository.findDisbursedLoanDetails(LoanStatus.DISBURSED, unsortedPage(pageable));
+  }
+
+  /**
+   * Detail queries carry their own ORDER BY, so only page number and (capped) size are taken from
+   * the request.
+   */
+  private Pageable unsortedPage(Pageable pageable) {
+    return PageRequest.of(
+        pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_PAGE_SIZE));
+  }
+
+  @Transactional(readOnly = true)
+  public CursorPageResponse<LoanResponse> getAllLoans(String cursor, int size) {
+    return getLoanPage(null, cursor, size);
+  }
+
+  /**
+   * Filtered, paged loan search. Filtering and sorting run in the database; only whitelisted sort
+   * properties are accepted and the page size is capped.
+   */
+  @Transactional(readOnly = true)
+  public Page<LoanResponse> searchLoans(LoanFilterRequest filter, Pageable pageable) {
+    if (filter.getMinAmount() != null
+        && filter.getMaxAmount() != null
+        && filter.getMinAmount().compareTo(filter.getMaxAmount()) > 0) {
+      throw new RuntimeException("minAmount must not be greater than maxAmount");
+    }
+    if (filter.getSubmittedFrom() != null
+        && filter.getSubmittedTo() != null
+        && filter.getSubmittedFrom().isAfter(filter.getSubmittedTo())) {
+      throw new RuntimeException("submittedFrom must not be after submittedTo");
     }
 
-    // Notifications
-    // Notify Customer that loan has been disbursed
-    if (customerUser != null) {
-      notificationService.sendNotification(
-          customerUser, NotificationType.LOAN_DISBURSED, savedLoan);
+    Sort sort = Sort.unsorted();
+    for (Sort.Order order : pageable.getSort()) {
+      if (!SEARCH_SORT_PROPERTIES.contains(order.getProperty())) {
+        throw new RuntimeException("Unsupported sort property: " + order.getProperty());
+      }
+      sort = sort.and(Sort.by(order.getDirection(), order.getProperty()));
+    }
+    if (sort.isUnsorted()) {
+      sort = Sort.by(Sort.Direction.DESC, "submittedAt");
+    }
+    // Tie-breaker so paging is stable when the sort key has duplicates
+    if (sort.getOrderFor("id") == null) {
+      sort = sort.and(Sort.by(Sort.Direction.DESC, "id"));
     }
-    // Notify the Backoffice user who completed the disbursement
-    notificationService.sendNotification(user, NotificationType.DISBURSEMENT_COMPLETED, savedLoan);
 
-    return LoanResponse.fromEntity(savedLoan);
+    Pageable page =
+        PageRequest.of(
+            pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_PAGE_SIZE), sort);
+    Page<Loan> loans = loanRepository.findAll(LoanSpecifications.matching(filter), page);
+    List<LoanResponse> responses = toLoanResponses(loans.getContent());
+    return new PageImpl<>(responses, page, loans.getTotalElements());
   }
 
-  @Transactional(readOnly = true)
-  public List<LoanWithDisbursementResponse> getDisbursedLoansWithDetails() {
-    List<Loan> disbursedLoans = loanRepository.findByStatus(LoanStatus.DISBURSED);
-
-    return disbursedLoans.stream()
-        .map(
-            loan -> {
-              // Find disbursement, return null if not found (will be filtered out)
-              LoanDisbursement disbursement =
-                  loanDisbursementRepository.findByLoanId(loan.getId()).orElse(null);
-
-              // Skip loan if no disbursement data found
-              if (disbursement == null) {
-                return null;
-              }
-
-              LoanWithDisbursementResponse response = new LoanWithDisbursementResponse();
-              // Set loan fields
-              response.setId(loan.getId());
-              response.setCustomerId(loan.getCustomer().getId());
-              response.setPlafondId(loan.getPlafondId());
-              response.setLoanAmount(loan.getAmount());
-              response.setTenorMonth(loan.getTenureMonths());
-              response.setInterestRate(loan.getInterestRate());
-              response.setPurpose(loan.getPurpose());
-              response.setStatus(loan.getStatus().toString());
-              response.setSubmissionDate(loan.getSubmittedAt());
-              response.setCreatedAt(loan.getCreatedAt());
-              response.setUpdatedAt(loan.getUpdatedAt());
-              response.setLatitude(loan.getLatitude());
-              response.setLongitude(loan.getLongitude());
-
-              // Set disbursement fields
-              response.setDisbursementId(disbursement.getId());
-              response.setDisbursedBy(disbursement.getDisbursedBy());
-              response.setDisbursementAmount(disbursement.getDisbursementAmount());
-              response.setDisbursementDate(disbursement.getDisbursementDate());
-              response.setBankAccount(disbursement.getBankAccount());
-              response.setDisbursementStatus(disbursement.getStatus());
-
-              // Populate approval details
-              loanApprovalRepository
-                  .findByLoanId(loan.getId())
-                  .ifPresent(
-                      approval -> {
-                        response.setApprovalId(approval.getId());
-                        response.setApprovedBy(approval.getApprovedBy());
-                        response.setApprovalStatus(approval.getApprovalStatus());
-                        response.setApprovalNotes(approval.getApprovalNotes());
-                        response.setApprovedAt(approval.getApprovedAt());
-                      });
-
-              return response;
-            })
-        .filter(response -> response != null) // Filter out null responses
-        .collect(Collectors.toList());
+  /** Badge counts per status, served from loan_status_counters */
+  public LoanStatsResponse getLoanStats() {
+    return loanStatsService.getStats();
   }
 
+  /** Version of a single loan, derived from its updatedAt (createdAt if never updated) */
   @Transactional(readOnly = true)
-  public List<LoanResponse> getAllLoans() {
-    return loanRepository.findAll().stream()
-        .map(
-            loan -> {
-              populateLoanDetails(loan);
-              return LoanResponse.fromEntity(loan);
-            })
-        .collect(Collectors.toList());
+  public ResourceVersion getLoanVersion(Long loanId) {
+    long lastModified =
+        toEpochMillis(
+            loanRepository
+                .findLastModifiedById(loanId)
+                .orElseThrow(() -> new RuntimeException("Loan not found")));
+    return new ResourceVersion("loan-" + loanId + "-" + lastModified, lastModified);
+  }
+
+  private long toEpochMillis(LocalDateTime time) {
+    return time == null ? 0L : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
   }
 
   @Transactional(readOnly = true)
@@ -0,0 +1,121 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.repository.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * State machine status loan. Transisi yang diizinkan didefinisikan di tabel {@link #TRANSITIONS}
+ * dan setiap transisi dijalankan sebagai satu UPDATE ... WHERE id = ? AND status = ?, sehingga dari
+ * dua staff yang memproses loan yang sama bersamaan hanya satu yang menang. Hasilnya dicatat di
+ * metric {@code loan.transitions} (tag outcome=applied/conflict) untuk memantau contention antrian.
+ */
+@Service
+public class LoanStateMachine {
+
+  private static final Map<LoanStatus, Set<LoanStatus>> TRANSITIONS =
+      new EnumMap<>(LoanStatus.class);
+
+  static {
+    TRANSITIONS.put(LoanStatus.SUBMITTED, EnumSet.of(LoanStatus.UNDER_REVIEW, LoanStatus.REJECTED));
+    TRANSITIONS.put(LoanStatus.UNDER_REVIEW, EnumSet.of(LoanStatus.APPROVED, LoanStatus.REJECTED));
+    TRANSITIONS.put(LoanStatus.APPROVED, EnumSet.of(LoanStatus.DISBURSED));
+    TRANSITIONS.put(LoanStatus.DISBURSED, EnumSet.of(LoanStatus.CLOSED));
+  }
+
+  private final LoanRepository loanRepository;
+  private final LoanStatsService loanStatsService;
+  private final MeterRegistry meterRegistry;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  public LoanStateMachine(
+      LoanRepository loanRepository,
+      LoanStatsService loanStatsService,
+      MeterRegistry meterRegistry) {
+    this.loanRepository = loanRepository;
+    this.loanStatsService = loanStatsService;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public boolean canTransition(LoanStatus from, LoanStatus to) {
+    return TRANSITIONS.getOrDefault(from, Set.of()).contains(to);
+  }
+
+  /**
+   * Pindahkan satu loan dari status {@code from} ke {@code to}. Melempar exception bila loan tidak
+   * ada atau statusnya sudah berubah (kalah dari proses lain); bila menang, loan dikembalikan
+   * dengan status baru.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Loan transition(Long loanId, LoanStatus from, LoanStatus to) {
+    requireAllowed(from, to);
+
+    int updated = loanRepository.compareAndSetStatus(loanId, from, to, LocalDateTime.now());
+    if (updated == 0) {
+      if (loanRepository.findStatusById(loanId).isEmpty()) {
+        throw new RuntimeException("Loan not found");
+      }
+      outcomeCounter(from, to, "conflict").increment();
+      throw new RuntimeException("Loan is not in " + from + " status");
+    }
+    outcomeCounter(from, to, "applied").increment();
+    loanStatsService.recordTransition(from, to);
+
+    Loan loan =
+        loanRepository.findById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
+    if (loan.getStatus() != to) {
+      // Loan was already in the persistence context before the UPDATE
+      entityManager.refresh(loan);
+    }
+    return loan;
+  }
+
+  /**
+   * Varian bulk: satu UPDATE untuk semua id. Mengembalikan jumlah loan yang berpindah; sisanya
+   * dihitung sebagai conflict.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public int transitionAll(
+      Collection<Long> loanIds, LoanStatus from, LoanStatus to, LocalDateTime now) {
+    requireAllowed(from, to);
+
+    int updated = loanRepository.transitionStatus(loanIds, from, to, now);
+    if (updated > 0) {
+      outcomeCounter(from, to, "applied").increment(updated);
+      loanStatsService.recordTransitions(from, to, updated);
+    }
+    if (updated < loanIds.size()) {
+      outcomeCounter(from, to, "conflict").increment(loanIds.size() - updated);
+    }
+    return updated;
+  }
+
+  private void requireAllowed(LoanStatus from, LoanStatus to) {
+    if (!canTransition(from, to)) {
+      throw new RuntimeException("Invalid loan status transition: " + from + " -> " + to);
+    }
+  }
+
+  private Counter outcomeCounter(LoanStatus from, LoanStatus to, String outcome) {
+    return Counter.builder("loan.transitions")
+        .description("Loan status transitions by outcome")
+        .tag("from", from.name())
+        .tag("to", to.name())
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
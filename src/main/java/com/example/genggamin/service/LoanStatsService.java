@@ -0,0 +1,178 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.dto.LoanStatsResponse;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.repository.LoanStatusCounterRepository;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service untuk counter jumlah loan per status (tabel loan_status_counters). LoanService memanggil
+ * record* di dalam transaksinya, sehingga counter ikut rollback bila transisi gagal. Selisih yang
+ * tetap muncul (mis. update langsung ke database) dikoreksi oleh {@link #reconcile()}.
+ */
+@Service
+public class LoanStatsService {
+
+  private static final Logger logger = LoggerFactory.getLogger(LoanStatsService.class);
+
+  private static final String RECONCILE_LOCK_KEY = "loan-stats:reconcile:lock";
+
+  // Lock is not released: it only has to outlive one run so other nodes skip this tick
+  private static final Duration RECONCILE_LOCK_TTL = Duration.ofMinutes(5);
+
+  private static final String SEED_SQL =
+      "INSERT INTO loan_status_counters (status, loan_count, updated_at) SELECT ?, 0, ? "
+          + "WHERE NOT EXISTS (SELECT 1 FROM loan_status_counters WITH (UPDLOCK, HOLDLOCK) "
+          + "WHERE status = ?)";
+
+  private static final String COUNT_LOCKED_SQL =
+      "SELECT status, COUNT(*) AS total FROM loans WITH (TABLOCK, HOLDLOCK) GROUP BY status";
+
+  private final LoanStatusCounterRepository counterRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final String nodeId = UUID.randomUUID().toString();
+
+  public LoanStatsService(
+      LoanStatusCounterRepository counterRepository,
+      JdbcTemplate jdbcTemplate,
+      StringRedisTemplate stringRedisTemplate,
+      PlatformTransactionManager transactionManager) {
+    this.counterRepository = counterRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Transactional
+  public void recordSubmission(LoanStatus status) {
+    addToCount(status, 1);
+  }
+
+  @Transactional
+  public void recordTransition(LoanStatus from, LoanStatus to) {
+    recordTransitions(from, to, 1);
+  }
+
+  /** Catat sejumlah transisi from -> to sekaligus (bulk action) */
+  @Transactional
+  public void recordTransitions(LoanStatus from, LoanStatus to, long count) {
+    if (from == to || count == 0) {
+      return;
+    }
+    addToCount(from, -count);
+    addToCount(to, count);
+  }
+
+  @Transactional(readOnly = true)
+  public LoanStatsResponse getStats() {
+    Map<LoanStatus, Long> counts = new EnumMap<>(LoanStatus.class);
+    for (LoanStatus status : LoanStatus.values()) {
+      counts.put(status, 0L);
+    }
+    counterRepository
+        .findAll()
+        .forEach(counter -> counts.put(counter.getStatus(), Math.max(0, counter.getCount())));
+
+    long total = counts.values().stream().mapToLong(Long::longValue).sum();
+    return LoanStatsResponse.builder().counts(counts).total(total).build();
+  }
+
+  /**
+   * Seed baris counter yang belum ada, lalu rekonsiliasi. Seed memakai insert-if-not-exists dengan
+   * UPDLOCK/HOLDLOCK, sehingga beberapa node yang start bersamaan tidak saling menabrak primary
+   * key.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void initializeCounters() {
+    LocalDateTime now = LocalDateTime.now();
+    for (LoanStatus status : LoanStatus.values()) {
+      jdbcTemplate.update(SEED_SQL, status.name(), Timestamp.valueOf(now), status.name());
+    }
+    reconcile();
+  }
+
+  /**
+   * Rekonsiliasi counter terhadap COUNT(*) GROUP BY status, setiap 15 menit di satu node saja (lock
+   * Redis SET NX; bila Redis tidak tersedia tetap dijalankan, karena aman secara database).
+   */
+  @Scheduled(cron = "0 */15 * * * ?")
+  public void reconcile() {
+    if (!acquireReconcileLock()) {
+      logger.debug("Loan status counter reconciliation is running on another node");
+      return;
+    }
+    transactionTemplate.executeWithoutResult(status -> reconcileLocked());
+  }
+
+  /**
+   * COUNT(*) dibaca dengan shared table lock yang ditahan sampai commit. Setiap perubahan counter
+   * didahului perubahan baris loans di transaksi yang sama, jadi selama lock dipegang counter tidak
+   * bisa berubah dan nilai absolut yang ditulis tidak menimpa increment yang sedang berjalan.
+   * Urutan lock (loans lalu counter) sama dengan transisi loan, sehingga tidak terjadi deadlock.
+   */
+  private void reconcileLocked() {
+    Map<LoanStatus, Long> actual = new EnumMap<>(LoanStatus.class);
+    for (LoanStatus status : LoanStatus.values()) {
+      actual.put(status, 0L);
+    }
+    jdbcTemplate.query(
+        COUNT_LOCKED_SQL,
+        (RowCallbackHandler)
+            rs -> actual.put(LoanStatus.valueOf(rs.getString("status")), rs.getLong("total")));
+
+    Map<LoanStatus, Long> counters = new EnumMap<>(LoanStatus.class);
+    counterRepository
+        .findAll()
+        .forEach(counter -> counters.put(counter.getStatus(), counter.getCount()));
+
+    LocalDateTime now = LocalDateTime.now();
+    actual.forEach(
+        (status, count) -> {
+          Long counted = counters.get(status);
+          if (counted == null) {
+            logger.warn("No counter row for status {}; it is seeded on startup", status);
+          } else if (counted != count.longValue()) {
+            logger.warn(
+                "Loan status counter drift for {}: counter={}, actual={}", status, counted, count);
+            counterRepository.setCount(status, count, now);
+          }
+        });
+  }
+
+  private boolean acquireReconcileLock() {
+    try {
+      return Boolean.TRUE.equals(
+          stringRedisTemplate
+              .opsForValue()
+              .setIfAbsent(RECONCILE_LOCK_KEY, nodeId, RECONCILE_LOCK_TTL));
+    } catch (Exception e) {
+      logger.warn("Reconcile lock unavailable, reconciling anyway: {}", e.getMessage());
+      return true;
+    }
+  }
+
+  private void addToCount(LoanStatus status, long delta) {
+    if (counterRepository.addToCount(status, delta, LocalDateTime.now()) == 0) {
+      logger.warn("No counter row for status {}; it will be fixed on reconciliation", status);
+    }
+  }
+}
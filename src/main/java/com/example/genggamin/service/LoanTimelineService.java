@@ -0,0 +1,220 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.LoanApproval;
+import com.example.genggamin.entity.LoanDisbursement;
+import com.example.genggamin.entity.LoanReview;
+import com.example.genggamin.entity.LoanTimeline;
+import com.example.genggamin.repository.LoanApprovalRepository;
+import com.example.genggamin.repository.LoanDisbursementRepository;
+import com.example.genggamin.repository.LoanReviewRepository;
+import com.example.genggamin.repository.LoanTimelineRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service untuk memelihara read model loan_timeline. Semua method record* dipanggil dari dalam
+ * transaksi LoanService sehingga timeline selalu konsisten dengan status loan. Loan yang dibuat
+ * sebelum loan_timeline ada mendapat barisnya saat transisi berikutnya, diisi dulu dari
+ * loan_reviews, loan_approvals dan loan_disbursements supaya tahap sebelumnya tidak hilang.
+ */
+@Service
+@Transactional
+public class LoanTimelineService {
+
+  private final LoanTimelineRepository loanTimelineRepository;
+  private final LoanReviewRepository loanReviewRepository;
+  private final LoanApprovalRepository loanApprovalRepository;
+  private final LoanDisbursementRepository loanDisbursementRepository;
+  private final StaffDirectoryService staffDirectoryService;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  public LoanTimelineService(
+      LoanTimelineRepository loanTimelineRepository,
+      LoanReviewRepository loanReviewRepository,
+      LoanApprovalRepository loanApprovalRepository,
+      LoanDisbursementRepository loanDisbursementRepository,
+      StaffDirectoryService staffDirectoryService) {
+    this.loanTimelineRepository = loanTimelineRepository;
+    this.loanReviewRepository = loanReviewRepository;
+    this.loanApprovalRepository = loanApprovalRepository;
+    this.loanDisbursementRepository = loanDisbursementRepository;
+    this.staffDirectoryService = staffDirectoryService;
+  }
+
+  /**
+   * Loan yang baru dibuat belum punya baris timeline maupun tahap sebelumnya, jadi baris langsung
+   * di-persist tanpa lookup dan backfill (save() dengan id yang sudah diisi akan SELECT dulu).
+   */
+  public void recordSubmission(Loan loan) {
+    entityManager.persist(
+        LoanTimeline.builder()
+            .loanId(loan.getId())
+            .status(loan.getStatus())
+            .updatedAt(loan.getSubmittedAt())
+            .build());
+  }
+
+  public void recordReview(Loan loan, String reviewedBy, LocalDateTime reviewedAt, String notes) {
+    LoanTimeline timeline = getOrCreate(loan);
+    timeline.setStatus(loan.getStatus());
+    timeline.setReviewedBy(reviewedBy);
+    timeline.setReviewedAt(reviewedAt);
+    timeline.setReviewNotes(notes);
+    timeline.setUpdatedAt(loan.getUpdatedAt());
+    loanTimelineRepository.save(timeline);
+  }
+
+  public void recordApproval(Loan loan, String approvedBy, LocalDateTime approvedAt, String notes) {
+    LoanTimeline timeline = getOrCreate(loan);
+    timeline.setStatus(loan.getStatus());
+    timeline.setApprovedBy(approvedBy);
+    timeline.setApprovedAt(approvedAt);
+    timeline.setApprovalNotes(notes);
+    timeline.setUpdatedAt(loan.getUpdatedAt());
+    loanTimelineRepository.save(timeline);
+  }
+
+  public void recordDisbursement(
+      Loan loan, String disbursedBy, LocalDateTime disbursedAt, String notes) {
+    LoanTimeline timeline = getOrCreate(loan);
+    timeline.setStatus(loan.getStatus());
+    timeline.setDisbursedBy(disbursedBy);
+    timeline.setDisbursedAt(disbursedAt);
+    timeline.setDisbursementNotes(notes);
+    timeline.setUpdatedAt(loan.getUpdatedAt());
+    loanTimelineRepository.save(timeline);
+  }
+
+  /**
+   * Batch version of the record* methods for bulk actions. Existing rows are read with one
+   * primary-key lookup; {@code stage} fills in the stage-specific columns per loan.
+   */
+  public void recordAll(List<Loan> loans, BiConsumer<Loan, LoanTimeline> stage) {
+    Map<Long, LoanTimeline> existing =
+        loanTimelineRepository
+            .findAllById(loans.stream().map(Loan::getId).collect(Collectors.toList()))
+            .stream()
+            .collect(
+                Collectors.toMap(
+                    LoanTimeline::getLoanId, Function.identity(), (a, b) -> a, HashMap::new));
+    List<Long> missing =
+        loans.stream().map(Loan::getId).filter(id -> !existing.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      existing.putAll(backfill(missing));
+    }
+
+    List<LoanTimeline> timelines = new ArrayList<>();
+    for (Loan loan : loans) {
+      LoanTimeline timeline = existing.get(loan.getId());
+      timeline.setStatus(loan.getStatus());
+      timeline.setUpdatedAt(loan.getUpdatedAt());
+      stage.accept(loan, timeline);
+      timelines.add(timeline);
+    }
+    loanTimelineRepository.saveAll(timelines);
+  }
+
+  /**
+   * Copy timeline data into the Loan @Transient fields with a single primary-key lookup.
+   *
+   * @return loans that have no timeline row yet (created before loan_timeline existed)
+   */
+  @Transactional(readOnly = true)
+  public List<Loan> applyTo(List<Loan> loans) {
+    Map<Long, LoanTimeline> timelines =
+        loanTimelineRepository
+            .findAllById(loans.stream().map(Loan::getId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(LoanTimeline::getLoanId, Function.identity()));
+
+    List<Loan> missing = new ArrayList<>();
+    for (Loan loan : loans) {
+      LoanTimeline timeline = timelines.get(loan.getId());
+      if (timeline == null) {
+        missing.add(loan);
+        continue;
+      }
+      loan.setReviewedBy(timeline.getReviewedBy());
+      loan.setReviewedAt(timeline.getReviewedAt());
+      loan.setReviewNotes(timeline.getReviewNotes());
+      loan.setApprovedBy(timeline.getApprovedBy());
+      loan.setApprovedAt(timeline.getApprovedAt());
+      loan.setApprovalNotes(timeline.getApprovalNotes());
+      loan.setDisbursedBy(timeline.getDisbursedBy());
+      loan.setDisbursedAt(timeline.getDisbursedAt());
+      loan.setDisbursementNotes(timeline.getDisbursementNotes());
+    }
+    return missing;
+  }
+
+  private LoanTimeline getOrCreate(Loan loan) {
+    return loanTimelineRepository
+        .findById(loan.getId())
+        .orElseGet(() -> backfill(List.of(loan.getId())).get(loan.getId()));
+  }
+
+  /**
+   * Baris timeline baru untuk loan yang belum punya, dengan tahap yang sudah terjadi disalin dari
+   * tabel sumbernya (satu query per tabel). Catatan pencairan tidak disimpan di loan_disbursements,
+   * jadi tetap kosong.
+   */
+  private Map<Long, LoanTimeline> backfill(List<Long> loanIds) {
+    Map<Long, LoanReview> reviews =
+        loanReviewRepository.findByLoanIdIn(loanIds).stream()
+            .collect(Collectors.toMap(LoanReview::getLoanId, Function.identity()));
+    Map<Long, LoanApproval> approvals =
+        loanApprovalRepository.findByLoanIdIn(loanIds).stream()
+            .collect(Collectors.toMap(LoanApproval::getLoanId, Function.identity()));
+    Map<Long, LoanDisbursement> disbursements =
+        loanDisbursementRepository.findByLoanIdIn(loanIds).stream()
+            .collect(Collectors.toMap(LoanDisbursement::getLoanId, Function.identity()));
+
+    Set<Long> actorIds = new HashSet<>();
+    reviews.values().forEach(review -> actorIds.add(review.getReviewedBy()));
+    approvals.values().forEach(approval -> actorIds.add(approval.getApprovedBy()));
+    disbursements.values().forEach(disbursement -> actorIds.add(disbursement.getDisbursedBy()));
+    Map<Long, String> usernames =
+        actorIds.isEmpty() ? Map.of() : staffDirectoryService.usernamesFor(actorIds);
+
+    Map<Long, LoanTimeline> timelines = new HashMap<>();
+    for (Long loanId : loanIds) {
+      LoanTimeline timeline = LoanTimeline.builder().loanId(loanId).build();
+
+      LoanReview review = reviews.get(loanId);
+      if (review != null) {
+        timeline.setReviewedBy(usernames.get(review.getReviewedBy()));
+        timeline.setReviewedAt(review.getReviewedAt());
+        timeline.setReviewNotes(review.getReviewNotes());
+      }
+
+      LoanApproval approval = approvals.get(loanId);
+      if (approval != null) {
+        timeline.setApprovedBy(usernames.get(approval.getApprovedBy()));
+        timeline.setApprovedAt(approval.getApprovedAt());
+        timeline.setApprovalNotes(approval.getApprovalNotes());
+      }
+
+      LoanDisbursement disbursement = disbursements.get(loanId);
+      if (disbursement != null) {
+        timeline.setDisbursedBy(usernames.get(disbursement.getDisbursedBy()));
+        timeline.setDisbursedAt(disbursement.getDisbursementDate());
+      }
+      timelines.put(loanId, timeline);
+    }
+    return timelines;
+  }
+}
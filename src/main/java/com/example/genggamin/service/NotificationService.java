@@ -30,7 +30,11 @@ public class NotificationService {
     log.info("[EMAIL] To UserID: {}, Title: {}", user.getId(), title);
   }
 
-  // Simulate Push Notification Service (Firebase/OneSignal)
+  /**
+   * Simulate Push Notification Service (Firebase/OneSignal). Push bersifat best-effort: error FCM
+   * hanya di-log dan tidak dilempar, sehingga retry outbox tidak mengirim ulang push. Baris in-app
+   * tetap menjadi catatan notifikasi yang bisa dibaca user.
+   */
   private void sendPushNotification(User user, String title, String message) {
     if (user.getFcmToken() == null || user.getFcmToken().isEmpty()) {
       log.warn("User {} has no FCM token, skipping push notification", user.getUsername());
@@ -60,15 +64,82 @@ public class NotificationService {
    */
   @Transactional
   public void sendNotification(User user, NotificationType type, Loan loan) {
+    sendNotification(user, type, loan, null);
+  }
+
+  /**
+   * Variant untuk handler outbox: notifikasi yang sudah tersimpan untuk event yang sama dilewati,
+   * sehingga handler aman dipanggil ulang oleh relay.
+   */
+  @Transactional
+  public void sendNotification(User user, NotificationType type, Loan loan, Long outboxEventId) {
     if (user == null) {
       log.warn("Cannot send notification to null user");
       return;
     }
 
-    List<NotificationChannel> channels = determineChannels(type);
-    String title = generateTitle(type);
-    String message = generateMessage(type, loan);
+    deliver(user, type, generateTitle(type), generateMessage(type, loan), loan, outboxEventId);
+  }
+
+  /**
+   * Coalesced variant of {@link #sendNotification} for bulk actions: one notification per user
+   * covering all loans instead of one per loan.
+   */
+  @Transactional
+  public void sendSummaryNotification(User user, NotificationType type, List<Loan> loans) {
+    sendSummaryNotification(user, type, loans, null);
+  }
+
+  /**
+   * Variant untuk handler outbox, lihat {@link #sendNotification(User, NotificationType, Loan,
+   * Long)}
+   */
+  @Transactional
+  public void sendSummaryNotification(
+      User user, NotificationType type, List<Loan> loans, Long outboxEventId) {
+    if (loans.isEmpty()) {
+      return;
+    }
+    if (loans.size() == 1) {
+      sendNotification(user, type, loans.get(0), outboxEventId);
+      return;
+    }
+    if (user == null) {
+      log.warn("Cannot send notification to null user");
+      return;
+    }
 
+    deliver(
+        user, type, generateTitle(type), generateSummaryMessage(type, loans), null, outboxEventId);
+  }
+
+  /**
+   * Kirim ke semua channel untuk type ini. Baris in-app disimpan lebih dulu: untuk event outbox
+   * baris itu adalah penanda bahwa notifikasi sudah terkirim, dan unique index-nya menolak duplikat
+   * sebelum email/push dikirim.
+   */
+  private void deliver(
+      User user,
+      NotificationType type,
+      String title,
+      String message,
+      Loan loan,
+      Long outboxEventId) {
+    if (outboxEventId != null
+        && notificationRepository.existsDelivery(
+            outboxEventId, user.getId(), type, loan != null ? loan.getId() : null)) {
+      log.info(
+          "Notification {} for UserID {} already sent for outbox event {}, skipping",
+          type,
+          user.getId(),
+          outboxEventId);
+      return;
+    }
+
+    List<NotificationChannel> channels = determineChannels(type);
+    if (channels.contains(NotificationChannel.IN_APP)) {
+      saveInAppNotification(user, type, title, message, loan, outboxEventId);
+    }
     for (NotificationChannel channel : channels) {
       switch (channel) {
         case EMAIL:
@@ -78,14 +149,18 @@ public class NotificationService {
           sendPushNotification(user, title, message);
           break;
         case IN_APP:
-          saveInAppNotification(user, type, title, message, loan);
           break;
       }
     }
   }
 
   private void saveInAppNotification(
-      User user, NotificationType type, String title, String message, Loan loan) {
+      User user,
+      NotificationType type,
+      String title,
+      String message,
+      Loan loan,
+      Long outboxEventId) {
     Notification notification =
         Notification.builder()
             .user(user)
@@ -94,9 +169,10 @@ public class NotificationService {
             .channel(NotificationChannel.IN_APP)
             .title(title)
             .message(message)
+            .outboxEventId(outboxEventId)
             .isRead(false)
             .build();
-    notificationRepository.save(notification);
+    notificationRepository.saveAndFlush(notification);
     log.info("[IN-APP] Saved notification for UserID: {}", user.getId());
   }
 
@@ -197,6 +273,20 @@ public class NotificationService {
     };
   }
 
+  private String generateSummaryMessage(NotificationType type, List<Loan> loans) {
+    StringBuilder ids = new StringBuilder();
+    for (Loan loan : loans) {
+      if (ids.length() > 0) {
+        ids.append(", ");
+      }
+      ids.append(loan.getId());
+    }
+    String message =
+        generateMessage(type, null) + " (" + loans.size() + " pinjaman, ID: " + ids + ")";
+    // Kolom message dibatasi 500 karakter
+    return message.length() > 500 ? message.substring(0, 497) + "..." : message;
+  }
+
   // --- API for Controller ---
 
   public Page<NotificationResponse> getUserNotifications(User user, Pageable pageable) {
@@ -236,6 +326,11 @@ public class NotificationService {
         user.getId(), NotificationChannel.IN_APP);
   }
 
+  /** Jumlah unread beserta id notifikasi unread terbaru, tanpa load entity User */
+  public NotificationRepository.UnreadSummary getUnreadSummary(String username) {
+    return notificationRepository.findUnreadSummary(username, NotificationChannel.IN_APP);
+  }
+
   private NotificationResponse mapToResponse(Notification n) {
     return NotificationResponse.builder()
         .id(n.getId())
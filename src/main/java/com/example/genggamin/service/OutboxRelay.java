@@ -0,0 +1,265 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.config.AsyncConfig;
+import com.example.genggamin.entity.OutboxEvent.OutboxStatus;
+import com.example.genggamin.event.LoanEventHandler;
+import com.example.genggamin.event.LoanTransitionEvent;
+import com.example.genggamin.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Mengirim event dari tabel outbox ke {@link LoanEventHandler}. Baris di-claim per batch dengan
+ * UPDLOCK/READPAST, sehingga beberapa instance aplikasi bisa menguras outbox bersamaan tanpa saling
+ * menunggu atau mengirim baris yang sama. Claim menggeser available_at sebagai lease: bila instance
+ * mati di tengah pengiriman, baris akan diambil lagi setelah lease habis.
+ */
+@Service
+public class OutboxRelay {
+
+  private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+  static final int MAX_ATTEMPTS = 10;
+  private static final int MAX_BATCHES_PER_DRAIN = 20;
+  private static final long MAX_BACKOFF_SECONDS = 3600;
+
+  // Claim the oldest available rows; locked rows are skipped (READPAST) instead of waited on
+  private static final String CLAIM_SQL =
+      "WITH batch AS ("
+          + "SELECT TOP (?) id, destination, payload, attempts, available_at, created_at "
+          + "FROM outbox WITH (UPDLOCK, READPAST, ROWLOCK) "
+          + "WHERE status = 'PENDING' AND available_at <= ? ORDER BY id) "
+          + "UPDATE batch SET attempts = attempts + 1, available_at = ? "
+          + "OUTPUT inserted.id, inserted.destination, inserted.payload, inserted.attempts, "
+          + "inserted.created_at";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final OutboxEventRepository outboxEventRepository;
+  private final ObjectMapper objectMapper;
+  private final Map<String, LoanEventHandler> handlers;
+  private final Executor executor;
+  private final MeterRegistry meterRegistry;
+
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private final AtomicBoolean drainRequested = new AtomicBoolean();
+  private final AtomicLong pendingCount = new AtomicLong();
+  private final AtomicLong oldestPendingSeconds = new AtomicLong();
+
+  @Value("${app.outbox.batch-size:50}")
+  private int batchSize;
+
+  @Value("${app.outbox.lease-seconds:60}")
+  private long leaseSeconds;
+
+  /** Baris outbox yang sudah di-claim oleh instance ini */
+  private record ClaimedEvent(
+      Long id, String destination, String payload, int attempts, LocalDateTime createdAt) {}
+
+  public OutboxRelay(
+      JdbcTemplate jdbcTemplate,
+      OutboxEventRepository outboxEventRepository,
+      ObjectMapper objectMapper,
+      List<LoanEventHandler> handlers,
+      @Qualifier(AsyncConfig.LOAN_EVENT_EXECUTOR) Executor executor,
+      MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.outboxEventRepository = outboxEventRepository;
+    this.objectMapper = objectMapper;
+    this.handlers =
+        handlers.stream()
+            .collect(Collectors.toMap(LoanEventHandler::destination, Function.identity()));
+    this.executor = executor;
+    this.meterRegistry = meterRegistry;
+
+    Gauge.builder("outbox.pending", pendingCount, AtomicLong::get)
+        .description("Outbox events waiting to be dispatched")
+        .register(meterRegistry);
+    Gauge.builder("outbox.lag.seconds", oldestPendingSeconds, AtomicLong::get)
+        .description("Age of the oldest pending outbox event")
+        .register(meterRegistry);
+  }
+
+  /** Fallback bila wake-up setelah commit terlewat, dan untuk retry yang sudah lewat backoff */
+  @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:2000}")
+  public void poll() {
+    refreshBacklogMetrics();
+    drain();
+  }
+
+  /** Dipanggil setelah commit; beberapa permintaan yang berdekatan digabung menjadi satu drain */
+  public void requestDrain() {
+    drainRequested.set(true);
+    if (!draining.get()) {
+      executor.execute(this::drain);
+    }
+  }
+
+  public void drain() {
+    // One drainer per instance; a request arriving meanwhile makes it loop once more
+    if (!draining.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      do {
+        drainRequested.set(false);
+        for (int i = 0; i < MAX_BATCHES_PER_DRAIN; i++) {
+          if (processBatch() < batchSize) {
+            break;
+          }
+        }
+      } while (drainRequested.get());
+    } catch (Exception e) {
+      logger.error("Outbox relay failed: {}", e.getMessage());
+    } finally {
+      draining.set(false);
+    }
+  }
+
+  /** Claim satu batch, kirim paralel di executor, lalu tandai hasilnya. */
+  private int processBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    List<ClaimedEvent> claimed =
+        jdbcTemplate.query(
+            CLAIM_SQL,
+            (rs, rowNum) ->
+                new ClaimedEvent(
+                    rs.getLong("id"),
+                    rs.getString("destination"),
+                    rs.getString("payload"),
+                    rs.getInt("attempts"),
+                    rs.getTimestamp("created_at").toLocalDateTime()),
+            batchSize,
+            Timestamp.valueOf(now),
+            Timestamp.valueOf(now.plusSeconds(leaseSeconds)));
+    if (claimed.isEmpty()) {
+      return 0;
+    }
+
+    ConcurrentLinkedQueue<ClaimedEvent> processed = new ConcurrentLinkedQueue<>();
+    CompletableFuture.allOf(
+            claimed.stream()
+                .map(
+                    event ->
+                        CompletableFuture.runAsync(
+                            () -> {
+                              if (dispatch(event)) {
+                                processed.add(event);
+                              }
+                            },
+                            executor))
+                .toArray(CompletableFuture[]::new))
+        .join();
+
+    markProcessed(List.copyOf(processed));
+    return claimed.size();
+  }
+
+  private boolean dispatch(ClaimedEvent event) {
+    LoanEventHandler handler = handlers.get(event.destination());
+    try {
+      if (handler == null) {
+        throw new IllegalStateException("No handler for destination " + event.destination());
+      }
+      LoanTransitionEvent payload =
+          objectMapper.readValue(event.payload(), LoanTransitionEvent.class);
+      Timer.builder("outbox.relay.handler")
+          .description("Time spent dispatching one outbox event")
+          .tag("destination", event.destination())
+          .register(meterRegistry)
+          .record(() -> handler.handle(event.id(), payload));
+      return true;
+    } catch (Exception e) {
+      markFailed(event, e);
+      return false;
+    }
+  }
+
+  private void markProcessed(List<ClaimedEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    jdbcTemplate.batchUpdate(
+        "UPDATE outbox SET status = 'PROCESSED', processed_at = ?, last_error = NULL WHERE id = ?",
+        events,
+        events.size(),
+        (ps, event) -> {
+          ps.setTimestamp(1, Timestamp.valueOf(now));
+          ps.setLong(2, event.id());
+        });
+
+    for (ClaimedEvent event : events) {
+      outcomeCounter(event.destination(), "processed").increment();
+      Timer.builder("outbox.relay.lag")
+          .description("Time from commit to successful dispatch")
+          .tag("destination", event.destination())
+          .register(meterRegistry)
+          .record(Duration.between(event.createdAt(), now));
+    }
+  }
+
+  /** Retry dengan exponential backoff; setelah MAX_ATTEMPTS event ditandai FAILED (bisa replay) */
+  private void markFailed(ClaimedEvent event, Exception e) {
+    boolean exhausted = event.attempts() >= MAX_ATTEMPTS;
+    long backoffSeconds = Math.min(MAX_BACKOFF_SECONDS, 5L << Math.min(event.attempts(), 20));
+    String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+
+    jdbcTemplate.update(
+        "UPDATE outbox SET status = ?, available_at = ?, last_error = ? WHERE id = ?",
+        (exhausted ? OutboxStatus.FAILED : OutboxStatus.PENDING).name(),
+        Timestamp.valueOf(LocalDateTime.now().plusSeconds(backoffSeconds)),
+        error.length() > 1000 ? error.substring(0, 1000) : error,
+        event.id());
+
+    outcomeCounter(event.destination(), exhausted ? "failed" : "retry").increment();
+    logger.error(
+        "Outbox event {} to {} failed (attempt {}): {}",
+        event.id(),
+        event.destination(),
+        event.attempts(),
+        error);
+  }
+
+  private Counter outcomeCounter(String destination, String outcome) {
+    return Counter.builder("outbox.relay.events")
+        .description("Outbox events dispatched by the relay")
+        .tag("destination", destination)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  private void refreshBacklogMetrics() {
+    try {
+      pendingCount.set(outboxEventRepository.countByStatus(OutboxStatus.PENDING));
+      oldestPendingSeconds.set(
+          outboxEventRepository
+              .findOldestCreatedAtByStatus(OutboxStatus.PENDING)
+              .map(oldest -> Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()))
+              .orElse(0L));
+    } catch (Exception e) {
+      logger.warn("Failed to refresh outbox metrics: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.dto.OutboxReplayRequest;
+import com.example.genggamin.entity.OutboxEvent.OutboxStatus;
+import com.example.genggamin.event.LoanEventHandler;
+import com.example.genggamin.event.LoanTransitionEvent;
+import com.example.genggamin.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Menulis event loan ke tabel outbox di dalam transaksi pemanggil, satu baris per destination.
+ * Pengiriman dilakukan oleh {@link OutboxRelay}; setelah commit relay langsung dibangunkan supaya
+ * notifikasi tidak menunggu interval polling.
+ */
+@Service
+public class OutboxService {
+
+  private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+  public static final String LOAN_TRANSITION = "LOAN_TRANSITION";
+  private static final int JDBC_BATCH_SIZE = 50;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final OutboxEventRepository outboxEventRepository;
+  private final ObjectMapper objectMapper;
+  private final List<LoanEventHandler> handlers;
+  private final OutboxRelay outboxRelay;
+
+  @Value("${app.outbox.retention-days:7}")
+  private int retentionDays;
+
+  public OutboxService(
+      JdbcTemplate jdbcTemplate,
+      OutboxEventRepository outboxEventRepository,
+      ObjectMapper objectMapper,
+      List<LoanEventHandler> handlers,
+      OutboxRelay outboxRelay) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.outboxEventRepository = outboxEventRepository;
+    this.objectMapper = objectMapper;
+    this.handlers = handlers;
+    this.outboxRelay = outboxRelay;
+  }
+
+  /** Harus dipanggil di dalam transaksi yang sama dengan perubahan status loan */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void append(LoanTransitionEvent event) {
+    LocalDateTime now = LocalDateTime.now();
+    List<Object[]> rows = new ArrayList<>();
+    for (LoanEventHandler handler : handlers) {
+      if (!handler.isEnabled()) {
+        continue;
+      }
+      List<LoanTransitionEvent> parts = handler.isPerLoan() ? event.perLoan() : List.of(event);
+      for (LoanTransitionEvent part : parts) {
+        rows.add(
+            new Object[] {
+              LOAN_TRANSITION,
+              handler.destination(),
+              toJson(part),
+              OutboxStatus.PENDING.name(),
+              Timestamp.valueOf(now),
+              Timestamp.valueOf(now)
+            });
+      }
+    }
+    if (rows.isEmpty()) {
+      return;
+    }
+
+    for (int from = 0; from < rows.size(); from += JDBC_BATCH_SIZE) {
+      jdbcTemplate.batchUpdate(
+          "INSERT INTO outbox (event_type, destination, payload, status, attempts, "
+              + "available_at, created_at) VALUES (?, ?, ?, ?, 0, ?, ?)",
+          rows.subList(from, Math.min(from + JDBC_BATCH_SIZE, rows.size())));
+    }
+    drainAfterCommit();
+  }
+
+  /**
+   * Kirim ulang event dalam rentang created_at [from, to). Default-nya event yang sudah PROCESSED
+   * maupun FAILED; failedOnly membatasi ke event yang sudah menyerah setelah retry maksimum.
+   */
+  @Transactional
+  public int replay(OutboxReplayRequest request) {
+    if (request.getFrom() == null || request.getTo() == null) {
+      throw new RuntimeException("from and to are required");
+    }
+    if (!request.getFrom().isBefore(request.getTo())) {
+      throw new RuntimeException("from must be before to");
+    }
+    List<OutboxStatus> statuses =
+        Boolean.TRUE.equals(request.getFailedOnly())
+            ? List.of(OutboxStatus.FAILED)
+            : List.of(OutboxStatus.PROCESSED, OutboxStatus.FAILED);
+    String destination =
+        request.getDestination() == null || request.getDestination().isBlank()
+            ? null
+            : request.getDestination().trim();
+
+    int replayed =
+        outboxEventRepository.replay(
+            request.getFrom(),
+            request.getTo(),
+            statuses,
+            destination,
+            OutboxStatus.PENDING,
+            LocalDateTime.now());
+    logger.info(
+        "Replaying {} outbox events between {} and {} (destination: {})",
+        replayed,
+        request.getFrom(),
+        request.getTo(),
+        destination == null ? "all" : destination);
+    drainAfterCommit();
+    return replayed;
+  }
+
+  /** Hapus event yang sudah terkirim setelah masa retensi (masih bisa di-replay sebelumnya) */
+  @Scheduled(cron = "0 30 2 * * ?")
+  @Transactional
+  public void purgeProcessed() {
+    int deleted =
+        outboxEventRepository.deleteByStatusAndProcessedAtBefore(
+            OutboxStatus.PROCESSED, LocalDateTime.now().minusDays(retentionDays));
+    if (deleted > 0) {
+      logger.info("Purged {} processed outbox events older than {} days", deleted, retentionDays);
+    }
+  }
+
+  private void drainAfterCommit() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      outboxRelay.requestDrain();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            outboxRelay.requestDrain();
+          }
+        });
+  }
+
+  private String toJson(LoanTransitionEvent event) {
+    try {
+      return objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Failed to serialize loan event", e);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.genggamin.service;
+
+import java.nio.charset.StandardCharsets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Key untuk cache "plafonds" dengan invalidasi O(1). Entry daftar (allPlafonds, activePlafonds,
+ * byIncome:*) memakai prefix generasi, misalnya {@code g42:byIncome:5000000}; menaikkan generasi
+ * dengan satu INCR membuat semua entry lama tidak terbaca lagi dan entry itu habis sendiri oleh
+ * TTL, tanpa KEYS/SCAN. Entry per id ({@code plafond:1}) tidak memakai generasi dan di-evict satu
+ * per satu, karena setiap perubahan hanya menyentuh satu plafond.
+ *
+ * <p>Generasi disimpan di Redis dan disalin ke memori; node lain diberi tahu generasi baru lewat
+ * Redis pub/sub, sehingga membaca key tidak butuh round trip tambahan.
+ */
+@Service
+public class PlafondCacheKeys implements MessageListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(PlafondCacheKeys.class);
+
+  static final String CACHE_NAME = "plafonds";
+  static final String GENERATION_KEY = "plafonds:generation";
+  static final String GENERATION_CHANNEL = "plafonds:generation";
+
+  /** Generasi yang diketahui node ini, -1 = belum dibaca dari Redis */
+  private volatile long generation = -1;
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CacheManager cacheManager;
+
+  public PlafondCacheKeys(
+      StringRedisTemplate stringRedisTemplate,
+      CacheManager cacheManager,
+      RedisMessageListenerContainer listenerContainer) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.cacheManager = cacheManager;
+    listenerContainer.addMessageListener(this, new ChannelTopic(GENERATION_CHANNEL));
+  }
+
+  /**
+   * Key entry daftar pada generasi saat ini, dipakai dari SpEL {@code @plafondCacheKeys.list(..)}
+   */
+  public String list(String name) {
+    return "g" + generation() + ":" + name;
+  }
+
+  /** Key entry satu plafond, tanpa generasi */
+  public String byId(Long plafondId) {
+    return "plafond:" + plafondId;
+  }
+
+  /**
+   * Dipanggil oleh PlafondService setelah mengubah plafond: semua entry daftar dan entry plafond
+   * itu sendiri (bila ada) diinvalidasi setelah transaksi commit.
+   *
+   * @param plafondId plafond yang berubah, null untuk plafond baru
+   */
+  public void invalidateAfterCommit(Long plafondId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidate(plafondId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            invalidate(plafondId);
+          }
+        });
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    try {
+      advanceTo(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8)));
+    } catch (NumberFormatException e) {
+      logger.warn("Ignoring invalid plafond cache generation message");
+    }
+  }
+
+  private long generation() {
+    long current = generation;
+    if (current < 0) {
+      String stored = stringRedisTemplate.opsForValue().get(GENERATION_KEY);
+      current = advanceTo(stored != null ? Long.parseLong(stored) : 0L);
+    }
+    return current;
+  }
+
+  /** Generasi tidak pernah mundur, walaupun pesan pub/sub datang tidak berurutan */
+  private synchronized long advanceTo(long observed) {
+    if (observed > generation) {
+      generation = observed;
+    }
+    return generation;
+  }
+
+  private void invalidate(Long plafondId) {
+    try {
+      Long next = stringRedisTemplate.opsForValue().increment(GENERATION_KEY);
+      if (next != null) {
+        advanceTo(next);
+        stringRedisTemplate.convertAndSend(GENERATION_CHANNEL, String.valueOf(next));
+      }
+      if (plafondId != null) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+          cache.evict(byId(plafondId));
+        }
+      }
+    } catch (Exception e) {
+      // Entry lama tetap terbaca sampai TTL cache "plafonds" habis
+      logger.error("Failed to invalidate plafond cache: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,352 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.entity.Plafond;
+import com.example.genggamin.repository.PlafondRepository;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Katalog plafond in-process untuk pengecekan eligibility dan pemilihan plafond simulasi. Katalog
+ * disimpan sebagai snapshot immutable yang diganti secara atomik setiap kali PlafondService
+ * mengubah data (setelah commit), dan perubahan disebarkan ke node lain melalui Redis pub/sub.
+ * Pembacaan tidak pernah query ke database dan tidak perlu lock.
+ */
+@Service
+public class PlafondCatalog implements MessageListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(PlafondCatalog.class);
+
+  static final String REFRESH_CHANNEL = "plafond-catalog:refresh";
+
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+  private final AtomicLong versions = new AtomicLong();
+
+  private final PlafondRepository plafondRepository;
+  private final StringRedisTemplate stringRedisTemplate;
+
+  public PlafondCatalog(
+      PlafondRepository plafondRepository,
+      StringRedisTemplate stringRedisTemplate,
+      RedisMessageListenerContainer listenerContainer) {
+    this.plafondRepository = plafondRepository;
+    this.stringRedisTemplate = stringRedisTemplate;
+    listenerContainer.addMessageListener(this, new ChannelTopic(REFRESH_CHANNEL));
+  }
+
+  /** Data plafond yang dibutuhkan untuk eligibility dan simulasi */
+  public record Entry(
+      Long id,
+      String title,
+      BigDecimal minIncome,
+      BigDecimal maxAmount,
+      Long tenorMonth,
+      BigDecimal interestRate,
+      boolean active) {
+
+    static Entry of(Plafond plafond) {
+      return new Entry(
+          plafond.getId(),
+          plafond.getTitle(),
+          plafond.getMinIncome(),
+          plafond.getMaxAmount(),
+          plafond.getTenorMonth(),
+          plafond.getInterestRate(),
+          Boolean.TRUE.equals(plafond.getIsActive()));
+    }
+  }
+
+  /**
+   * @param byId semua plafond yang tidak dihapus (aktif maupun tidak)
+   * @param byMinIncome plafond aktif, urut minIncome ASC
+   * @param minIncomes minIncome dari byMinIncome, untuk binary search
+   * @param byTenor plafond aktif per tenor, urut interestRate ASC
+   * @param byRate plafond aktif, urut interestRate ASC (untuk rekomendasi)
+   * @param annuityFactors faktor anuitas per rate micros, index = tenor 1..tenor terbesar rate itu
+   * @param version naik setiap kali katalog dimuat ulang
+   */
+  private record Snapshot(
+      Map<Long, Entry> byId,
+      List<Entry> byMinIncome,
+      BigDecimal[] minIncomes,
+      Map<Long, List<Entry>> byTenor,
+      List<Entry> byRate,
+      Map<Long, BigDecimal[]> annuityFactors,
+      long version) {
+
+    static Snapshot of(List<Plafond> plafonds, long version) {
+      List<Entry> entries = plafonds.stream().map(Entry::of).toList();
+      List<Entry> active = entries.stream().filter(Entry::active).toList();
+
+      List<Entry> byMinIncome =
+          active.stream()
+              .sorted(Comparator.comparing(Entry::minIncome).thenComparing(Entry::id))
+              .toList();
+      List<Entry> byRate =
+          active.stream()
+              .sorted(Comparator.comparing(Entry::interestRate).thenComparing(Entry::id))
+              .toList();
+      Map<Long, List<Entry>> byTenor =
+          byRate.stream()
+              .collect(Collectors.groupingBy(Entry::tenorMonth, Collectors.toUnmodifiableList()));
+
+      // Every (rate, tenor <= plafond tenor) pair a simulation can ask for
+      Map<Long, Integer> maxTenorByRate = new HashMap<>();
+      for (Entry entry : entries) {
+        if (entry.interestRate() != null && entry.tenorMonth() != null && entry.tenorMonth() > 0) {
+          maxTenorByRate.merge(
+              FlatRateCalculator.toRateMicros(entry.interestRate()),
+              Math.toIntExact(entry.tenorMonth()),
+              Math::max);
+        }
+      }
+      Map<Long, BigDecimal[]> annuityFactors = new HashMap<>();
+      maxTenorByRate.forEach(
+          (rateMicros, maxTenor) ->
+              annuityFactors.put(rateMicros, AnnuityCalculator.factors(rateMicros, maxTenor)));
+
+      return new Snapshot(
+          entries.stream().collect(Collectors.toUnmodifiableMap(Entry::id, Function.identity())),
+          byMinIncome,
+          byMinIncome.stream().map(Entry::minIncome).toArray(BigDecimal[]::new),
+          Map.copyOf(byTenor),
+          byRate,
+          Map.copyOf(annuityFactors),
+          version);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    refresh();
+  }
+
+  /** Muat ulang katalog dari database dan ganti snapshot secara atomik */
+  public void refresh() {
+    Snapshot loaded = Snapshot.of(plafondRepository.findAllActive(), versions.incrementAndGet());
+    snapshot.set(loaded);
+    logger.info("Plafond catalog loaded with {} plafonds", loaded.byId().size());
+  }
+
+  /**
+   * Cadangan untuk pesan pub/sub yang terlewat (Redis putus, listener reconnect): katalog dibaca
+   * ulang secara berkala dan snapshot hanya diganti bila isinya berbeda, sehingga versi katalog
+   * (dan cache turunannya) tidak berubah tanpa alasan. Node yang tertinggal paling lama stale
+   * selama interval ini.
+   */
+  @Scheduled(
+      fixedDelayString = "${app.plafond-catalog.reload-interval-ms:300000}",
+      initialDelayString = "${app.plafond-catalog.reload-interval-ms:300000}")
+  public void reloadIfChanged() {
+    try {
+      List<Plafond> plafonds = plafondRepository.findAllActive();
+      Map<Long, Entry> loaded =
+          plafonds.stream()
+              .map(Entry::of)
+              .collect(Collectors.toMap(Entry::id, Function.identity()));
+      Snapshot current = snapshot.get();
+      if (current != null && current.byId().equals(loaded)) {
+        return;
+      }
+      snapshot.set(Snapshot.of(plafonds, versions.incrementAndGet()));
+      logger.warn(
+          "Plafond catalog was out of date (missed refresh message); reloaded {} plafonds",
+          loaded.size());
+    } catch (Exception e) {
+      logger.error("Periodic plafond catalog reload failed: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Dipanggil oleh PlafondService setelah mengubah plafond: katalog di node ini dan di node lain
+   * dimuat ulang setelah transaksi commit.
+   */
+  public void refreshAfterCommit() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      refreshEverywhere();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            refreshEverywhere();
+          }
+        });
+  }
+
+  /**
+   * Versi snapshot yang sedang dipakai; berubah setiap kali katalog dimuat ulang (di node ini atau
+   * karena perubahan dari node lain), sehingga hasil turunan katalog bisa ditandai versinya.
+   */
+  public long version() {
+    return current().version();
+  }
+
+  /** Plafond yang tidak dihapus berdasarkan id */
+  public Optional<Entry> find(Long plafondId) {
+    return Optional.ofNullable(current().byId().get(plafondId));
+  }
+
+  /** true bila plafond aktif dan minIncome-nya tidak melebihi income customer */
+  public boolean isEligible(Long plafondId, BigDecimal income) {
+    Entry entry = current().byId().get(plafondId);
+    return entry != null
+        && entry.active()
+        && income != null
+        && entry.minIncome().compareTo(income) <= 0;
+  }
+
+  /** Plafond aktif dengan minIncome <= income, urut minIncome ASC */
+  public List<Entry> eligibleFor(BigDecimal income) {
+    Snapshot current = current();
+    if (income == null) {
+      return List.of();
+    }
+    return current.byMinIncome().subList(0, upperBound(current.minIncomes(), income));
+  }
+
+  /**
+   * Plafond aktif yang bisa dipakai customer: minIncome <= income, maxAmount >= amount dan tenor
+   * plafond >= tenor yang diminta. Urut interestRate ASC, sehingga untuk amount dan tenor yang sama
+   * plafond termurah ada di depan.
+   */
+  public List<Entry> recommend(BigDecimal income, BigDecimal amount, Long tenor) {
+    List<Entry> result = new ArrayList<>();
+    for (Entry entry : current().byRate()) {
+      if (entry.minIncome().compareTo(income) <= 0
+          && entry.maxAmount().compareTo(amount) >= 0
+          && entry.tenorMonth() >= tenor) {
+        result.add(entry);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Batas bawah bracket income: minIncome plafond aktif terbesar yang <= income, atau null bila
+   * income di bawah semua plafond. Semua income dalam satu bracket punya plafond eligible yang
+   * sama.
+   */
+  public BigDecimal incomeBracket(BigDecimal income) {
+    if (income == null) {
+      return null;
+    }
+    BigDecimal[] minIncomes = current().minIncomes();
+    int count = upperBound(minIncomes, income);
+    return count == 0 ? null : minIncomes[count - 1];
+  }
+
+  /** Plafond aktif dengan tenor tersebut dan maxAmount >= amount yang bunganya paling rendah */
+  public Optional<Entry> lowestRateFor(Long tenor, BigDecimal amount) {
+    for (Entry entry : current().byTenor().getOrDefault(tenor, List.of())) {
+      if (entry.maxAmount().compareTo(amount) >= 0) {
+        return Optional.of(entry);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Faktor anuitas dari tabel yang dihitung saat katalog dimuat. Pasangan (rate, tenor) di luar
+   * katalog (mis. rate yang baru saja diubah di node lain) dihitung langsung.
+   */
+  public BigDecimal annuityFactor(BigDecimal monthlyRatePercent, long tenor) {
+    long rateMicros = FlatRateCalculator.toRateMicros(monthlyRatePercent);
+    BigDecimal[] factors = current().annuityFactors().get(rateMicros);
+    if (factors != null && tenor > 0 && tenor < factors.length) {
+      return factors[(int) tenor];
+    }
+    return AnnuityCalculator.factor(rateMicros, Math.toIntExact(tenor));
+  }
+
+  /**
+   * Kandidat plafond aktif per tenor (urut interestRate ASC) dari satu snapshot, untuk simulasi
+   * batch yang harus melihat katalog yang sama di setiap sel.
+   */
+  public Map<Long, List<Entry>> activeByTenor(Collection<Long> tenors) {
+    Map<Long, List<Entry>> byTenor = current().byTenor();
+    Map<Long, List<Entry>> result = new HashMap<>();
+    for (Long tenor : tenors) {
+      result.put(tenor, byTenor.getOrDefault(tenor, List.of()));
+    }
+    return result;
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    logger.debug(
+        "Plafond catalog refresh requested by {}",
+        new String(message.getBody(), StandardCharsets.UTF_8));
+    refresh();
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot.get();
+    if (current == null) {
+      // Used before ApplicationReadyEvent (or warm-up failed): load on first access
+      synchronized (this) {
+        current = snapshot.get();
+        if (current == null) {
+          refresh();
+          current = snapshot.get();
+        }
+      }
+    }
+    return current;
+  }
+
+  private void refreshEverywhere() {
+    try {
+      refresh();
+    } catch (Exception e) {
+      // Clear so the next read reloads instead of serving stale data
+      snapshot.set(null);
+      logger.error("Failed to refresh plafond catalog: {}", e.getMessage());
+    }
+    try {
+      stringRedisTemplate.convertAndSend(REFRESH_CHANNEL, "refresh");
+    } catch (Exception e) {
+      // Node lain tetap memakai snapshot lama sampai refresh berikutnya atau restart
+      logger.error("Failed to publish plafond catalog refresh: {}", e.getMessage());
+    }
+  }
+
+  /** Jumlah elemen dengan nilai <= key pada array terurut */
+  private static int upperBound(BigDecimal[] sorted, BigDecimal key) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid].compareTo(key) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
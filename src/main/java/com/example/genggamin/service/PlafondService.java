@@ -1,34 +1,61 @@
 package com.example.genggamin.service;
 
+import com.example.genggamin.dto.LoanSimulationBatchRequest;
+import com.example.genggamin.dto.LoanSimulationBatchResponse;
 import com.example.genggamin.dto.LoanSimulationRequest;
 import com.example.genggamin.dto.LoanSimulationResponse;
+import com.example.genggamin.dto.PlafondRecommendationRequest;
+import com.example.genggamin.dto.PlafondRecommendationResponse;
 import com.example.genggamin.dto.PlafondRequest;
 import com.example.genggamin.dto.PlafondResponse;
 import com.example.genggamin.entity.Plafond;
+import com.example.genggamin.enums.InterestCalculationMode;
 import com.example.genggamin.repository.PlafondRepository;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
-import org.springframework.cache.annotation.CacheEvict;
+import java.util.stream.IntStream;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-/** Service untuk mengelola Plafond Menggunakan Redis caching untuk performa optimal */
+/**
+ * Service untuk mengelola Plafond Menggunakan Redis caching untuk performa optimal (key dari {@link
+ * PlafondCacheKeys}, invalidasi dengan generasi tanpa scan key). Setiap perubahan juga memuat ulang
+ * {@link PlafondCatalog} setelah commit.
+ */
 @Service
 @Transactional
 public class PlafondService {
 
-  private final PlafondRepository plafondRepository;
+  /** Mulai dari jumlah sel ini simulasi batch dihitung paralel */
+  private static final int PARALLEL_SIMULATION_CELLS = 512;
 
-  public PlafondService(PlafondRepository plafondRepository) {
+  private final PlafondRepository plafondRepository;
+  private final PlafondCatalog plafondCatalog;
+  private final SimulationCache simulationCache;
+  private final PlafondCacheKeys plafondCacheKeys;
+
+  public PlafondService(
+      PlafondRepository plafondRepository,
+      PlafondCatalog plafondCatalog,
+      SimulationCache simulationCache,
+      PlafondCacheKeys plafondCacheKeys) {
     this.plafondRepository = plafondRepository;
+    this.plafondCatalog = plafondCatalog;
+    this.simulationCache = simulationCache;
+    this.plafondCacheKeys = plafondCacheKeys;
   }
 
   /** Get all plafonds yang tidak dihapus Cached dengan key "allPlafonds" */
-  @Cacheable(value = "plafonds", key = "'allPlafonds'")
+  @Cacheable(value = "plafonds", key = "@plafondCacheKeys.list('allPlafonds')")
   @Transactional(readOnly = true)
   public List<PlafondResponse> getAllPlafonds() {
     return plafondRepository.findAllActive().stream()
@@ -39,7 +66,7 @@ public class PlafondService {
   /**
    * Get all active plafonds (isActive = true dan tidak dihapus) Cached dengan key "activePlafonds"
    */
-  @Cacheable(value = "plafonds", key = "'activePlafonds'")
+  @Cacheable(value = "plafonds", key = "@plafondCacheKeys.list('activePlafonds')")
   @Transactional(readOnly = true)
   public List<PlafondResponse> getActivePlafonds() {
     return plafondRepository.findAllActiveAndNotDeleted().stream()
@@ -48,7 +75,7 @@ public class PlafondService {
   }
 
   /** Get plafond by ID (active only) Cached dengan key berdasarkan ID */
-  @Cacheable(value = "plafonds", key = "'plafond:' + #id")
+  @Cacheable(value = "plafonds", key = "@plafondCacheKeys.byId(#id)")
   @Transactional(readOnly = true)
   public PlafondResponse getPlafondById(Long id) {
     Plafond plafond =
@@ -58,11 +85,23 @@ public class PlafondService {
     return mapToResponse(plafond);
   }
 
-  /** Get plafonds by income range Untuk matching dengan customer income */
-  @Cacheable(value = "plafonds", key = "'byIncome:' + #income")
+  /**
+   * Get plafonds by income range Untuk matching dengan customer income. Cached per bracket income
+   * (minIncome aktif terbesar yang <= income), bukan per nilai income, sehingga jumlah key dibatasi
+   * jumlah plafond dan income berbeda dalam bracket yang sama berbagi satu entry
+   */
+  @Cacheable(
+      value = "plafonds",
+      key =
+          "@plafondCacheKeys.list('byIncome:' + (@plafondCatalog.incomeBracket(#income) ?: 'none'))")
   @Transactional(readOnly = true)
   public List<PlafondResponse> getPlafondsByIncome(BigDecimal income) {
-    return plafondRepository.findByIncomeRange(income).stream()
+    BigDecimal bracket = plafondCatalog.incomeBracket(income);
+    if (bracket == null) {
+      return List.of();
+    }
+    // Query by the bracket so the cached value depends only on the key, not on the raw income
+    return plafondRepository.findByIncomeRange(bracket).stream()
         .map(this::mapToResponse)
         .collect(Collectors.toList());
   }
@@ -73,37 +112,45 @@ public class PlafondService {
    * @param request simulation request containing amount, tenor, and optional plafondId
    * @return LoanSimulationResponse with calculation details
    */
+  @Transactional(propagation = Propagation.SUPPORTS)
   public LoanSimulationResponse simulateLoan(LoanSimulationRequest request) {
-    // Determine which plafond to use
-    Plafond selectedPlafond = null;
+    // Only reads the in-memory catalog: no transaction, no connection from the pool
+    InterestCalculationMode mode = parseMode(request.getCalculationMode());
+    return simulationCache.get(
+        request.getPlafondId(),
+        request.getAmount(),
+        request.getTenor(),
+        mode,
+        () -> computeSimulation(request, mode));
+  }
+
+  private LoanSimulationResponse computeSimulation(
+      LoanSimulationRequest request, InterestCalculationMode mode) {
+    // Determine which plafond to use (from the in-memory catalog, no database round trip)
+    PlafondCatalog.Entry selectedPlafond;
 
     if (request.getPlafondId() != null) {
       selectedPlafond =
-          plafondRepository
-              .findByIdActive(request.getPlafondId())
+          plafondCatalog
+              .find(request.getPlafondId())
               .orElseThrow(
                   () ->
                       new RuntimeException("Plafond not found with id: " + request.getPlafondId()));
 
       // Validate tenor matches (requested tenor must be <= plafond's max tenor)
-      if (request.getTenor() > selectedPlafond.getTenorMonth()) {
+      if (request.getTenor() > selectedPlafond.tenorMonth()) {
         throw new RuntimeException(
             "Requested tenor ("
                 + request.getTenor()
                 + ") exceeds maximum tenor ("
-                + selectedPlafond.getTenorMonth()
+                + selectedPlafond.tenorMonth()
                 + ") for this plafond");
       }
     } else {
-      // Find matching plafond by tenor and amount
-      List<Plafond> candidates = plafondRepository.findByTenor(request.getTenor());
-
-      // Filter by maxAmount >= requested amount
-      // Sort by interest rate ASC (best rate for user)
+      // Find matching plafond by tenor with maxAmount >= requested amount and the best rate
       selectedPlafond =
-          candidates.stream()
-              .filter(p -> p.getMaxAmount().compareTo(request.getAmount()) >= 0)
-              .min(Comparator.comparing(Plafond::getInterestRate))
+          plafondCatalog
+              .lowestRateFor(request.getTenor(), request.getAmount())
               .orElseThrow(
                   () ->
                       new RuntimeException(
@@ -111,49 +158,189 @@ public class PlafondService {
     }
 
     // Validate max amount again just in case (e.g. if plafondId was used but amount exceeds it)
-    if (request.getAmount().compareTo(selectedPlafond.getMaxAmount()) > 0) {
+    if (request.getAmount().compareTo(selectedPlafond.maxAmount()) > 0) {
       // Should we block? The user might just want to see hypotheticals.
       // The prompt says "simulasi", maybe strict validation is good to guide them.
       // Let's assume strict validation or just warning. I'll throw exception for now to be safe.
       throw new RuntimeException(
           "Requested amount exceeds the maximum limit for this plafond: "
-              + selectedPlafond.getMaxAmount());
+              + selectedPlafond.maxAmount());
+    }
+
+    return simulate(selectedPlafond, request.getAmount(), request.getTenor(), mode);
+  }
+
+  /**
+   * Simulasi untuk setiap kombinasi amount x tenor dalam satu request. Plafond diambil sekali dari
+   * satu snapshot katalog; sel tanpa plafond yang cocok bernilai null. Grid besar dihitung paralel.
+   */
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public LoanSimulationBatchResponse simulateBatch(LoanSimulationBatchRequest request) {
+    List<BigDecimal> amounts = request.getAmounts();
+    List<Long> tenors = request.getTenors();
+    InterestCalculationMode mode = parseMode(request.getCalculationMode());
+
+    // Resolve plafonds once: one fixed plafond, or the candidates per tenor (lowest rate first)
+    PlafondCatalog.Entry fixedPlafond = null;
+    Map<Long, List<PlafondCatalog.Entry>> candidates = null;
+    if (request.getPlafondId() != null) {
+      fixedPlafond =
+          plafondCatalog
+              .find(request.getPlafondId())
+              .orElseThrow(
+                  () ->
+                      new RuntimeException("Plafond not found with id: " + request.getPlafondId()));
+    } else {
+      candidates = plafondCatalog.activeByTenor(tenors);
+    }
+
+    int columns = tenors.size();
+    LoanSimulationResponse[] cells = new LoanSimulationResponse[amounts.size() * columns];
+    PlafondCatalog.Entry fixed = fixedPlafond;
+    Map<Long, List<PlafondCatalog.Entry>> byTenor = candidates;
+    IntStream indexes = IntStream.range(0, cells.length);
+    if (cells.length >= PARALLEL_SIMULATION_CELLS) {
+      indexes = indexes.parallel();
+    }
+    indexes.forEach(
+        i -> {
+          BigDecimal amount = amounts.get(i / columns);
+          Long tenor = tenors.get(i % columns);
+          PlafondCatalog.Entry plafond =
+              fixed != null
+                  ? fitting(fixed, amount, tenor)
+                  : lowestRate(byTenor.get(tenor), amount);
+          if (plafond != null) {
+            cells[i] = simulate(plafond, amount, tenor, mode);
+          }
+        });
+
+    List<List<LoanSimulationResponse>> results = new ArrayList<>(amounts.size());
+    int available = 0;
+    for (int row = 0; row < amounts.size(); row++) {
+      List<LoanSimulationResponse> cellsInRow =
+          Arrays.asList(Arrays.copyOfRange(cells, row * columns, (row + 1) * columns));
+      available += (int) cellsInRow.stream().filter(Objects::nonNull).count();
+      results.add(cellsInRow);
     }
 
-    BigDecimal principal = request.getAmount();
-    BigDecimal monthlyRatePercent = selectedPlafond.getInterestRate();
-    BigDecimal tenorMonths = BigDecimal.valueOf(request.getTenor());
+    return LoanSimulationBatchResponse.builder()
+        .amounts(amounts)
+        .tenors(tenors)
+        .results(results)
+        .availableCount(available)
+        .build();
+  }
+
+  /** Plafond tertentu bila tenor dan amount masih dalam batasnya */
+  private static PlafondCatalog.Entry fitting(
+      PlafondCatalog.Entry plafond, BigDecimal amount, Long tenor) {
+    return tenor <= plafond.tenorMonth() && amount.compareTo(plafond.maxAmount()) <= 0
+        ? plafond
+        : null;
+  }
 
-    // Calculation: Flat Rate (Monthly Interest)
-    // Monthly Interest Rate = Rate (from DB)
-    // Total Interest = Principal * (Monthly Rate/100) * Tenor
-    // Total Payment = Principal + Total Interest
-    // Monthly Installment = Total Payment / Tenor
+  /** Kandidat pertama (rate terendah) dengan maxAmount >= amount */
+  private static PlafondCatalog.Entry lowestRate(
+      List<PlafondCatalog.Entry> candidates, BigDecimal amount) {
+    for (PlafondCatalog.Entry entry : candidates) {
+      if (entry.maxAmount().compareTo(amount) >= 0) {
+        return entry;
+      }
+    }
+    return null;
+  }
 
-    BigDecimal monthlyRateDecimal =
-        monthlyRatePercent.divide(BigDecimal.valueOf(100), 8, RoundingMode.HALF_UP);
+  /**
+   * Rekomendasi plafond untuk customer ("berapa yang bisa saya pinjam?") dalam satu panggilan:
+   * semua plafond aktif yang sesuai income, amount dan tenor, disimulasikan dan diurutkan dari
+   * total biaya terendah. Hanya membaca {@link PlafondCatalog}, tanpa query database.
+   */
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public List<PlafondRecommendationResponse> recommend(PlafondRecommendationRequest request) {
+    InterestCalculationMode mode = parseMode(request.getCalculationMode());
+    List<LoanSimulationResponse> simulations = new ArrayList<>();
+    Map<Long, PlafondCatalog.Entry> plafonds = new HashMap<>();
+    for (PlafondCatalog.Entry plafond :
+        plafondCatalog.recommend(request.getIncome(), request.getAmount(), request.getTenor())) {
+      simulations.add(simulate(plafond, request.getAmount(), request.getTenor(), mode));
+      plafonds.put(plafond.id(), plafond);
+    }
+    // Catalog order is by rate already; total payment is the actual cost after rounding
+    simulations.sort(Comparator.comparing(LoanSimulationResponse::getTotalPayment));
+
+    List<PlafondRecommendationResponse> recommendations = new ArrayList<>(simulations.size());
+    for (LoanSimulationResponse simulation : simulations) {
+      PlafondCatalog.Entry plafond = plafonds.get(simulation.getPlafondId());
+      recommendations.add(
+          PlafondRecommendationResponse.builder()
+              .rank(recommendations.size() + 1)
+              .plafondId(plafond.id())
+              .title(plafond.title())
+              .maxAmount(plafond.maxAmount())
+              .maxTenorMonth(plafond.tenorMonth())
+              .simulation(simulation)
+              .build());
+    }
+    return recommendations;
+  }
 
-    BigDecimal totalInterest =
-        principal
-            .multiply(monthlyRateDecimal)
-            .multiply(tenorMonths)
-            .setScale(2, RoundingMode.HALF_UP);
-    BigDecimal totalPayment = principal.add(totalInterest).setScale(2, RoundingMode.HALF_UP);
-    BigDecimal monthlyInstallment = totalPayment.divide(tenorMonths, 2, RoundingMode.HALF_UP);
+  private LoanSimulationResponse simulate(
+      PlafondCatalog.Entry plafond,
+      BigDecimal principal,
+      long tenor,
+      InterestCalculationMode mode) {
+    BigDecimal monthlyRatePercent = plafond.interestRate();
+    long principalCents = FlatRateCalculator.toCents(principal);
+    long totalInterestCents;
+    long totalPaymentCents;
+    long monthlyInstallmentCents;
+
+    if (mode == InterestCalculationMode.ANNUITY) {
+      // Annuity (effective rate): Installment = Principal * r / (1 - (1 + r)^-Tenor)
+      // The factor comes from the catalog's precomputed table, so no pow per request
+      // Total Payment = Installment * Tenor
+      monthlyInstallmentCents =
+          AnnuityCalculator.installmentCents(
+              principalCents, plafondCatalog.annuityFactor(monthlyRatePercent, tenor));
+      totalPaymentCents = Math.multiplyExact(monthlyInstallmentCents, tenor);
+      totalInterestCents = totalPaymentCents - principalCents;
+    } else {
+      // Calculation: Flat Rate (Monthly Interest), in cents - see FlatRateCalculator
+      // Total Interest = Principal * (Monthly Rate/100) * Tenor
+      // Total Payment = Principal + Total Interest
+      // Monthly Installment = Total Payment / Tenor
+      totalInterestCents =
+          FlatRateCalculator.totalInterestCents(
+              principalCents, FlatRateCalculator.toRateMicros(monthlyRatePercent), tenor);
+      totalPaymentCents = principalCents + totalInterestCents;
+      monthlyInstallmentCents = FlatRateCalculator.installmentCents(totalPaymentCents, tenor);
+    }
 
     return LoanSimulationResponse.builder()
         .loanAmount(principal)
-        .tenorMonth(request.getTenor())
+        .tenorMonth(tenor)
         .interestRate(monthlyRatePercent)
-        .monthlyInstallment(monthlyInstallment)
-        .totalInterest(totalInterest)
-        .totalPayment(totalPayment)
-        .plafondId(selectedPlafond.getId())
+        .monthlyInstallment(FlatRateCalculator.toAmount(monthlyInstallmentCents))
+        .totalInterest(FlatRateCalculator.toAmount(totalInterestCents))
+        .totalPayment(FlatRateCalculator.toAmount(totalPaymentCents))
+        .plafondId(plafond.id())
+        .calculationMode(mode.name())
         .build();
   }
 
-  /** Create new plafond Evict cache untuk refresh data Hanya bisa dilakukan oleh ADMIN */
-  @CacheEvict(value = "plafonds", allEntries = true)
+  private static InterestCalculationMode parseMode(String mode) {
+    if (mode == null || mode.isBlank()) {
+      return InterestCalculationMode.FLAT;
+    }
+    try {
+      return InterestCalculationMode.valueOf(mode.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new RuntimeException("Invalid calculation mode. Must be FLAT or ANNUITY");
+    }
+  }
+
+  /** Create new plafond Invalidasi cache setelah commit Hanya bisa dilakukan oleh ADMIN */
   public PlafondResponse createPlafond(PlafondRequest request) {
     // Validasi request
     request.validate();
@@ -178,11 +365,12 @@ public class PlafondService {
             .build();
 
     Plafond saved = plafondRepository.saveAndFlush(plafond);
+    plafondCatalog.refreshAfterCommit();
+    plafondCacheKeys.invalidateAfterCommit(null);
     return mapToResponse(saved);
   }
 
-  /** Update existing plafond Evict cache untuk refresh data Hanya bisa dilakukan oleh ADMIN */
-  @CacheEvict(value = "plafonds", allEntries = true)
+  /** Update existing plafond Invalidasi cache setelah commit Hanya bisa dilakukan oleh ADMIN */
   public PlafondResponse updatePlafond(Long id, PlafondRequest request) {
     // Validasi request
     request.validate();
@@ -212,11 +400,12 @@ public class PlafondService {
     }
 
     Plafond updated = plafondRepository.saveAndFlush(plafond);
+    plafondCatalog.refreshAfterCommit();
+    plafondCacheKeys.invalidateAfterCommit(id);
     return mapToResponse(updated);
   }
 
-  /** Soft delete plafond Evict cache untuk refresh data Hanya bisa dilakukan oleh ADMIN */
-  @CacheEvict(value = "plafonds", allEntries = true)
+  /** Soft delete plafond Invalidasi cache setelah commit Hanya bisa dilakukan oleh ADMIN */
   public void deletePlafond(Long id, String deletedBy) {
     Plafond plafond =
         plafondRepository
@@ -226,10 +415,11 @@ public class PlafondService {
     // Soft delete
     plafond.softDelete(deletedBy);
     plafondRepository.saveAndFlush(plafond);
+    plafondCatalog.refreshAfterCommit();
+    plafondCacheKeys.invalidateAfterCommit(id);
   }
 
   /** Restore soft deleted plafond Hanya bisa dilakukan oleh ADMIN */
-  @CacheEvict(value = "plafonds", allEntries = true)
   public PlafondResponse restorePlafond(Long id) {
     Plafond plafond =
         plafondRepository
@@ -242,11 +432,12 @@ public class PlafondService {
 
     plafond.restore();
     Plafond restored = plafondRepository.saveAndFlush(plafond);
+    plafondCatalog.refreshAfterCommit();
+    plafondCacheKeys.invalidateAfterCommit(id);
     return mapToResponse(restored);
   }
 
   /** Toggle plafond active status Hanya bisa dilakukan oleh ADMIN */
-  @CacheEvict(value = "plafonds", allEntries = true)
   public PlafondResponse toggleActiveStatus(Long id) {
     Plafond plafond =
         plafondRepository
@@ -255,6 +446,8 @@ public class PlafondService {
 
     plafond.setIsActive(!plafond.getIsActive());
     Plafond updated = plafondRepository.saveAndFlush(plafond);
+    plafondCatalog.refreshAfterCommit();
+    plafondCacheKeys.invalidateAfterCommit(id);
     return mapToResponse(updated);
   }
 
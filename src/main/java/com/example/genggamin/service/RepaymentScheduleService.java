@@ -0,0 +1,355 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.dto.LoanScheduleResponse;
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.entity.LoanDisbursement;
+import com.example.genggamin.entity.LoanInstallment;
+import com.example.genggamin.repository.LoanDisbursementRepository;
+import com.example.genggamin.repository.LoanInstallmentRepository;
+import com.example.genggamin.repository.LoanRepository;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Jadwal angsuran (loan_installments) untuk loan yang dicairkan. Dihitung dengan rumus flat rate
+ * yang sama dengan simulasi, tetapi dalam sen (long): angsuran bulanan dibulatkan HALF_UP dan
+ * selisih pembulatan masuk ke angsuran terakhir, sehingga total jadwal sama persis dengan pokok +
+ * bunga. Baris ditulis dengan JDBC batch di transaksi pencairan; GET jadwal dilayani dari cache
+ * "loanSchedules" yang di-evict setelah commit setiap kali jadwal ditulis ulang.
+ */
+@Service
+public class RepaymentScheduleService {
+
+  private static final Logger logger = LoggerFactory.getLogger(RepaymentScheduleService.class);
+
+  public static final String CACHE = "loanSchedules";
+
+  private static final int JDBC_BATCH_SIZE = 50;
+
+  private final LoanRepository loanRepository;
+  private final LoanDisbursementRepository loanDisbursementRepository;
+  private final LoanInstallmentRepository loanInstallmentRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final PlafondCatalog plafondCatalog;
+  private final CacheManager cacheManager;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${app.schedule.regenerate-chunk-size:500}")
+  private int chunkSize;
+
+  @Value("${app.schedule.regenerate-parallelism:4}")
+  private int parallelism;
+
+  /** Satu baris jadwal, semua nominal dalam sen */
+  record Row(
+      int number,
+      LocalDate dueDate,
+      long principalCents,
+      long interestCents,
+      long amountCents,
+      long outstandingCents) {}
+
+  /** Baris yang akan di-insert beserta loan-nya */
+  private record Pending(Long loanId, Row row) {}
+
+  public RepaymentScheduleService(
+      LoanRepository loanRepository,
+      LoanDisbursementRepository loanDisbursementRepository,
+      LoanInstallmentRepository loanInstallmentRepository,
+      JdbcTemplate jdbcTemplate,
+      PlafondCatalog plafondCatalog,
+      CacheManager cacheManager,
+      PlatformTransactionManager transactionManager) {
+    this.loanRepository = loanRepository;
+    this.loanDisbursementRepository = loanDisbursementRepository;
+    this.loanInstallmentRepository = loanInstallmentRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.plafondCatalog = plafondCatalog;
+    this.cacheManager = cacheManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Jadwal flat rate: bunga total = pokok x (rate/100) x tenor, dibulatkan ke sen. Angsuran 1 s/d
+   * n-1 = round(total/n); angsuran ke-n menampung sisanya. Jatuh tempo setiap bulan dihitung dari
+   * {@code startDate} (bukan dari jatuh tempo sebelumnya) supaya tanggal 31 tidak bergeser.
+   */
+  static List<Row> flatRate(
+      long principalCents, BigDecimal monthlyRatePercent, int tenor, LocalDate startDate) {
+    if (tenor <= 0) {
+      throw new IllegalArgumentException("Tenor must be positive");
+    }
+    long interestCents =
+        FlatRateCalculator.totalInterestCents(
+            principalCents, FlatRateCalculator.toRateMicros(monthlyRatePercent), tenor);
+
+    long regularAmount = FlatRateCalculator.installmentCents(principalCents + interestCents, tenor);
+    long regularInterest = FlatRateCalculator.installmentCents(interestCents, tenor);
+    long regularPrincipal = regularAmount - regularInterest;
+
+    List<Row> rows = new ArrayList<>(tenor);
+    long outstanding = principalCents;
+    for (int number = 1; number <= tenor; number++) {
+      boolean last = number == tenor;
+      long principal = last ? outstanding : regularPrincipal;
+      long interest = last ? interestCents - regularInterest * (tenor - 1) : regularInterest;
+      outstanding -= principal;
+      rows.add(
+          new Row(
+              number,
+              startDate.plusMonths(number),
+              principal,
+              interest,
+              principal + interest,
+              outstanding));
+    }
+    return rows;
+  }
+
+  /**
+   * Tulis jadwal untuk loan yang baru dicairkan, di transaksi pencairan. Jadwal lama (bila ada)
+   * diganti.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void generate(List<Loan> loans, LocalDateTime disbursedAt) {
+    write(loans, loanId -> disbursedAt);
+  }
+
+  /**
+   * Customer hanya boleh melihat jadwal loan miliknya. Dicek sebelum {@link #getSchedule}, karena
+   * hasil getSchedule di-cache per loan id tanpa informasi pemilik. Pesan yang sama dengan loan
+   * yang tidak ada, supaya id loan customer lain tidak bisa ditebak.
+   */
+  @Transactional(readOnly = true)
+  public void requireOwnedBy(Long loanId, String username) {
+    if (!loanRepository.isOwnedBy(loanId, username)) {
+      throw new RuntimeException("Loan not found");
+    }
+  }
+
+  /** Jadwal angsuran loan; hanya ada untuk loan yang sudah dicairkan */
+  @Cacheable(value = CACHE, key = "#loanId")
+  @Transactional(readOnly = true)
+  public LoanScheduleResponse getSchedule(Long loanId) {
+    Loan loan =
+        loanRepository.findById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
+    List<LoanInstallment> installments =
+        loanInstallmentRepository.findByLoanIdOrderByInstallmentNumberAsc(loanId);
+    if (installments.isEmpty()) {
+      throw new RuntimeException("Repayment schedule not found for loan id: " + loanId);
+    }
+
+    long interestCents = 0;
+    long paymentCents = 0;
+    List<LoanScheduleResponse.Installment> rows = new ArrayList<>(installments.size());
+    for (LoanInstallment installment : installments) {
+      interestCents += installment.getInterestCents();
+      paymentCents += installment.getAmountCents();
+      rows.add(
+          LoanScheduleResponse.Installment.builder()
+              .number(installment.getInstallmentNumber())
+              .dueDate(installment.getDueDate())
+              .principal(FlatRateCalculator.toAmount(installment.getPrincipalCents()))
+              .interest(FlatRateCalculator.toAmount(installment.getInterestCents()))
+              .amount(FlatRateCalculator.toAmount(installment.getAmountCents()))
+              .outstandingPrincipal(FlatRateCalculator.toAmount(installment.getOutstandingCents()))
+              .build());
+    }
+
+    return LoanScheduleResponse.builder()
+        .loanId(loanId)
+        .loanAmount(loan.getAmount())
+        .tenorMonth(loan.getTenureMonths())
+        .interestRate(rateOf(loan))
+        .totalInterest(FlatRateCalculator.toAmount(interestCents))
+        .totalPayment(FlatRateCalculator.toAmount(paymentCents))
+        .installments(rows)
+        .build();
+  }
+
+  /**
+   * Hitung ulang jadwal semua loan DISBURSED dari term yang tersimpan di loan (mis. setelah
+   * perubahan aturan perhitungan). Id loan dibaca per keyset chunk dan setiap chunk ditulis di
+   * transaksi sendiri secara paralel; jumlah chunk yang berjalan bersamaan dibatasi {@code
+   * regenerate-parallelism} supaya memori dan koneksi database tetap terbatas. Chunk bersifat
+   * idempotent, jadi job yang gagal sebagian cukup dijalankan ulang.
+   *
+   * @return jumlah loan yang jadwalnya ditulis ulang
+   */
+  public int regenerateAll() {
+    Semaphore permits = new Semaphore(parallelism);
+    List<Future<Integer>> chunks = new ArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      long afterId = 0L;
+      while (true) {
+        List<Long> ids =
+            loanRepository.findIdsByStatusAfter(
+                LoanStatus.DISBURSED, afterId, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+          break;
+        }
+        afterId = ids.get(ids.size() - 1);
+        permits.acquireUninterruptibly();
+        chunks.add(
+            executor.submit(
+                () -> {
+                  try {
+                    return transactionTemplate.execute(status -> regenerateChunk(ids));
+                  } finally {
+                    permits.release();
+                  }
+                }));
+      }
+    }
+
+    int regenerated = 0;
+    int failed = 0;
+    for (Future<Integer> chunk : chunks) {
+      try {
+        regenerated += chunk.get();
+      } catch (ExecutionException e) {
+        failed++;
+        logger.error("Schedule regeneration chunk failed: {}", e.getCause().getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Schedule regeneration interrupted");
+      }
+    }
+    logger.info(
+        "Regenerated repayment schedules for {} loans in {} chunks", regenerated, chunks.size());
+    if (failed > 0) {
+      throw new RuntimeException(
+          "Schedule regeneration failed for "
+              + failed
+              + " of "
+              + chunks.size()
+              + " chunks; "
+              + regenerated
+              + " loans were regenerated");
+    }
+    return regenerated;
+  }
+
+  private int regenerateChunk(List<Long> ids) {
+    Map<Long, LocalDateTime> disbursedAt =
+        loanDisbursementRepository.findByLoanIdIn(ids).stream()
+            .collect(
+                Collectors.toMap(
+                    LoanDisbursement::getLoanId, LoanDisbursement::getDisbursementDate));
+    List<Loan> loans =
+        loanRepository.findAllById(ids).stream()
+            .filter(loan -> disbursedAt.get(loan.getId()) != null)
+            .toList();
+    return write(loans, disbursedAt::get);
+  }
+
+  /** Hapus jadwal lama dan insert jadwal baru dengan JDBC batch; cache di-evict setelah commit */
+  private int write(List<Loan> loans, Function<Long, LocalDateTime> disbursedAt) {
+    List<Pending> pending = new ArrayList<>();
+    List<Long> loanIds = new ArrayList<>();
+    for (Loan loan : loans) {
+      BigDecimal rate = rateOf(loan);
+      if (rate == null) {
+        logger.warn("Loan {} has no interest rate, repayment schedule skipped", loan.getId());
+        continue;
+      }
+      long principalCents = FlatRateCalculator.toCents(loan.getAmount());
+      for (Row row :
+          flatRate(
+              principalCents,
+              rate,
+              Math.toIntExact(loan.getTenureMonths()),
+              disbursedAt.apply(loan.getId()).toLocalDate())) {
+        pending.add(new Pending(loan.getId(), row));
+      }
+      loanIds.add(loan.getId());
+    }
+    if (loanIds.isEmpty()) {
+      return 0;
+    }
+
+    jdbcTemplate.batchUpdate(
+        "DELETE FROM loan_installments WHERE loan_id = ?",
+        loanIds,
+        JDBC_BATCH_SIZE,
+        (ps, loanId) -> ps.setLong(1, loanId));
+
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO loan_installments (loan_id, installment_number, due_date, principal_cents, "
+            + "interest_cents, amount_cents, outstanding_cents, generated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+        pending,
+        JDBC_BATCH_SIZE,
+        (ps, p) -> {
+          ps.setLong(1, p.loanId());
+          ps.setInt(2, p.row().number());
+          ps.setDate(3, Date.valueOf(p.row().dueDate()));
+          ps.setLong(4, p.row().principalCents());
+          ps.setLong(5, p.row().interestCents());
+          ps.setLong(6, p.row().amountCents());
+          ps.setLong(7, p.row().outstandingCents());
+          ps.setTimestamp(8, now);
+        });
+
+    evictAfterCommit(loanIds);
+    return loanIds.size();
+  }
+
+  private void evictAfterCommit(List<Long> loanIds) {
+    Cache cache = cacheManager.getCache(CACHE);
+    if (cache == null) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            loanIds.forEach(cache::evict);
+          }
+        });
+  }
+
+  /** Rate di loan; loan lama tanpa rate memakai rate plafond-nya */
+  private BigDecimal rateOf(Loan loan) {
+    if (loan.getInterestRate() != null) {
+      return loan.getInterestRate();
+    }
+    if (loan.getPlafondId() == null) {
+      return null;
+    }
+    return plafondCatalog
+        .find(loan.getPlafondId())
+        .map(PlafondCatalog.Entry::interestRate)
+        .orElse(null);
+  }
+}
@@ -0,0 +1,78 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.dto.LoanSimulationResponse;
+import com.example.genggamin.enums.InterestCalculationMode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cache lokal (Caffeine, W-TinyLFU, jumlah entry dibatasi) untuk hasil simulasi loan. Endpoint
+ * simulasi terbuka untuk anonymous dan traffic kampanye mengirim kombinasi (plafondId, amount,
+ * tenor) yang sama berulang kali; hit tidak menyentuh Redis maupun database.
+ *
+ * <p>Hasil simulasi hanya bergantung pada {@link PlafondCatalog}, jadi setiap entry ditandai versi
+ * katalog. Begitu katalog dimuat ulang (setiap perubahan plafond yang juga meng-evict cache
+ * "plafonds", di semua node lewat pub/sub katalog) seluruh entry dibuang, dan hasil yang sedang
+ * dihitung dengan versi lama tidak pernah terbaca lagi.
+ */
+@Service
+public class SimulationCache {
+
+  static final String CACHE_NAME = "loanSimulations";
+
+  /** Request yang sudah dinormalisasi; amount tanpa trailing zero supaya 1000 == 1000.00 */
+  record Key(
+      long catalogVersion,
+      Long plafondId,
+      BigDecimal amount,
+      long tenor,
+      InterestCalculationMode mode) {}
+
+  private final PlafondCatalog plafondCatalog;
+  private final Cache<Key, LoanSimulationResponse> cache;
+  private final AtomicLong cachedVersion = new AtomicLong(-1);
+
+  public SimulationCache(
+      PlafondCatalog plafondCatalog,
+      MeterRegistry meterRegistry,
+      @Value("${app.simulation-cache.maximum-size:10000}") long maximumSize) {
+    this.plafondCatalog = plafondCatalog;
+    this.cache = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    Gauge.builder("simulation.cache.hit.ratio", cache, c -> c.stats().hitRate())
+        .description("Share of loan simulations served from the local cache")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Hasil simulasi dari cache, atau dihitung dengan {@code simulation} bila belum ada. Exception
+   * (plafond tidak ditemukan, amount melebihi limit, dll.) tidak di-cache.
+   *
+   * @return salinan response dengan loanAmount persis seperti yang diminta
+   */
+  public LoanSimulationResponse get(
+      Long plafondId,
+      BigDecimal amount,
+      long tenor,
+      InterestCalculationMode mode,
+      Supplier<LoanSimulationResponse> simulation) {
+    long version = plafondCatalog.version();
+    long seen = cachedVersion.get();
+    if (seen != version && cachedVersion.compareAndSet(seen, version)) {
+      cache.invalidateAll();
+    }
+
+    Key key = new Key(version, plafondId, amount.stripTrailingZeros(), tenor, mode);
+    // Copy: the cached instance is shared and the DTO is mutable
+    return cache.get(key, k -> simulation.get()).toBuilder().loanAmount(amount).build();
+  }
+}
@@ -0,0 +1,143 @@
+package com.example.genggamin.service;
+
+import com.example.genggamin.repository.UserRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Directory id -> username untuk staff (reviewer, approver, disburser) yang disimpan in-process.
+ * Di-warm saat startup dan di-invalidasi oleh UserService; invalidasi disebarkan ke node lain
+ * melalui Redis pub/sub. Menghindari load entity User (dengan roles EAGER) per loan yang
+ * ditampilkan.
+ */
+@Service
+public class StaffDirectoryService implements MessageListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(StaffDirectoryService.class);
+
+  static final String INVALIDATION_CHANNEL = "staff-directory:invalidate";
+
+  /** Batas jumlah entry; staff jauh lebih sedikit dari ini, sisanya dibaca langsung dari DB */
+  private static final int MAX_ENTRIES = 10_000;
+
+  private static final List<String> STAFF_ROLES =
+      List.of("ADMIN", "MARKETING", "BRANCH_MANAGER", "BACK_OFFICE");
+
+  private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+
+  private final UserRepository userRepository;
+  private final StringRedisTemplate stringRedisTemplate;
+
+  public StaffDirectoryService(
+      UserRepository userRepository,
+      StringRedisTemplate stringRedisTemplate,
+      RedisMessageListenerContainer listenerContainer) {
+    this.userRepository = userRepository;
+    this.stringRedisTemplate = stringRedisTemplate;
+    listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+  }
+
+  /** Warm directory dengan semua user staff setelah aplikasi siap */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    userRepository
+        .findUsernamesByRoleNames(STAFF_ROLES)
+        .forEach(view -> remember(view.getId(), view.getUsername()));
+    logger.info("Staff directory warmed with {} users", usernames.size());
+  }
+
+  /**
+   * Resolve username untuk sekumpulan user id. Id yang belum ada di directory di-load sekaligus
+   * dengan satu query projection.
+   */
+  public Map<Long, String> usernamesFor(Collection<Long> userIds) {
+    Map<Long, String> result = new HashMap<>();
+    Set<Long> missing = new HashSet<>();
+    for (Long userId : userIds) {
+      String username = usernames.get(userId);
+      if (username != null) {
+        result.put(userId, username);
+      } else {
+        missing.add(userId);
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      userRepository
+          .findUsernamesByIdIn(missing)
+          .forEach(
+              view -> {
+                remember(view.getId(), view.getUsername());
+                result.put(view.getId(), view.getUsername());
+              });
+    }
+    return result;
+  }
+
+  /**
+   * Hapus user dari directory di node ini dan di semua node lain. Dipanggil oleh UserService di
+   * dalam transaksinya, sehingga eviction dijalankan setelah commit; kalau dijalankan sebelumnya,
+   * request lain bisa membaca username lama dari DB dan menyimpannya kembali.
+   */
+  public void evict(Long userId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evictEverywhere(userId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            evictEverywhere(userId);
+          }
+        });
+  }
+
+  private void evictEverywhere(Long userId) {
+    usernames.remove(userId);
+    publish(String.valueOf(userId));
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    try {
+      usernames.remove(Long.valueOf(body));
+    } catch (NumberFormatException e) {
+      logger.warn("Ignoring invalid staff directory invalidation message: {}", body);
+    }
+  }
+
+  private void remember(Long userId, String username) {
+    if (usernames.size() < MAX_ENTRIES || usernames.containsKey(userId)) {
+      usernames.put(userId, username);
+    }
+  }
+
+  private void publish(String message) {
+    try {
+      stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+    } catch (Exception e) {
+      // Node lain tetap konsisten setelah restart; jangan gagalkan update user karena Redis
+      logger.error("Failed to publish staff directory invalidation: {}", e.getMessage());
+    }
+  }
+}
@@ -26,18 +26,21 @@ public class UserService {
   private final PasswordEncoder passwordEncoder;
   private final EmailService emailService;
   private final NotificationService notificationService;
+  private final StaffDirectoryService staffDirectoryService;
 
   public UserService(
       UserRepository userRepository,
       RoleRepository roleRepository,
       PasswordEncoder passwordEncoder,
       EmailService emailService,
-      NotificationService notificationService) {
+      NotificationService notificationService,
+      StaffDirectoryService staffDirectoryService) {
     this.userRepository = userRepository;
     this.roleRepository = roleRepository;
     this.passwordEncoder = passwordEncoder;
     this.emailService = emailService;
     this.notificationService = notificationService;
+    this.staffDirectoryService = staffDirectoryService;
   }
 
   /**
@@ -223,7 +226,9 @@ public class UserService {
       }
     }
 
-    return createUserFromRequest(req);
+    User staff = createUserFromRequest(req);
+    staffDirectoryService.evict(staff.getId());
+    return staff;
   }
 
   /**
@@ -383,6 +388,8 @@ public class UserService {
       }
     }
 
-    return userRepository.saveAndFlush(user);
+    User updated = userRepository.saveAndFlush(user);
+    staffDirectoryService.evict(updated.getId());
+    return updated;
   }
 }
@@ -0,0 +1,51 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit Tests for AnnuityCalculator: faktor bertahap harus sama dengan rumus pangkat langsung */
+@DisplayName("AnnuityCalculator Unit Tests")
+class AnnuityCalculatorTest {
+
+  @Test
+  @DisplayName("should compute the textbook annuity installment")
+  void shouldComputeInstallment_forKnownLoan() {
+    // 10,000,000 at 1.5%/month for 12 months -> 916,799.93 per month
+    assertThat(
+            AnnuityCalculator.installmentCents(
+                1_000_000_000L, AnnuityCalculator.factor(1_500_000L, 12)))
+        .isEqualTo(91_679_993L);
+  }
+
+  @Test
+  @DisplayName("should match r / (1 - (1 + r)^-n) for every tenor in the table")
+  void shouldMatchDirectPow_forEveryTenor() {
+    // Arrange
+    MathContext mc = MathContext.DECIMAL128;
+    BigDecimal rate = new BigDecimal("0.0175");
+    BigDecimal[] factors = AnnuityCalculator.factors(1_750_000L, 60);
+
+    // Act & Assert
+    for (int tenor = 1; tenor <= 60; tenor++) {
+      BigDecimal compounded = BigDecimal.ONE.add(rate).pow(tenor, mc);
+      BigDecimal expected =
+          rate.multiply(compounded, mc).divide(compounded.subtract(BigDecimal.ONE), mc);
+      assertThat(factors[tenor].subtract(expected).abs())
+          .as("tenor %d", tenor)
+          .isLessThan(new BigDecimal("1E-25"));
+    }
+  }
+
+  @Test
+  @DisplayName("should split the principal evenly when the rate is zero")
+  void shouldDivideEvenly_whenRateIsZero() {
+    assertThat(AnnuityCalculator.installmentCents(120_000L, AnnuityCalculator.factor(0L, 12)))
+        .isEqualTo(10_000L);
+    assertThatThrownBy(() -> AnnuityCalculator.factors(1_000_000L, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
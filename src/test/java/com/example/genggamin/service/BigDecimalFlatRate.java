@@ -0,0 +1,31 @@
+package com.example.genggamin.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Perhitungan flat rate BigDecimal yang dipakai simulateLoan sebelum FlatRateCalculator, disimpan
+ * sebagai acuan untuk property test dan benchmark.
+ */
+final class BigDecimalFlatRate {
+
+  /** totalInterest, totalPayment dan monthlyInstallment, semuanya scale 2 */
+  record Result(BigDecimal totalInterest, BigDecimal totalPayment, BigDecimal monthlyInstallment) {}
+
+  private BigDecimalFlatRate() {}
+
+  static Result calculate(BigDecimal principal, BigDecimal monthlyRatePercent, long tenor) {
+    BigDecimal tenorMonths = BigDecimal.valueOf(tenor);
+    BigDecimal monthlyRateDecimal =
+        monthlyRatePercent.divide(BigDecimal.valueOf(100), 8, RoundingMode.HALF_UP);
+
+    BigDecimal totalInterest =
+        principal
+            .multiply(monthlyRateDecimal)
+            .multiply(tenorMonths)
+            .setScale(2, RoundingMode.HALF_UP);
+    BigDecimal totalPayment = principal.add(totalInterest).setScale(2, RoundingMode.HALF_UP);
+    BigDecimal monthlyInstallment = totalPayment.divide(tenorMonths, 2, RoundingMode.HALF_UP);
+    return new Result(totalInterest, totalPayment, monthlyInstallment);
+  }
+}
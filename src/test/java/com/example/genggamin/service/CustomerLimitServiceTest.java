@@ -0,0 +1,206 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+import com.example.genggamin.entity.Customer;
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.repository.CustomerLimitRepository;
+import com.example.genggamin.repository.CustomerLimitRepository.LedgerMismatchView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+/** Unit Tests for CustomerLimitService: restore limit atomik dan verifikasi ledger */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomerLimitService Unit Tests")
+class CustomerLimitServiceTest {
+
+  @Mock private CustomerLimitRepository customerLimitRepository;
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private CustomerLimitService customerLimitService;
+
+  private Loan rejectedLoan;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    customerLimitService =
+        new CustomerLimitService(customerLimitRepository, jdbcTemplate, meterRegistry);
+
+    Customer customer = new Customer();
+    customer.setId(10L);
+    rejectedLoan =
+        Loan.builder()
+            .id(1L)
+            .customer(customer)
+            .plafondId(2L)
+            .amount(new BigDecimal("5000000"))
+            .status(LoanStatus.REJECTED)
+            .build();
+  }
+
+  // =========================================================================
+  // Tests for restoreLimit()
+  // =========================================================================
+  @Nested
+  @DisplayName("restoreLimit()")
+  class RestoreLimitTests {
+
+    @Test
+    @DisplayName("should add the loan amount back with a single update")
+    void shouldRestoreLimit_withAtomicUpdate() {
+      // Arrange
+      given(
+              jdbcTemplate.update(
+                  startsWith("UPDATE customer_limits SET available_limit = available_limit + ?"),
+                  eq(new BigDecimal("5000000")),
+                  any(Timestamp.class),
+                  eq(10L),
+                  eq(2L)))
+          .willReturn(1);
+
+      // Act
+      customerLimitService.restoreLimit(rejectedLoan);
+
+      // Assert
+      verify(customerLimitRepository, never()).findByCustomer_IdAndPlafond_Id(any(), any());
+      verify(customerLimitRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("should throw when the customer has no limit row for the plafond")
+    void shouldThrowException_whenLimitMissing() {
+      // Arrange
+      given(jdbcTemplate.update(anyString(), any(), any(), any(), any())).willReturn(0);
+
+      // Act & Assert
+      assertThatThrownBy(() -> customerLimitService.restoreLimit(rejectedLoan))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessage("Customer limit not found");
+    }
+  }
+
+  // =========================================================================
+  // Tests for restoreLimits()
+  // =========================================================================
+  @Nested
+  @DisplayName("restoreLimits()")
+  class RestoreLimitsTests {
+
+    @Test
+    @DisplayName("should restore every rejected loan in one JDBC batch with the same statement")
+    @SuppressWarnings("unchecked")
+    void shouldRestoreLimits_inOneBatch() throws Exception {
+      // Arrange
+      Loan second = loanOf(3L, 11L, "2000000");
+      given(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any()))
+          .willReturn(new int[][] {{1, 1}});
+
+      // Act
+      customerLimitService.restoreLimits(List.of(rejectedLoan, second));
+
+      // Assert
+      ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+      ArgumentCaptor<ParameterizedPreparedStatementSetter<Loan>> setter =
+          ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+      verify(jdbcTemplate)
+          .batchUpdate(sql.capture(), eq(List.of(rejectedLoan, second)), eq(50), setter.capture());
+      assertThat(sql.getValue())
+          .startsWith("UPDATE customer_limits SET available_limit = available_limit + ?");
+
+      PreparedStatement ps = mock(PreparedStatement.class);
+      setter.getValue().setValues(ps, second);
+      verify(ps).setBigDecimal(1, new BigDecimal("2000000"));
+      verify(ps).setLong(3, 11L);
+      verify(ps).setLong(4, 2L);
+      verify(customerLimitRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("should name the loan whose limit row is missing")
+    void shouldThrowException_whenLimitMissingInBatch() {
+      // Arrange
+      given(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any()))
+          .willReturn(new int[][] {{1, 0}});
+
+      // Act & Assert
+      assertThatThrownBy(
+              () ->
+                  customerLimitService.restoreLimits(
+                      List.of(rejectedLoan, loanOf(3L, 11L, "2000000"))))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessage("Customer limit not found for loan id: 3");
+    }
+
+    @Test
+    @DisplayName("should not touch the database when nothing was rejected")
+    void shouldDoNothing_whenNoLoans() {
+      // Act
+      customerLimitService.restoreLimits(List.of());
+
+      // Assert
+      verifyNoInteractions(jdbcTemplate);
+    }
+  }
+
+  // =========================================================================
+  // Tests for verifyLedger()
+  // =========================================================================
+  @Nested
+  @DisplayName("verifyLedger()")
+  class VerifyLedgerTests {
+
+    @Test
+    @DisplayName("should report mismatches through the ledger gauge")
+    void shouldExposeMismatchCount_asGauge() {
+      // Arrange
+      LedgerMismatchView mismatch = mock(LedgerMismatchView.class);
+      given(customerLimitRepository.findLedgerMismatches(LoanStatus.REJECTED))
+          .willReturn(List.of(mismatch));
+
+      // Act
+      List<LedgerMismatchView> result = customerLimitService.verifyLedger();
+
+      // Assert
+      assertThat(result).hasSize(1);
+      assertThat(meterRegistry.get("customer.limit.ledger.mismatches").gauge().value())
+          .isEqualTo(1);
+    }
+  }
+
+  private Loan loanOf(Long id, Long customerId, String amount) {
+    Customer customer = new Customer();
+    customer.setId(customerId);
+    return Loan.builder()
+        .id(id)
+        .customer(customer)
+        .plafondId(2L)
+        .amount(new BigDecimal(amount))
+        .status(LoanStatus.REJECTED)
+        .build();
+  }
+}
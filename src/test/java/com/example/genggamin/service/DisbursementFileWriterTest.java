@@ -0,0 +1,173 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.genggamin.enums.DisbursementFileFormat;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit Tests for DisbursementFileWriter: format CSV/fixed-width dan rollback per chunk */
+@DisplayName("DisbursementFileWriter Unit Tests")
+class DisbursementFileWriterTest {
+
+  private static final LocalDate DATE = LocalDate.of(2026, 1, 15);
+
+  @TempDir Path tempDir;
+
+  private DisbursementFileWriter.Transfer transfer(Long loanId, String holder, String amount) {
+    return new DisbursementFileWriter.Transfer(
+        loanId, "1234567890", holder, new BigDecimal(amount));
+  }
+
+  // =========================================================================
+  // Tests for CSV format
+  // =========================================================================
+  @Nested
+  @DisplayName("CSV")
+  class CsvTests {
+
+    @Test
+    @DisplayName("should write a header and one quoted-when-needed row per transfer")
+    void shouldWriteCsvRows() throws Exception {
+      // Arrange
+      Path file = tempDir.resolve("batch.csv");
+
+      // Act
+      try (DisbursementFileWriter writer =
+          DisbursementFileWriter.create(file, DisbursementFileFormat.CSV, "DB1", DATE)) {
+        writer.write(transfer(7L, "Budi, Santoso", "5000000"));
+        writer.finish(1, new BigDecimal("5000000"));
+      }
+
+      // Assert
+      assertThat(Files.readAllLines(file))
+          .containsExactly(
+              "reference,loan_id,account_number,account_holder,amount",
+              "DB1-7,7,1234567890,\"Budi, Santoso\",5000000.00");
+    }
+
+    @Test
+    @DisplayName("should quote carriage returns and neutralise formula-like fields")
+    void shouldEscapeCarriageReturn_andFormulas() throws Exception {
+      // Arrange
+      Path file = tempDir.resolve("escape.csv");
+
+      // Act
+      try (DisbursementFileWriter writer =
+          DisbursementFileWriter.create(file, DisbursementFileFormat.CSV, "DB1", DATE)) {
+        writer.write(transfer(1L, "Ani\rSari", "100"));
+        writer.write(transfer(2L, "=HYPERLINK(\"http://x\")", "100"));
+        writer.write(transfer(3L, "+62 Budi", "100"));
+        writer.write(transfer(4L, "-Citra", "100"));
+        writer.write(transfer(5L, "@SUM(A1)", "100"));
+        writer.finish(5, new BigDecimal("500"));
+      }
+
+      // Assert
+      String content = Files.readString(file);
+      assertThat(content)
+          .contains("DB1-1,1,1234567890,\"Ani\rSari\",100.00")
+          .contains("DB1-2,2,1234567890,\"'=HYPERLINK(\"\"http://x\"\")\",100.00")
+          .contains("DB1-3,3,1234567890,'+62 Budi,100.00")
+          .contains("DB1-4,4,1234567890,'-Citra,100.00")
+          .contains("DB1-5,5,1234567890,'@SUM(A1),100.00");
+    }
+
+    @Test
+    @DisplayName("should drop the rows of a chunk that was rolled back")
+    void shouldDropRows_whenRolledBack() throws Exception {
+      // Arrange
+      Path file = tempDir.resolve("rollback.csv");
+
+      // Act
+      try (DisbursementFileWriter writer =
+          DisbursementFileWriter.create(file, DisbursementFileFormat.CSV, "DB1", DATE)) {
+        writer.write(transfer(1L, "Ani", "100"));
+        long mark = writer.mark();
+        writer.write(transfer(2L, "Budi", "200"));
+        writer.mark();
+        writer.rollbackTo(mark);
+        writer.write(transfer(3L, "Citra", "300"));
+        writer.finish(2, new BigDecimal("400"));
+      }
+
+      // Assert
+      List<String> lines = Files.readAllLines(file);
+      assertThat(lines).hasSize(3);
+      assertThat(lines.get(1)).startsWith("DB1-1,");
+      assertThat(lines.get(2)).startsWith("DB1-3,");
+    }
+  }
+
+  // =========================================================================
+  // Tests for FIXED_WIDTH format
+  // =========================================================================
+  @Nested
+  @DisplayName("FIXED_WIDTH")
+  class FixedWidthTests {
+
+    @Test
+    @DisplayName("should write 100-character header, detail and trailer records")
+    void shouldWriteFixedWidthRecords() throws Exception {
+      // Arrange
+      Path file = tempDir.resolve("batch.txt");
+
+      // Act
+      try (DisbursementFileWriter writer =
+          DisbursementFileWriter.create(file, DisbursementFileFormat.FIXED_WIDTH, "DB1", DATE)) {
+        writer.write(transfer(7L, "Séno", "1500000.50"));
+        writer.finish(1, new BigDecimal("1500000.50"));
+      }
+
+      // Assert
+      List<String> lines = Files.readAllLines(file);
+      assertThat(lines).hasSize(3).allSatisfy(line -> assertThat(line).hasSize(100));
+      assertThat(lines.get(0)).startsWith("HDB1" + " ".repeat(17) + "20260115");
+      assertThat(lines.get(1))
+          .startsWith("DDB1-7")
+          .contains("1234567890")
+          .contains("Seno ")
+          .contains("000000150000050");
+      assertThat(lines.get(2)).startsWith("T0000000001000000000150000050");
+    }
+
+    @Test
+    @DisplayName("should reject an account number that does not fit instead of truncating it")
+    void shouldReject_whenAccountNumberTooLong() throws Exception {
+      // Arrange
+      Path file = tempDir.resolve("long-account.txt");
+      String account = "123456789012345678901"; // 21 digits
+
+      // Act & Assert
+      try (DisbursementFileWriter writer =
+          DisbursementFileWriter.create(file, DisbursementFileFormat.FIXED_WIDTH, "DB1", DATE)) {
+        assertThatThrownBy(
+                () ->
+                    writer.write(
+                        new DisbursementFileWriter.Transfer(
+                            7L, account, "Budi", new BigDecimal("100"))))
+            .isInstanceOf(IllegalArgumentException.class);
+        writer.finish(0, BigDecimal.ZERO);
+      }
+      assertThat(Files.readAllLines(file)).hasSize(2).noneMatch(line -> line.contains("12345"));
+    }
+
+    @Test
+    @DisplayName("should only accept non-empty plain ASCII account numbers up to 20 characters")
+    void shouldValidateAccountNumbers() {
+      assertThat(DisbursementFileWriter.isValidAccountNumber("12345678901234567890")).isTrue();
+      assertThat(DisbursementFileWriter.isValidAccountNumber("123456789012345678901")).isFalse();
+      assertThat(DisbursementFileWriter.isValidAccountNumber("1234 5678")).isFalse();
+      assertThat(DisbursementFileWriter.isValidAccountNumber("１２３４")).isFalse();
+      assertThat(DisbursementFileWriter.isValidAccountNumber("")).isFalse();
+      assertThat(DisbursementFileWriter.isValidAccountNumber(null)).isFalse();
+    }
+  }
+}
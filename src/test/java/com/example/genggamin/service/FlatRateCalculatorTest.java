@@ -0,0 +1,115 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Property tests for FlatRateCalculator: hasil dalam sen harus identik dengan perhitungan
+ * BigDecimal lama untuk input acak (seed tetap supaya kegagalan bisa direproduksi).
+ */
+@DisplayName("FlatRateCalculator Unit Tests")
+class FlatRateCalculatorTest {
+
+  private static final int SAMPLES = 200_000;
+
+  /** Bandingkan satu input dengan acuan BigDecimal */
+  private static void assertEquivalent(long principalCents, BigDecimal ratePercent, long tenor) {
+    BigDecimalFlatRate.Result expected =
+        BigDecimalFlatRate.calculate(BigDecimal.valueOf(principalCents, 2), ratePercent, tenor);
+
+    long interest =
+        FlatRateCalculator.totalInterestCents(
+            principalCents, FlatRateCalculator.toRateMicros(ratePercent), tenor);
+    long payment = principalCents + interest;
+    long installment = FlatRateCalculator.installmentCents(payment, tenor);
+
+    String input = principalCents + " cents, " + ratePercent + "%, " + tenor + " months";
+    assertThat(FlatRateCalculator.toAmount(interest))
+        .as("totalInterest for %s", input)
+        .isEqualTo(expected.totalInterest());
+    assertThat(FlatRateCalculator.toAmount(payment))
+        .as("totalPayment for %s", input)
+        .isEqualTo(expected.totalPayment());
+    assertThat(FlatRateCalculator.toAmount(installment))
+        .as("monthlyInstallment for %s", input)
+        .isEqualTo(expected.monthlyInstallment());
+  }
+
+  // =========================================================================
+  // Equivalence with the BigDecimal implementation
+  // =========================================================================
+  @Nested
+  @DisplayName("equivalence with BigDecimal")
+  class EquivalenceTests {
+
+    @Test
+    @DisplayName("should match for random amounts, rates with up to 4 decimals and tenors")
+    void shouldMatchBigDecimal_forRandomInputs() {
+      Random random = new Random(20260118L);
+      for (int i = 0; i < SAMPLES; i++) {
+        long principalCents = 1 + (long) (random.nextDouble() * 1_000_000_000_000L);
+        BigDecimal rate = BigDecimal.valueOf(random.nextInt(100_000), 4); // 0.0000 - 9.9999 %
+        long tenor = 1 + random.nextInt(360);
+        assertEquivalent(principalCents, rate, tenor);
+      }
+    }
+
+    @Test
+    @DisplayName("should match when the rate has more decimals than the 8-digit rate scale")
+    void shouldMatchBigDecimal_whenRateNeedsRounding() {
+      Random random = new Random(7L);
+      for (int i = 0; i < SAMPLES; i++) {
+        long principalCents = 1 + random.nextInt(2_000_000_000);
+        BigDecimal rate = BigDecimal.valueOf(random.nextInt(1_000_000_000), 8);
+        long tenor = 1 + random.nextInt(60);
+        assertEquivalent(principalCents, rate, tenor);
+      }
+    }
+
+    @Test
+    @DisplayName("should round exact half cents up like HALF_UP")
+    void shouldMatchBigDecimal_onTies() {
+      // 0.5 cent interest: 1.00 x 0.5% x 1
+      assertEquivalent(100L, new BigDecimal("0.5"), 1);
+      // installment exactly x.xx5: 0.05 over 2 months
+      assertEquivalent(5L, BigDecimal.ZERO, 2);
+      // every small combination around the rounding boundary
+      for (long cents = 1; cents <= 2_000; cents++) {
+        for (long tenor = 1; tenor <= 24; tenor++) {
+          assertEquivalent(cents, new BigDecimal("1.25"), tenor);
+          assertEquivalent(cents, new BigDecimal("2.125"), tenor);
+        }
+      }
+    }
+  }
+
+  // =========================================================================
+  // Tests for divideHalfUp() and range checks
+  // =========================================================================
+  @Nested
+  @DisplayName("divideHalfUp() and overflow")
+  class ArithmeticTests {
+
+    @Test
+    @DisplayName("should round half away from zero for negative values")
+    void shouldRoundHalfAwayFromZero() {
+      assertThat(FlatRateCalculator.divideHalfUp(5, 2)).isEqualTo(3);
+      assertThat(FlatRateCalculator.divideHalfUp(-5, 2)).isEqualTo(-3);
+      assertThat(FlatRateCalculator.divideHalfUp(4, 3)).isEqualTo(1);
+      assertThat(FlatRateCalculator.divideHalfUp(-4, 3)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("should throw instead of overflowing on out-of-range input")
+    void shouldThrow_whenOutOfRange() {
+      assertThatThrownBy(
+              () -> FlatRateCalculator.totalInterestCents(Long.MAX_VALUE / 2, 1_500_000L, 12))
+          .isInstanceOf(ArithmeticException.class);
+    }
+  }
+}
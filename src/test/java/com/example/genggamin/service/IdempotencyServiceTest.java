@@ -0,0 +1,181 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+import com.example.genggamin.dto.ApiResponse;
+import com.example.genggamin.dto.LoanRequest;
+import com.example.genggamin.dto.LoanResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Unit Tests for IdempotencyService: replay, lock untuk duplikat bersamaan, dan fingerprint */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyService Unit Tests")
+class IdempotencyServiceTest {
+
+  private static final TypeReference<ApiResponse<LoanResponse>> TYPE = new TypeReference<>() {};
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private ValueOperations<String, String> valueOperations;
+
+  private IdempotencyService idempotencyService;
+
+  private LoanRequest request;
+  private AtomicInteger calls;
+  private Supplier<ResponseEntity<ApiResponse<LoanResponse>>> action;
+
+  @BeforeEach
+  void setUp() {
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    idempotencyService = new IdempotencyService(stringRedisTemplate, objectMapper);
+    ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+    ReflectionTestUtils.setField(idempotencyService, "lockSeconds", 30L);
+    ReflectionTestUtils.setField(idempotencyService, "waitMillis", 200L);
+
+    request = LoanRequest.builder().plafondId(1L).amount(new BigDecimal("5000000")).build();
+    calls = new AtomicInteger();
+    action =
+        () -> {
+          calls.incrementAndGet();
+          return ResponseEntity.ok(
+              ApiResponse.<LoanResponse>builder()
+                  .success(true)
+                  .message("Loan submitted successfully")
+                  .data(LoanResponse.builder().id(7L).status("SUBMITTED").build())
+                  .build());
+        };
+  }
+
+  /** Jalankan sekali dengan Redis kosong dan kembalikan nilai yang disimpan */
+  private String firstRunStoredValue() {
+    given(stringRedisTemplate.opsForValue()).willReturn(valueOperations);
+    given(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        .willReturn(true);
+    idempotencyService.execute("loan-submit:budi", "key-1", request, TYPE, action);
+
+    ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+    verify(valueOperations)
+        .set(eq("idempotency:loan-submit:budi:key-1"), stored.capture(), any(Duration.class));
+    return stored.getValue();
+  }
+
+  // =========================================================================
+  // Tests for execute()
+  // =========================================================================
+  @Nested
+  @DisplayName("execute()")
+  class ExecuteTests {
+
+    @Test
+    @DisplayName("should run the action without Redis when no key is sent")
+    void shouldRunAction_whenNoKey() {
+      // Act
+      ResponseEntity<ApiResponse<LoanResponse>> result =
+          idempotencyService.execute("loan-submit:budi", null, request, TYPE, action);
+
+      // Assert
+      assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+      assertThat(calls).hasValue(1);
+      verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    @DisplayName("should replay the stored response without running the action again")
+    void shouldReplayStoredResponse_whenKeyReused() {
+      // Arrange
+      String stored = firstRunStoredValue();
+      given(valueOperations.get("idempotency:loan-submit:budi:key-1")).willReturn(stored);
+
+      // Act
+      ResponseEntity<ApiResponse<LoanResponse>> result =
+          idempotencyService.execute("loan-submit:budi", "key-1", request, TYPE, action);
+
+      // Assert
+      assertThat(calls).hasValue(1);
+      assertThat(result.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER))
+          .isEqualTo("true");
+      assertThat(result.getBody().getData().getId()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("should reject a reused key whose request body differs")
+    void shouldReject_whenKeyReusedWithDifferentRequest() {
+      // Arrange
+      String stored = firstRunStoredValue();
+      given(valueOperations.get("idempotency:loan-submit:budi:key-1")).willReturn(stored);
+      request.setAmount(new BigDecimal("9000000"));
+
+      // Act
+      ResponseEntity<ApiResponse<LoanResponse>> result =
+          idempotencyService.execute("loan-submit:budi", "key-1", request, TYPE, action);
+
+      // Assert
+      assertThat(result.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+      assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("should return 409 when a duplicate is still in flight")
+    void shouldReturnConflict_whenLockHeldByAnotherRequest() {
+      // Arrange
+      given(stringRedisTemplate.opsForValue()).willReturn(valueOperations);
+      given(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+          .willReturn(false);
+
+      // Act
+      ResponseEntity<ApiResponse<LoanResponse>> result =
+          idempotencyService.execute("loan-submit:budi", "key-1", request, TYPE, action);
+
+      // Assert
+      assertThat(result.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+      assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("should replay when the first request finished between the check and the lock")
+    void shouldReplay_whenResultStoredBeforeLockAcquired() {
+      // Arrange: request A runs to completion and releases its lock
+      String stored = firstRunStoredValue();
+      // Request B read "no result" before A stored it, then got the lock A released
+      given(valueOperations.get("idempotency:loan-submit:budi:key-1")).willReturn(null, stored);
+
+      // Act
+      ResponseEntity<ApiResponse<LoanResponse>> result =
+          idempotencyService.execute("loan-submit:budi", "key-1", request, TYPE, action);
+
+      // Assert: B replays A's response instead of submitting a second loan
+      assertThat(calls).hasValue(1);
+      assertThat(result.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER))
+          .isEqualTo("true");
+      assertThat(result.getBody().getData().getId()).isEqualTo(7L);
+      verify(valueOperations, times(2))
+          .setIfAbsent(eq("idempotency:loan-submit:budi:key-1:lock"), anyString(), any());
+      verify(stringRedisTemplate, times(2)).execute(any(), anyList(), any());
+    }
+  }
+}
@@ -0,0 +1,403 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+import com.example.genggamin.dto.BulkLoanActionItem;
+import com.example.genggamin.dto.BulkLoanActionRequest;
+import com.example.genggamin.dto.BulkLoanActionResponse;
+import com.example.genggamin.dto.BulkLoanActionResult;
+import com.example.genggamin.entity.Customer;
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.entity.LoanDisbursement;
+import com.example.genggamin.entity.User;
+import com.example.genggamin.event.LoanTransitionEvent;
+import com.example.genggamin.repository.LoanDisbursementRepository;
+import com.example.genggamin.repository.LoanRepository;
+import com.example.genggamin.repository.UserRepository;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+/** Unit Tests for LoanBulkService: validasi per loan, batch insert per tahap, restore limit */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoanBulkService Unit Tests")
+class LoanBulkServiceTest {
+
+  @Mock private LoanRepository loanRepository;
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private LoanDisbursementRepository loanDisbursementRepository;
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @Mock private LoanTimelineService loanTimelineService;
+
+  @Mock private RepaymentScheduleService repaymentScheduleService;
+
+  @Mock private LoanStateMachine loanStateMachine;
+
+  @Mock private OutboxService outboxService;
+
+  @Mock private CustomerLimitService customerLimitService;
+
+  private LoanBulkService loanBulkService;
+
+  private User staff;
+
+  @BeforeEach
+  void setUp() {
+    loanBulkService =
+        new LoanBulkService(
+            loanRepository,
+            userRepository,
+            loanDisbursementRepository,
+            jdbcTemplate,
+            loanTimelineService,
+            repaymentScheduleService,
+            loanStateMachine,
+            outboxService,
+            customerLimitService);
+
+    staff = User.builder().id(7L).username("staff1").build();
+    given(userRepository.findByUsername("staff1")).willReturn(Optional.of(staff));
+  }
+
+  // =========================================================================
+  // Tests for per-loan validation
+  // =========================================================================
+  @Nested
+  @DisplayName("skipped and conflicting loans")
+  class ValidationTests {
+
+    @Test
+    @DisplayName("should report every ineligible loan and process only the eligible one")
+    void shouldReportIneligibleLoans_andProcessTheRest() {
+      // Arrange
+      givenLockedLoans(loan(2L, LoanStatus.SUBMITTED), loan(3L, LoanStatus.UNDER_REVIEW));
+      givenTransitionsSucceed();
+      givenBatchesSucceed();
+      BulkLoanActionRequest request =
+          request(
+              review(1L, "APPROVE"),
+              review(2L, "APPROVE"),
+              review(3L, "APPROVE"),
+              review(4L, "HOLD"),
+              review(1L, "REJECT"),
+              review(99L, "APPROVE"));
+
+      // Act
+      BulkLoanActionResponse response = loanBulkService.reviewLoans("staff1", request);
+
+      // Assert
+      assertThat(response.getSucceeded()).isEqualTo(1);
+      assertThat(response.getFailed()).isEqualTo(4);
+      assertThat(response.getResults())
+          .extracting(BulkLoanActionResult::getLoanId, BulkLoanActionResult::getMessage)
+          .containsExactly(
+              tuple(1L, "Duplicate loan id in request"),
+              tuple(2L, "Loan processed successfully"),
+              tuple(3L, "Loan is not in SUBMITTED status"),
+              tuple(4L, "Invalid action. Must be APPROVE or REJECT"),
+              tuple(99L, "Loan not found"));
+      verify(loanStateMachine)
+          .transitionAll(
+              eq(List.of(2L)), eq(LoanStatus.SUBMITTED), eq(LoanStatus.UNDER_REVIEW), any());
+    }
+
+    @Test
+    @DisplayName("should skip loans that already have a disbursement row")
+    void shouldSkipAlreadyDisbursedLoans() {
+      // Arrange
+      givenLockedLoans(loan(1L, LoanStatus.APPROVED), loan(2L, LoanStatus.APPROVED));
+      LoanDisbursement existing = new LoanDisbursement();
+      existing.setLoanId(1L);
+      given(loanDisbursementRepository.findByLoanIdIn(List.of(1L, 2L)))
+          .willReturn(List.of(existing));
+      givenTransitionsSucceed();
+      givenBatchesSucceed();
+
+      // Act
+      BulkLoanActionResponse response =
+          loanBulkService.disburseLoans(
+              "staff1", request(disburse(1L, "1234567890"), disburse(2L, "1234567890")));
+
+      // Assert
+      assertThat(response.getResults())
+          .extracting(BulkLoanActionResult::getLoanId, BulkLoanActionResult::isSuccess)
+          .containsExactly(tuple(1L, false), tuple(2L, true));
+      assertThat(response.getResults().get(0).getMessage())
+          .isEqualTo("Loan has already been disbursed");
+      verify(loanStateMachine)
+          .transitionAll(eq(List.of(2L)), eq(LoanStatus.APPROVED), eq(LoanStatus.DISBURSED), any());
+    }
+
+    @Test
+    @DisplayName("should not touch the database when no loan is eligible")
+    void shouldSkipWrites_whenNothingEligible() {
+      // Arrange
+      givenLockedLoans(loan(1L, LoanStatus.DISBURSED));
+
+      // Act
+      BulkLoanActionResponse response =
+          loanBulkService.approveLoans("staff1", request(approval(1L, true)));
+
+      // Assert
+      assertThat(response.getFailed()).isEqualTo(1);
+      verifyNoInteractions(loanStateMachine, jdbcTemplate, loanTimelineService, outboxService);
+    }
+
+    @Test
+    @DisplayName("should fail the batch when the status changed under the lock")
+    void shouldThrow_whenTransitionCountDiffers() {
+      // Arrange
+      givenLockedLoans(loan(1L, LoanStatus.SUBMITTED), loan(2L, LoanStatus.SUBMITTED));
+      given(loanStateMachine.transitionAll(anyCollection(), any(), any(), any())).willReturn(1);
+
+      // Act & Assert
+      assertThatThrownBy(
+              () ->
+                  loanBulkService.reviewLoans(
+                      "staff1", request(review(1L, "APPROVE"), review(2L, "APPROVE"))))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessage("Loan status changed concurrently, please retry");
+      verifyNoInteractions(jdbcTemplate, outboxService);
+    }
+  }
+
+  // =========================================================================
+  // Tests for restoring the customer limit of rejected loans
+  // =========================================================================
+  @Nested
+  @DisplayName("limit restore")
+  class LimitRestoreTests {
+
+    @Test
+    @DisplayName("should hand only the rejected loans to CustomerLimitService")
+    @SuppressWarnings("unchecked")
+    void shouldRestoreLimit_forRejectedLoansOnly() throws Exception {
+      // Arrange
+      givenLockedLoans(loan(1L, LoanStatus.UNDER_REVIEW), loan(2L, LoanStatus.UNDER_REVIEW));
+      givenTransitionsSucceed();
+      givenBatchesSucceed();
+
+      // Act
+      loanBulkService.approveLoans("staff1", request(approval(1L, false), approval(2L, true)));
+
+      // Assert
+      ArgumentCaptor<List<Loan>> restored = ArgumentCaptor.forClass(List.class);
+      verify(customerLimitService).restoreLimits(restored.capture());
+      assertThat(restored.getValue()).extracting(Loan::getId).containsExactly(1L);
+      assertThat(rowsOf("UPDATE customer_limits")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should fail the batch when a rejected loan has no customer limit row")
+    void shouldThrow_whenCustomerLimitMissing() {
+      // Arrange
+      givenLockedLoans(loan(1L, LoanStatus.SUBMITTED), loan(2L, LoanStatus.SUBMITTED));
+      givenTransitionsSucceed();
+      givenBatchesSucceed();
+      willThrow(new RuntimeException("Customer limit not found for loan id: 2"))
+          .given(customerLimitService)
+          .restoreLimits(anyList());
+
+      // Act & Assert
+      assertThatThrownBy(
+              () ->
+                  loanBulkService.reviewLoans(
+                      "staff1", request(review(1L, "REJECT"), review(2L, "REJECT"))))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessage("Customer limit not found for loan id: 2");
+      verifyNoInteractions(outboxService);
+    }
+  }
+
+  // =========================================================================
+  // Tests for the detail rows inserted per stage
+  // =========================================================================
+  @Nested
+  @DisplayName("per-stage batch inserts")
+  class BatchInsertTests {
+
+    @Test
+    @DisplayName("should insert one loan_reviews row per reviewed loan")
+    void shouldInsertReviewRows() throws Exception {
+      // Arrange
+      givenLockedLoans(loan(1L, LoanStatus.SUBMITTED), loan(2L, LoanStatus.SUBMITTED));
+      givenTransitionsSucceed();
+      givenBatchesSucceed();
+
+      // Act
+      loanBulkService.reviewLoans("staff1", request(review(1L, "APPROVE"), review(2L, "REJECT")));
+
+      // Assert
+      List<PreparedStatement> rows = rowsOf("INSERT INTO loan_reviews");
+      assertThat(rows).hasSize(2);
+      verify(rows.get(0)).setLong(1, 1L);
+      verify(rows.get(0)).setLong(2, 7L);
+      verify(rows.get(0)).setString(4, "APPROVED");
+      verify(rows.get(1)).setLong(1, 2L);
+      verify(rows.get(1)).setString(4, "REJECTED");
+      verify(outboxService).append(any(LoanTransitionEvent.class));
+    }
+
+    @Test
+    @DisplayName("should insert one loan_approvals row per decided loan")
+    void shouldInsertApprovalRows() throws Exception {
+      // Arrange
+      givenLockedLoans(loan(1L, LoanStatus.UNDER_REVIEW), loan(2L, LoanStatus.UNDER_REVIEW));
+      givenTransitionsSucceed();
+      givenBatchesSucceed();
+
+      // Act
+      loanBulkService.approveLoans("staff1", request(approval(1L, true), approval(2L, false)));
+
+      // Assert
+      List<PreparedStatement> rows = rowsOf("INSERT INTO loan_approvals");
+      assertThat(rows).hasSize(2);
+      verify(rows.get(0)).setString(3, "APPROVED");
+      verify(rows.get(1)).setString(3, "REJECTED");
+      verify(loanStateMachine)
+          .transitionAll(
+              eq(List.of(1L)), eq(LoanStatus.UNDER_REVIEW), eq(LoanStatus.APPROVED), any());
+      verify(loanStateMachine)
+          .transitionAll(
+              eq(List.of(2L)), eq(LoanStatus.UNDER_REVIEW), eq(LoanStatus.REJECTED), any());
+    }
+
+    @Test
+    @DisplayName("should insert disbursements, add debt and generate schedules in batches")
+    void shouldInsertDisbursementRows() throws Exception {
+      // Arrange
+      givenLockedLoans(loan(1L, LoanStatus.APPROVED), loan(2L, LoanStatus.APPROVED));
+      given(loanDisbursementRepository.findByLoanIdIn(List.of(1L, 2L))).willReturn(List.of());
+      givenTransitionsSucceed();
+      givenBatchesSucceed();
+
+      // Act
+      BulkLoanActionResponse response =
+          loanBulkService.disburseLoans(
+              "staff1", request(disburse(1L, "1111111111"), disburse(2L, "2222222222")));
+
+      // Assert
+      assertThat(response.getSucceeded()).isEqualTo(2);
+      List<PreparedStatement> disbursements = rowsOf("INSERT INTO loan_disbursements");
+      assertThat(disbursements).hasSize(2);
+      verify(disbursements.get(0)).setString(5, "1111111111");
+      verify(disbursements.get(1)).setString(5, "2222222222");
+      List<PreparedStatement> debts = rowsOf("UPDATE customers");
+      assertThat(debts).hasSize(2);
+      verify(debts.get(0)).setBigDecimal(1, new BigDecimal("1000000"));
+      verify(debts.get(0)).setLong(2, 10L);
+      verify(repaymentScheduleService).generate(anyList(), any());
+      verify(outboxService).append(any(LoanTransitionEvent.class));
+    }
+  }
+
+  // =========================================================================
+  // Helpers
+  // =========================================================================
+
+  private void givenLockedLoans(Loan... loans) {
+    given(loanRepository.findAllByIdForUpdate(anyCollection())).willReturn(Arrays.asList(loans));
+  }
+
+  private void givenTransitionsSucceed() {
+    given(loanStateMachine.transitionAll(anyCollection(), any(), any(), any()))
+        .willAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+  }
+
+  /** Setiap batch melaporkan satu baris ter-update per item */
+  private void givenBatchesSucceed() {
+    given(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any()))
+        .willAnswer(
+            invocation -> {
+              int[] counts = new int[invocation.<List<?>>getArgument(1).size()];
+              Arrays.fill(counts, 1);
+              return new int[][] {counts};
+            });
+  }
+
+  /**
+   * Jalankan setter batch milik statement yang diawali {@code sqlPrefix} terhadap satu
+   * PreparedStatement mock per baris, sehingga nilai yang di-bind bisa diverifikasi.
+   */
+  @SuppressWarnings("unchecked")
+  private List<PreparedStatement> rowsOf(String sqlPrefix) throws Exception {
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Collection<Object>> args = ArgumentCaptor.forClass(Collection.class);
+    ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+        ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+    verify(jdbcTemplate, atLeastOnce())
+        .batchUpdate(sql.capture(), args.capture(), eq(50), setter.capture());
+
+    List<PreparedStatement> rows = new ArrayList<>();
+    for (int i = 0; i < sql.getAllValues().size(); i++) {
+      if (sql.getAllValues().get(i).startsWith(sqlPrefix)) {
+        for (Object row : args.getAllValues().get(i)) {
+          PreparedStatement ps = mock(PreparedStatement.class);
+          setter.getAllValues().get(i).setValues(ps, row);
+          rows.add(ps);
+        }
+      }
+    }
+    return rows;
+  }
+
+  private Loan loan(Long id, LoanStatus status) {
+    Customer customer = new Customer();
+    customer.setId(10L);
+    return Loan.builder()
+        .id(id)
+        .customer(customer)
+        .plafondId(30L)
+        .amount(new BigDecimal("1000000"))
+        .status(status)
+        .build();
+  }
+
+  private BulkLoanActionRequest request(BulkLoanActionItem... items) {
+    return BulkLoanActionRequest.builder().items(List.of(items)).build();
+  }
+
+  private BulkLoanActionItem review(Long loanId, String action) {
+    return BulkLoanActionItem.builder().loanId(loanId).action(action).notes("ok").build();
+  }
+
+  private BulkLoanActionItem approval(Long loanId, boolean approved) {
+    return BulkLoanActionItem.builder().loanId(loanId).approved(approved).notes("ok").build();
+  }
+
+  private BulkLoanActionItem disburse(Long loanId, String bankAccount) {
+    return BulkLoanActionItem.builder()
+        .loanId(loanId)
+        .action("DISBURSE")
+        .bankAccount(bankAccount)
+        .build();
+  }
+}
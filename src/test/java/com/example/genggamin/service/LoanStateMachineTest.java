@@ -0,0 +1,184 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.repository.LoanRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Unit Tests for LoanStateMachine: tabel transisi, compare-and-set dan metric contention */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoanStateMachine Unit Tests")
+class LoanStateMachineTest {
+
+  @Mock private LoanRepository loanRepository;
+
+  @Mock private LoanStatsService loanStatsService;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private LoanStateMachine loanStateMachine;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    loanStateMachine = new LoanStateMachine(loanRepository, loanStatsService, meterRegistry);
+  }
+
+  private double transitions(String outcome) {
+    return meterRegistry.get("loan.transitions").tag("outcome", outcome).counter().count();
+  }
+
+  // =========================================================================
+  // Tests for canTransition()
+  // =========================================================================
+  @Nested
+  @DisplayName("canTransition()")
+  class CanTransitionTests {
+
+    @Test
+    @DisplayName("should allow the review, approval and disbursement steps")
+    void shouldAllowWorkflowSteps() {
+      assertThat(loanStateMachine.canTransition(LoanStatus.SUBMITTED, LoanStatus.UNDER_REVIEW))
+          .isTrue();
+      assertThat(loanStateMachine.canTransition(LoanStatus.SUBMITTED, LoanStatus.REJECTED))
+          .isTrue();
+      assertThat(loanStateMachine.canTransition(LoanStatus.UNDER_REVIEW, LoanStatus.APPROVED))
+          .isTrue();
+      assertThat(loanStateMachine.canTransition(LoanStatus.APPROVED, LoanStatus.DISBURSED))
+          .isTrue();
+    }
+
+    @Test
+    @DisplayName("should reject skipping steps or leaving a final status")
+    void shouldRejectInvalidTransitions() {
+      assertThat(loanStateMachine.canTransition(LoanStatus.SUBMITTED, LoanStatus.DISBURSED))
+          .isFalse();
+      assertThat(loanStateMachine.canTransition(LoanStatus.REJECTED, LoanStatus.APPROVED))
+          .isFalse();
+      assertThat(loanStateMachine.canTransition(LoanStatus.APPROVED, LoanStatus.REJECTED))
+          .isFalse();
+    }
+  }
+
+  // =========================================================================
+  // Tests for transition()
+  // =========================================================================
+  @Nested
+  @DisplayName("transition()")
+  class TransitionTests {
+
+    @Test
+    @DisplayName("should return the loan and count the transition when the update wins")
+    void shouldReturnLoan_whenCompareAndSetWins() {
+      // Arrange
+      Loan loan =
+          Loan.builder()
+              .id(1L)
+              .amount(new BigDecimal("1000000"))
+              .status(LoanStatus.UNDER_REVIEW)
+              .build();
+      given(
+              loanRepository.compareAndSetStatus(
+                  eq(1L), eq(LoanStatus.SUBMITTED), eq(LoanStatus.UNDER_REVIEW), any()))
+          .willReturn(1);
+      given(loanRepository.findById(1L)).willReturn(Optional.of(loan));
+
+      // Act
+      Loan result = loanStateMachine.transition(1L, LoanStatus.SUBMITTED, LoanStatus.UNDER_REVIEW);
+
+      // Assert
+      assertThat(result.getStatus()).isEqualTo(LoanStatus.UNDER_REVIEW);
+      assertThat(transitions("applied")).isEqualTo(1);
+      verify(loanStatsService).recordTransition(LoanStatus.SUBMITTED, LoanStatus.UNDER_REVIEW);
+    }
+
+    @Test
+    @DisplayName("should throw and count a conflict when another user moved the loan first")
+    void shouldThrowConflict_whenStatusAlreadyChanged() {
+      // Arrange
+      given(loanRepository.compareAndSetStatus(anyLong(), any(), any(), any())).willReturn(0);
+      given(loanRepository.findStatusById(1L)).willReturn(Optional.of(LoanStatus.UNDER_REVIEW));
+
+      // Act & Assert
+      assertThatThrownBy(
+              () -> loanStateMachine.transition(1L, LoanStatus.SUBMITTED, LoanStatus.REJECTED))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessage("Loan is not in SUBMITTED status");
+      assertThat(transitions("conflict")).isEqualTo(1);
+      verify(loanStatsService, never()).recordTransition(any(), any());
+    }
+
+    @Test
+    @DisplayName("should throw not found when the loan does not exist")
+    void shouldThrowNotFound_whenLoanMissing() {
+      // Arrange
+      given(loanRepository.compareAndSetStatus(anyLong(), any(), any(), any())).willReturn(0);
+      given(loanRepository.findStatusById(99L)).willReturn(Optional.empty());
+
+      // Act & Assert
+      assertThatThrownBy(
+              () -> loanStateMachine.transition(99L, LoanStatus.SUBMITTED, LoanStatus.REJECTED))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessage("Loan not found");
+    }
+
+    @Test
+    @DisplayName("should not touch the database for a transition outside the table")
+    void shouldRejectInvalidTransition_withoutUpdate() {
+      // Act & Assert
+      assertThatThrownBy(
+              () -> loanStateMachine.transition(1L, LoanStatus.SUBMITTED, LoanStatus.DISBURSED))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessageContaining("Invalid loan status transition");
+      verifyNoInteractions(loanRepository);
+    }
+  }
+
+  // =========================================================================
+  // Tests for transitionAll()
+  // =========================================================================
+  @Nested
+  @DisplayName("transitionAll()")
+  class TransitionAllTests {
+
+    @Test
+    @DisplayName("should count loans that were not updated as conflicts")
+    void shouldCountConflicts_whenSomeLoansNotUpdated() {
+      // Arrange
+      LocalDateTime now = LocalDateTime.now();
+      given(
+              loanRepository.transitionStatus(
+                  List.of(1L, 2L, 3L), LoanStatus.APPROVED, LoanStatus.DISBURSED, now))
+          .willReturn(2);
+
+      // Act
+      int updated =
+          loanStateMachine.transitionAll(
+              List.of(1L, 2L, 3L), LoanStatus.APPROVED, LoanStatus.DISBURSED, now);
+
+      // Assert
+      assertThat(updated).isEqualTo(2);
+      assertThat(transitions("applied")).isEqualTo(2);
+      assertThat(transitions("conflict")).isEqualTo(1);
+      verify(loanStatsService).recordTransitions(LoanStatus.APPROVED, LoanStatus.DISBURSED, 2);
+    }
+  }
+}
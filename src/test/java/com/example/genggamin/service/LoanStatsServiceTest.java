@@ -0,0 +1,152 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.entity.LoanStatusCounter;
+import com.example.genggamin.repository.LoanStatusCounterRepository;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/** Unit Tests for LoanStatsService: seed dan rekonsiliasi counter per status */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoanStatsService Unit Tests")
+class LoanStatsServiceTest {
+
+  @Mock private LoanStatusCounterRepository counterRepository;
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private ValueOperations<String, String> valueOperations;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private LoanStatsService loanStatsService;
+
+  @BeforeEach
+  void setUp() {
+    loanStatsService =
+        new LoanStatsService(
+            counterRepository, jdbcTemplate, stringRedisTemplate, transactionManager);
+    given(stringRedisTemplate.opsForValue()).willReturn(valueOperations);
+  }
+
+  // =========================================================================
+  // Tests for initializeCounters() / reconcile()
+  // =========================================================================
+  @Nested
+  @DisplayName("initializeCounters()")
+  class InitializeCountersTests {
+
+    @Test
+    @DisplayName("should seed missing rows and write the corrected count in a transaction")
+    void shouldSeedAndCorrectDrift_onStartup() {
+      // Arrange: every status has a counter, SUBMITTED is off by 2
+      givenLockAcquired(true);
+      givenCounters(3L);
+      givenActualSubmitted(5L);
+
+      // Act
+      loanStatsService.initializeCounters();
+
+      // Assert
+      verify(jdbcTemplate, times(LoanStatus.values().length))
+          .update(startsWith("INSERT INTO loan_status_counters"), anyString(), any(), anyString());
+      verify(counterRepository).setCount(eq(LoanStatus.SUBMITTED), eq(5L), any());
+      verify(counterRepository, times(1)).setCount(any(), anyLong(), any());
+      verify(transactionManager).commit(any());
+    }
+  }
+
+  @Nested
+  @DisplayName("reconcile()")
+  class ReconcileTests {
+
+    @Test
+    @DisplayName("should skip the run when another node holds the reconcile lock")
+    void shouldSkip_whenLockHeldElsewhere() {
+      // Arrange
+      givenLockAcquired(false);
+
+      // Act
+      loanStatsService.reconcile();
+
+      // Assert
+      verifyNoInteractions(jdbcTemplate, counterRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("should still reconcile when Redis is unavailable")
+    void shouldReconcile_whenRedisUnavailable() {
+      // Arrange
+      given(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+          .willThrow(new RedisConnectionFailureException("down"));
+      givenCounters(5L);
+      givenActualSubmitted(5L);
+
+      // Act
+      loanStatsService.reconcile();
+
+      // Assert
+      verify(jdbcTemplate)
+          .query(contains("WITH (TABLOCK, HOLDLOCK)"), any(RowCallbackHandler.class));
+      verify(counterRepository, never()).setCount(any(), anyLong(), any());
+    }
+  }
+
+  private void givenLockAcquired(boolean acquired) {
+    given(
+            valueOperations.setIfAbsent(
+                eq("loan-stats:reconcile:lock"), anyString(), any(Duration.class)))
+        .willReturn(acquired);
+  }
+
+  private void givenCounters(long submitted) {
+    List<LoanStatusCounter> counters =
+        Arrays.stream(LoanStatus.values())
+            .map(
+                status ->
+                    LoanStatusCounter.builder()
+                        .status(status)
+                        .count(status == LoanStatus.SUBMITTED ? submitted : 0)
+                        .build())
+            .toList();
+    given(counterRepository.findAll()).willReturn(counters);
+  }
+
+  /** COUNT(*) GROUP BY status hanya mengembalikan baris SUBMITTED */
+  private void givenActualSubmitted(long total) {
+    doAnswer(
+            invocation -> {
+              ResultSet rs = mock(ResultSet.class);
+              given(rs.getString("status")).willReturn("SUBMITTED");
+              given(rs.getLong("total")).willReturn(total);
+              invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+              return null;
+            })
+        .when(jdbcTemplate)
+        .query(anyString(), any(RowCallbackHandler.class));
+  }
+}
@@ -0,0 +1,172 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.entity.LoanApproval;
+import com.example.genggamin.entity.LoanReview;
+import com.example.genggamin.entity.LoanTimeline;
+import com.example.genggamin.repository.LoanApprovalRepository;
+import com.example.genggamin.repository.LoanDisbursementRepository;
+import com.example.genggamin.repository.LoanReviewRepository;
+import com.example.genggamin.repository.LoanTimelineRepository;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Unit Tests for LoanTimelineService: backfill baris timeline untuk loan lama */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoanTimelineService Unit Tests")
+class LoanTimelineServiceTest {
+
+  private static final LocalDateTime REVIEWED_AT = LocalDateTime.of(2026, 1, 10, 9, 0);
+  private static final LocalDateTime APPROVED_AT = LocalDateTime.of(2026, 1, 11, 9, 0);
+
+  @Mock private LoanTimelineRepository loanTimelineRepository;
+
+  @Mock private LoanReviewRepository loanReviewRepository;
+
+  @Mock private LoanApprovalRepository loanApprovalRepository;
+
+  @Mock private LoanDisbursementRepository loanDisbursementRepository;
+
+  @Mock private StaffDirectoryService staffDirectoryService;
+
+  @Mock private EntityManager entityManager;
+
+  private LoanTimelineService loanTimelineService;
+
+  private Loan loan;
+
+  @BeforeEach
+  void setUp() {
+    loanTimelineService =
+        new LoanTimelineService(
+            loanTimelineRepository,
+            loanReviewRepository,
+            loanApprovalRepository,
+            loanDisbursementRepository,
+            staffDirectoryService);
+    ReflectionTestUtils.setField(loanTimelineService, "entityManager", entityManager);
+
+    loan = Loan.builder().id(5L).status(LoanStatus.APPROVED).updatedAt(APPROVED_AT).build();
+  }
+
+  // =========================================================================
+  // Tests for loans created before loan_timeline existed
+  // =========================================================================
+  @Nested
+  @DisplayName("backfill")
+  class BackfillTests {
+
+    @Test
+    @DisplayName("should keep the earlier review when the first timeline row is an approval")
+    void shouldBackfillReview_whenRecordingApproval() {
+      // Arrange
+      given(loanTimelineRepository.findById(5L)).willReturn(Optional.empty());
+      given(loanReviewRepository.findByLoanIdIn(List.of(5L)))
+          .willReturn(
+              List.of(
+                  LoanReview.builder()
+                      .loanId(5L)
+                      .reviewedBy(2L)
+                      .reviewNotes("Dokumen lengkap")
+                      .reviewedAt(REVIEWED_AT)
+                      .build()));
+      given(staffDirectoryService.usernamesFor(Set.of(2L))).willReturn(Map.of(2L, "marketing1"));
+
+      // Act
+      loanTimelineService.recordApproval(loan, "manager1", APPROVED_AT, "OK");
+
+      // Assert
+      ArgumentCaptor<LoanTimeline> saved = ArgumentCaptor.forClass(LoanTimeline.class);
+      verify(loanTimelineRepository).save(saved.capture());
+      assertThat(saved.getValue().getReviewedBy()).isEqualTo("marketing1");
+      assertThat(saved.getValue().getReviewedAt()).isEqualTo(REVIEWED_AT);
+      assertThat(saved.getValue().getReviewNotes()).isEqualTo("Dokumen lengkap");
+      assertThat(saved.getValue().getApprovedBy()).isEqualTo("manager1");
+    }
+
+    @Test
+    @DisplayName("should backfill only the loans without a row in a bulk update")
+    @SuppressWarnings("unchecked")
+    void shouldBackfillMissingRows_inRecordAll() {
+      // Arrange
+      Loan tracked = Loan.builder().id(6L).status(LoanStatus.APPROVED).build();
+      LoanTimeline existing = LoanTimeline.builder().loanId(6L).reviewedBy("marketing2").build();
+      given(loanTimelineRepository.findAllById(List.of(5L, 6L))).willReturn(List.of(existing));
+      given(loanApprovalRepository.findByLoanIdIn(List.of(5L)))
+          .willReturn(
+              List.of(
+                  LoanApproval.builder()
+                      .loanId(5L)
+                      .approvedBy(3L)
+                      .approvalNotes("Setuju")
+                      .approvedAt(APPROVED_AT)
+                      .build()));
+      given(staffDirectoryService.usernamesFor(Set.of(3L))).willReturn(Map.of(3L, "manager1"));
+
+      // Act
+      loanTimelineService.recordAll(
+          List.of(loan, tracked), (l, timeline) -> timeline.setDisbursedBy("backoffice1"));
+
+      // Assert
+      ArgumentCaptor<List<LoanTimeline>> saved = ArgumentCaptor.forClass(List.class);
+      verify(loanTimelineRepository).saveAll(saved.capture());
+      assertThat(saved.getValue())
+          .extracting(LoanTimeline::getApprovedBy, LoanTimeline::getReviewedBy)
+          .containsExactly(tuple("manager1", null), tuple(null, "marketing2"));
+      assertThat(saved.getValue()).allMatch(t -> "backoffice1".equals(t.getDisbursedBy()));
+      verify(loanReviewRepository).findByLoanIdIn(List.of(5L));
+      verify(loanTimelineRepository, never()).findById(any());
+    }
+  }
+
+  // =========================================================================
+  // Tests for recordSubmission()
+  // =========================================================================
+  @Nested
+  @DisplayName("recordSubmission()")
+  class RecordSubmissionTests {
+
+    @Test
+    @DisplayName("should insert the row for a new loan without lookups or backfill")
+    void shouldPersistDirectly_withoutBackfill() {
+      // Arrange
+      LocalDateTime submittedAt = LocalDateTime.of(2026, 1, 9, 9, 0);
+      Loan submitted =
+          Loan.builder().id(7L).status(LoanStatus.SUBMITTED).submittedAt(submittedAt).build();
+
+      // Act
+      loanTimelineService.recordSubmission(submitted);
+
+      // Assert
+      ArgumentCaptor<LoanTimeline> persisted = ArgumentCaptor.forClass(LoanTimeline.class);
+      verify(entityManager).persist(persisted.capture());
+      assertThat(persisted.getValue().getLoanId()).isEqualTo(7L);
+      assertThat(persisted.getValue().getStatus()).isEqualTo(LoanStatus.SUBMITTED);
+      assertThat(persisted.getValue().getUpdatedAt()).isEqualTo(submittedAt);
+      verifyNoInteractions(
+          loanTimelineRepository,
+          loanReviewRepository,
+          loanApprovalRepository,
+          loanDisbursementRepository);
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.Notification;
+import com.example.genggamin.entity.User;
+import com.example.genggamin.enums.NotificationType;
+import com.example.genggamin.repository.NotificationRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Unit Tests for NotificationService: notifikasi dari outbox aman dikirim ulang */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NotificationService Unit Tests")
+class NotificationServiceTest {
+
+  @Mock private NotificationRepository notificationRepository;
+
+  @InjectMocks private NotificationService notificationService;
+
+  private User user;
+
+  private Loan loan;
+
+  @BeforeEach
+  void setUp() {
+    user = User.builder().id(3L).username("customer1").build();
+    loan = Loan.builder().id(5L).build();
+  }
+
+  // =========================================================================
+  // Tests for notifications sent by the outbox handler
+  // =========================================================================
+  @Nested
+  @DisplayName("outbox delivery")
+  class OutboxDeliveryTests {
+
+    @Test
+    @DisplayName("should store the outbox event id on the in-app row")
+    void shouldSaveEventId_whenNotYetDelivered() {
+      // Arrange
+      given(notificationRepository.existsDelivery(100L, 3L, NotificationType.LOAN_SUBMISSION, 5L))
+          .willReturn(false);
+
+      // Act
+      notificationService.sendNotification(user, NotificationType.LOAN_SUBMISSION, loan, 100L);
+
+      // Assert
+      ArgumentCaptor<Notification> saved = ArgumentCaptor.forClass(Notification.class);
+      verify(notificationRepository).saveAndFlush(saved.capture());
+      assertThat(saved.getValue().getOutboxEventId()).isEqualTo(100L);
+      assertThat(saved.getValue().getLoan()).isSameAs(loan);
+    }
+
+    @Test
+    @DisplayName("should skip a recipient already notified for the same event")
+    void shouldSkip_whenAlreadyDelivered() {
+      // Arrange
+      Loan other = Loan.builder().id(6L).build();
+      given(
+              notificationRepository.existsDelivery(
+                  100L, 3L, NotificationType.READY_FOR_APPROVAL, null))
+          .willReturn(true);
+
+      // Act
+      notificationService.sendSummaryNotification(
+          user, NotificationType.READY_FOR_APPROVAL, List.of(loan, other), 100L);
+
+      // Assert
+      verify(notificationRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("should not look up deliveries for notifications outside the outbox")
+    void shouldNotCheckDeliveries_withoutEventId() {
+      // Act
+      notificationService.sendNotification(user, NotificationType.REGISTER, null);
+
+      // Assert
+      verify(notificationRepository, never()).existsDelivery(any(), any(), any(), any());
+      verify(notificationRepository).saveAndFlush(any(Notification.class));
+    }
+  }
+}
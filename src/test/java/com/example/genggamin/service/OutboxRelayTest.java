@@ -0,0 +1,248 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+import com.example.genggamin.entity.Loan.LoanStatus;
+import com.example.genggamin.event.LoanEventHandler;
+import com.example.genggamin.event.LoanTransitionEvent;
+import com.example.genggamin.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Unit Tests for OutboxRelay: dispatch, retry dengan backoff, dan batas MAX_ATTEMPTS */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRelay Unit Tests")
+class OutboxRelayTest {
+
+  private static final String DESTINATION = "EMAIL";
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @Mock private OutboxEventRepository outboxEventRepository;
+
+  @Mock private LoanEventHandler handler;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private OutboxRelay outboxRelay;
+
+  private LoanTransitionEvent event;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    given(handler.destination()).willReturn(DESTINATION);
+    outboxRelay =
+        new OutboxRelay(
+            jdbcTemplate,
+            outboxEventRepository,
+            objectMapper,
+            List.of(handler),
+            Runnable::run,
+            meterRegistry);
+    ReflectionTestUtils.setField(outboxRelay, "batchSize", 50);
+    ReflectionTestUtils.setField(outboxRelay, "leaseSeconds", 60L);
+
+    event =
+        LoanTransitionEvent.of(7L, 1L, LoanStatus.SUBMITTED, LoanStatus.UNDER_REVIEW, null, null);
+  }
+
+  // =========================================================================
+  // Tests for successful dispatch
+  // =========================================================================
+  @Nested
+  @DisplayName("dispatch")
+  class DispatchTests {
+
+    @Test
+    @DisplayName("should hand the payload to the handler and mark the row processed")
+    void shouldMarkProcessed_whenHandlerSucceeds() throws Exception {
+      // Arrange
+      givenClaimed(DESTINATION, 1);
+
+      // Act
+      outboxRelay.drain();
+
+      // Assert
+      verify(handler).handle(eq(100L), eq(event));
+      verify(jdbcTemplate)
+          .batchUpdate(
+              startsWith("UPDATE outbox SET status = 'PROCESSED'"), anyList(), eq(1), any());
+      verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+      assertThat(outcomeCount("processed")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should stop draining when a claim returns less than a full batch")
+    void shouldClaimOnce_whenBatchNotFull() throws Exception {
+      // Arrange
+      givenClaimed(DESTINATION, 1);
+
+      // Act
+      outboxRelay.drain();
+
+      // Assert
+      verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), any(), any(), any());
+    }
+  }
+
+  // =========================================================================
+  // Tests for retry, backoff and the MAX_ATTEMPTS cut-off
+  // =========================================================================
+  @Nested
+  @DisplayName("retry")
+  class RetryTests {
+
+    @Test
+    @DisplayName("should keep the row pending with exponential backoff after a failure")
+    void shouldRetryWithBackoff_whenHandlerFails() throws Exception {
+      // Arrange
+      givenClaimed(DESTINATION, 3);
+      willThrow(new RuntimeException("smtp down")).given(handler).handle(eq(100L), any());
+
+      // Act
+      LocalDateTime before = LocalDateTime.now();
+      outboxRelay.drain();
+
+      // Assert: 5s << 3 attempts = 40s
+      Failure failure = capturedFailure();
+      assertThat(failure.status()).isEqualTo("PENDING");
+      assertThat(failure.error()).isEqualTo("smtp down");
+      assertThat(failure.delayAfter(before))
+          .isBetween(Duration.ofSeconds(40), Duration.ofSeconds(45));
+      assertThat(outcomeCount("retry")).isEqualTo(1.0);
+      verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("should double the backoff per attempt up to one hour")
+    void shouldCapBackoff() throws Exception {
+      // Arrange: 5s << 9 attempts = 2560s, 5s << 10 would exceed the cap
+      givenClaimed(DESTINATION, OutboxRelay.MAX_ATTEMPTS - 1);
+      willThrow(new RuntimeException("smtp down")).given(handler).handle(eq(100L), any());
+
+      // Act
+      LocalDateTime before = LocalDateTime.now();
+      outboxRelay.drain();
+
+      // Assert
+      assertThat(capturedFailure().delayAfter(before))
+          .isBetween(Duration.ofSeconds(2560), Duration.ofSeconds(2565));
+    }
+
+    @Test
+    @DisplayName("should mark the row failed once MAX_ATTEMPTS is reached")
+    void shouldMarkFailed_whenAttemptsExhausted() throws Exception {
+      // Arrange
+      givenClaimed(DESTINATION, OutboxRelay.MAX_ATTEMPTS);
+      willThrow(new RuntimeException("smtp down")).given(handler).handle(eq(100L), any());
+
+      // Act
+      LocalDateTime before = LocalDateTime.now();
+      outboxRelay.drain();
+
+      // Assert
+      Failure failure = capturedFailure();
+      assertThat(failure.status()).isEqualTo("FAILED");
+      assertThat(failure.delayAfter(before))
+          .isBetween(Duration.ofSeconds(3600), Duration.ofSeconds(3605));
+      assertThat(outcomeCount("failed")).isEqualTo(1.0);
+      assertThat(outcomeCount("retry")).isZero();
+    }
+
+    @Test
+    @DisplayName("should retry rows whose destination has no handler")
+    void shouldRetry_whenNoHandlerForDestination() throws Exception {
+      // Arrange
+      givenClaimed("WEBHOOK", 1);
+
+      // Act
+      outboxRelay.drain();
+
+      // Assert
+      Failure failure = capturedFailure();
+      assertThat(failure.status()).isEqualTo("PENDING");
+      assertThat(failure.error()).isEqualTo("No handler for destination WEBHOOK");
+      verify(handler, never()).handle(any(), any());
+    }
+  }
+
+  // =========================================================================
+  // Helpers
+  // =========================================================================
+
+  /** Nilai yang ditulis oleh markFailed */
+  private record Failure(String status, Timestamp availableAt, String error) {
+
+    Duration delayAfter(LocalDateTime before) {
+      return Duration.between(before, availableAt.toLocalDateTime());
+    }
+  }
+
+  /** Claim mengembalikan satu baris outbox (id 100) lewat RowMapper milik relay */
+  private void givenClaimed(String destination, int attempts) throws Exception {
+    String payload = objectMapper.writeValueAsString(event);
+    given(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any()))
+        .willAnswer(
+            invocation -> {
+              RowMapper<?> mapper = invocation.getArgument(1);
+              ResultSet rs = mock(ResultSet.class);
+              given(rs.getLong("id")).willReturn(100L);
+              given(rs.getString("destination")).willReturn(destination);
+              given(rs.getString("payload")).willReturn(payload);
+              given(rs.getInt("attempts")).willReturn(attempts);
+              given(rs.getTimestamp("created_at"))
+                  .willReturn(Timestamp.valueOf(LocalDateTime.now().minusSeconds(5)));
+              List<Object> rows = new ArrayList<>();
+              rows.add(mapper.mapRow(rs, 0));
+              return rows;
+            });
+  }
+
+  private Failure capturedFailure() {
+    ArgumentCaptor<String> status = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Timestamp> availableAt = ArgumentCaptor.forClass(Timestamp.class);
+    ArgumentCaptor<String> error = ArgumentCaptor.forClass(String.class);
+    verify(jdbcTemplate)
+        .update(
+            startsWith("UPDATE outbox SET status = ?"),
+            status.capture(),
+            availableAt.capture(),
+            error.capture(),
+            eq(100L));
+    return new Failure(status.getValue(), availableAt.getValue(), error.getValue());
+  }
+
+  private double outcomeCount(String outcome) {
+    return meterRegistry
+        .counter("outbox.relay.events", "destination", DESTINATION, "outcome", outcome)
+        .count();
+  }
+}
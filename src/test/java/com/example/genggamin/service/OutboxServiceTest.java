@@ -0,0 +1,124 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+import com.example.genggamin.dto.OutboxReplayRequest;
+import com.example.genggamin.entity.OutboxEvent.OutboxStatus;
+import com.example.genggamin.event.LoanEventHandler;
+import com.example.genggamin.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Unit Tests for OutboxService: replay event yang sudah terkirim atau gagal */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxService Unit Tests")
+class OutboxServiceTest {
+
+  private static final LocalDateTime FROM = LocalDateTime.of(2026, 10, 1, 0, 0);
+  private static final LocalDateTime TO = LocalDateTime.of(2026, 10, 2, 0, 0);
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @Mock private OutboxEventRepository outboxEventRepository;
+
+  @Mock private LoanEventHandler handler;
+
+  @Mock private OutboxRelay outboxRelay;
+
+  private OutboxService outboxService;
+
+  @BeforeEach
+  void setUp() {
+    outboxService =
+        new OutboxService(
+            jdbcTemplate, outboxEventRepository, new ObjectMapper(), List.of(handler), outboxRelay);
+  }
+
+  // =========================================================================
+  // Tests for replay
+  // =========================================================================
+  @Nested
+  @DisplayName("replay")
+  class ReplayTests {
+
+    @Test
+    @DisplayName("should reset processed and failed events to pending and wake the relay")
+    void shouldReplayProcessedAndFailed_byDefault() {
+      // Arrange
+      given(
+              outboxEventRepository.replay(
+                  eq(FROM),
+                  eq(TO),
+                  eq(List.of(OutboxStatus.PROCESSED, OutboxStatus.FAILED)),
+                  isNull(),
+                  eq(OutboxStatus.PENDING),
+                  any()))
+          .willReturn(3);
+
+      // Act
+      int replayed =
+          outboxService.replay(
+              OutboxReplayRequest.builder().from(FROM).to(TO).destination(" ").build());
+
+      // Assert
+      assertThat(replayed).isEqualTo(3);
+      verify(outboxRelay).requestDrain();
+    }
+
+    @Test
+    @DisplayName("should replay only failed events of one destination when requested")
+    void shouldReplayFailedOnly_forDestination() {
+      // Arrange
+      given(
+              outboxEventRepository.replay(
+                  eq(FROM),
+                  eq(TO),
+                  eq(List.of(OutboxStatus.FAILED)),
+                  eq("EMAIL"),
+                  eq(OutboxStatus.PENDING),
+                  any()))
+          .willReturn(1);
+
+      // Act
+      int replayed =
+          outboxService.replay(
+              OutboxReplayRequest.builder()
+                  .from(FROM)
+                  .to(TO)
+                  .destination(" EMAIL ")
+                  .failedOnly(true)
+                  .build());
+
+      // Assert
+      assertThat(replayed).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should reject a range whose start is not before its end")
+    void shouldThrow_whenRangeInvalid() {
+      // Act & Assert
+      assertThatThrownBy(
+              () -> outboxService.replay(OutboxReplayRequest.builder().from(TO).to(FROM).build()))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessage("from must be before to");
+      assertThatThrownBy(() -> outboxService.replay(OutboxReplayRequest.builder().to(TO).build()))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessage("from and to are required");
+      verifyNoInteractions(outboxEventRepository, outboxRelay);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/** Unit Tests for PlafondCacheKeys: key bergenerasi dan invalidasi tanpa scan key */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PlafondCacheKeys Unit Tests")
+class PlafondCacheKeysTest {
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private ValueOperations<String, String> valueOperations;
+
+  @Mock private CacheManager cacheManager;
+
+  @Mock private Cache cache;
+
+  @Mock private RedisMessageListenerContainer listenerContainer;
+
+  private PlafondCacheKeys plafondCacheKeys;
+
+  @BeforeEach
+  void setUp() {
+    plafondCacheKeys = new PlafondCacheKeys(stringRedisTemplate, cacheManager, listenerContainer);
+    given(stringRedisTemplate.opsForValue()).willReturn(valueOperations);
+  }
+
+  // =========================================================================
+  // Tests for list()
+  // =========================================================================
+  @Nested
+  @DisplayName("list()")
+  class ListKeyTests {
+
+    @Test
+    @DisplayName("should prefix list keys with the generation stored in Redis, read once")
+    void shouldUseStoredGeneration_andReadItOnce() {
+      // Arrange
+      given(valueOperations.get(PlafondCacheKeys.GENERATION_KEY)).willReturn("7");
+
+      // Act & Assert
+      assertThat(plafondCacheKeys.list("allPlafonds")).isEqualTo("g7:allPlafonds");
+      assertThat(plafondCacheKeys.list("byIncome:5000000")).isEqualTo("g7:byIncome:5000000");
+      verify(valueOperations, times(1)).get(PlafondCacheKeys.GENERATION_KEY);
+    }
+
+    @Test
+    @DisplayName("should follow generations published by other nodes but never go back")
+    void shouldAdvance_onGenerationMessage() {
+      // Arrange
+      given(valueOperations.get(PlafondCacheKeys.GENERATION_KEY)).willReturn("3");
+      plafondCacheKeys.list("allPlafonds");
+
+      // Act
+      plafondCacheKeys.onMessage(message("5"), null);
+      plafondCacheKeys.onMessage(message("4"), null);
+
+      // Assert
+      assertThat(plafondCacheKeys.list("allPlafonds")).isEqualTo("g5:allPlafonds");
+    }
+
+    private DefaultMessage message(String body) {
+      return new DefaultMessage(
+          PlafondCacheKeys.GENERATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+          body.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  // =========================================================================
+  // Tests for invalidateAfterCommit()
+  // =========================================================================
+  @Nested
+  @DisplayName("invalidateAfterCommit()")
+  class InvalidateTests {
+
+    @Test
+    @DisplayName("should bump the generation once and evict only the changed plafond")
+    void shouldIncrementGeneration_andEvictSingleId() {
+      // Arrange
+      given(valueOperations.increment(PlafondCacheKeys.GENERATION_KEY)).willReturn(8L);
+      given(cacheManager.getCache(PlafondCacheKeys.CACHE_NAME)).willReturn(cache);
+
+      // Act
+      plafondCacheKeys.invalidateAfterCommit(1L);
+
+      // Assert
+      verify(cache).evict("plafond:1");
+      verify(cache, never()).clear();
+      verify(stringRedisTemplate).convertAndSend(PlafondCacheKeys.GENERATION_CHANNEL, "8");
+      assertThat(plafondCacheKeys.list("activePlafonds")).isEqualTo("g8:activePlafonds");
+      verify(valueOperations, never()).get(any());
+    }
+
+    @Test
+    @DisplayName("should not touch per-id entries for a new plafond")
+    void shouldOnlyBumpGeneration_whenPlafondIsNew() {
+      // Arrange
+      given(valueOperations.increment(PlafondCacheKeys.GENERATION_KEY)).willReturn(1L);
+
+      // Act
+      plafondCacheKeys.invalidateAfterCommit(null);
+
+      // Assert
+      verifyNoInteractions(cacheManager);
+    }
+  }
+}
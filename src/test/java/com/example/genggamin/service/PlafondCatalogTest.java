@@ -0,0 +1,233 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+import com.example.genggamin.entity.Plafond;
+import com.example.genggamin.repository.PlafondRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/** Unit Tests for PlafondCatalog: index eligibility, pemilihan plafond simulasi dan refresh */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PlafondCatalog Unit Tests")
+class PlafondCatalogTest {
+
+  @Mock private PlafondRepository plafondRepository;
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private RedisMessageListenerContainer listenerContainer;
+
+  private PlafondCatalog plafondCatalog;
+
+  @BeforeEach
+  void setUp() {
+    plafondCatalog = new PlafondCatalog(plafondRepository, stringRedisTemplate, listenerContainer);
+
+    given(plafondRepository.findAllActive())
+        .willReturn(
+            List.of(
+                plafond(1L, "3000000", "10000000", 12L, "2.0", true),
+                plafond(2L, "5000000", "50000000", 12L, "1.5", true),
+                plafond(3L, "8000000", "100000000", 24L, "1.2", true),
+                plafond(4L, "1000000", "5000000", 12L, "1.0", false)));
+  }
+
+  private Plafond plafond(
+      Long id, String minIncome, String maxAmount, Long tenor, String rate, boolean active) {
+    return Plafond.builder()
+        .id(id)
+        .minIncome(new BigDecimal(minIncome))
+        .maxAmount(new BigDecimal(maxAmount))
+        .tenorMonth(tenor)
+        .interestRate(new BigDecimal(rate))
+        .isActive(active)
+        .isDeleted(false)
+        .build();
+  }
+
+  // =========================================================================
+  // Tests for eligibility lookups
+  // =========================================================================
+  @Nested
+  @DisplayName("isEligible() / eligibleFor()")
+  class EligibilityTests {
+
+    @Test
+    @DisplayName("should only accept active plafonds whose min income is within the income")
+    void shouldCheckEligibility_againstMinIncome() {
+      // Act & Assert
+      assertThat(plafondCatalog.isEligible(2L, new BigDecimal("5000000"))).isTrue();
+      assertThat(plafondCatalog.isEligible(3L, new BigDecimal("5000000"))).isFalse();
+      assertThat(plafondCatalog.isEligible(4L, new BigDecimal("5000000"))).isFalse();
+      assertThat(plafondCatalog.isEligible(99L, new BigDecimal("5000000"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("should list eligible active plafonds ordered by min income")
+    void shouldListEligiblePlafonds_inMinIncomeOrder() {
+      // Act
+      List<PlafondCatalog.Entry> result = plafondCatalog.eligibleFor(new BigDecimal("6000000"));
+
+      // Assert
+      assertThat(result).extracting(PlafondCatalog.Entry::id).containsExactly(1L, 2L);
+      assertThat(plafondCatalog.eligibleFor(new BigDecimal("100"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should map every income to the largest active min income within it")
+    void shouldBracketIncome_byActiveMinIncomes() {
+      // Act & Assert: active min incomes are 3M, 5M and 8M
+      assertThat(plafondCatalog.incomeBracket(new BigDecimal("5000000")))
+          .isEqualByComparingTo("5000000");
+      assertThat(plafondCatalog.incomeBracket(new BigDecimal("7999999.99")))
+          .isEqualByComparingTo("5000000");
+      assertThat(plafondCatalog.incomeBracket(new BigDecimal("250000000")))
+          .isEqualByComparingTo("8000000");
+      assertThat(plafondCatalog.incomeBracket(new BigDecimal("2999999"))).isNull();
+      assertThat(plafondCatalog.incomeBracket(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("should load the catalog once and serve later lookups from memory")
+    void shouldLoadOnce_whenQueriedRepeatedly() {
+      // Act
+      plafondCatalog.isEligible(1L, new BigDecimal("5000000"));
+      plafondCatalog.find(2L);
+      plafondCatalog.lowestRateFor(12L, BigDecimal.ONE);
+
+      // Assert
+      verify(plafondRepository, times(1)).findAllActive();
+    }
+  }
+
+  // =========================================================================
+  // Tests for lowestRateFor()
+  // =========================================================================
+  @Nested
+  @DisplayName("lowestRateFor()")
+  class LowestRateForTests {
+
+    @Test
+    @DisplayName("should pick the lowest rate among active plafonds covering the amount")
+    void shouldPickLowestRate_whenSeveralPlafondsMatch() {
+      // Act & Assert
+      assertThat(plafondCatalog.lowestRateFor(12L, new BigDecimal("8000000")))
+          .map(PlafondCatalog.Entry::id)
+          .contains(2L);
+      assertThat(plafondCatalog.lowestRateFor(12L, new BigDecimal("60000000"))).isEmpty();
+      assertThat(plafondCatalog.lowestRateFor(36L, BigDecimal.ONE)).isEmpty();
+    }
+  }
+
+  // =========================================================================
+  // Tests for recommend()
+  // =========================================================================
+  @Nested
+  @DisplayName("recommend()")
+  class RecommendTests {
+
+    @Test
+    @DisplayName("should filter on income, amount and tenor and order by interest rate")
+    void shouldReturnMatchingPlafonds_inRateOrder() {
+      // Act & Assert: plafond 4 is inactive, plafond 1 caps at 10M
+      assertThat(
+              plafondCatalog.recommend(new BigDecimal("9000000"), new BigDecimal("8000000"), 12L))
+          .extracting(PlafondCatalog.Entry::id)
+          .containsExactly(3L, 2L, 1L);
+      assertThat(
+              plafondCatalog.recommend(new BigDecimal("9000000"), new BigDecimal("20000000"), 12L))
+          .extracting(PlafondCatalog.Entry::id)
+          .containsExactly(3L, 2L);
+      assertThat(
+              plafondCatalog.recommend(new BigDecimal("6000000"), new BigDecimal("8000000"), 18L))
+          .isEmpty();
+    }
+  }
+
+  // =========================================================================
+  // Tests for annuityFactor()
+  // =========================================================================
+  @Nested
+  @DisplayName("annuityFactor()")
+  class AnnuityFactorTests {
+
+    @Test
+    @DisplayName("should serve catalog rates from the table and compute other pairs directly")
+    void shouldMatchDirectFactor_forCatalogAndUnknownPairs() {
+      // Act & Assert: 1.2% is loaded up to 24 months, 3.3% is not in the catalog
+      assertThat(plafondCatalog.annuityFactor(new BigDecimal("1.2"), 24))
+          .isEqualTo(AnnuityCalculator.factor(1_200_000L, 24));
+      assertThat(plafondCatalog.annuityFactor(new BigDecimal("1.5"), 36))
+          .isEqualTo(AnnuityCalculator.factor(1_500_000L, 36));
+      assertThat(plafondCatalog.annuityFactor(new BigDecimal("3.3"), 6))
+          .isEqualTo(AnnuityCalculator.factor(3_300_000L, 6));
+    }
+  }
+
+  // =========================================================================
+  // Tests for refreshAfterCommit()
+  // =========================================================================
+  @Nested
+  @DisplayName("refreshAfterCommit()")
+  class RefreshTests {
+
+    @Test
+    @DisplayName("should reload immediately and notify other nodes outside a transaction")
+    void shouldReloadAndPublish_whenNoTransaction() {
+      // Arrange
+      plafondCatalog.refresh();
+      given(plafondRepository.findAllActive())
+          .willReturn(List.of(plafond(1L, "3000000", "10000000", 12L, "2.0", false)));
+
+      // Act
+      plafondCatalog.refreshAfterCommit();
+
+      // Assert
+      assertThat(plafondCatalog.isEligible(1L, new BigDecimal("5000000"))).isFalse();
+      assertThat(plafondCatalog.find(2L)).isEmpty();
+      verify(stringRedisTemplate).convertAndSend(PlafondCatalog.REFRESH_CHANNEL, "refresh");
+    }
+
+    @Test
+    @DisplayName(
+        "should pick up a missed change on the periodic reload and keep the version otherwise")
+    void shouldReloadOnlyWhenChanged_onPeriodicReload() {
+      // Arrange
+      plafondCatalog.refresh();
+      long version = plafondCatalog.version();
+
+      // Act: nothing changed
+      plafondCatalog.reloadIfChanged();
+
+      // Assert
+      assertThat(plafondCatalog.version()).isEqualTo(version);
+
+      // Arrange: plafond 2 was deactivated on another node and the message was lost
+      given(plafondRepository.findAllActive())
+          .willReturn(
+              List.of(
+                  plafond(1L, "3000000", "10000000", 12L, "2.0", true),
+                  plafond(2L, "5000000", "50000000", 12L, "1.5", false)));
+
+      // Act
+      plafondCatalog.reloadIfChanged();
+
+      // Assert
+      assertThat(plafondCatalog.version()).isGreaterThan(version);
+      assertThat(plafondCatalog.isEligible(2L, new BigDecimal("9000000"))).isFalse();
+      verifyNoInteractions(stringRedisTemplate);
+    }
+  }
+}
@@ -5,22 +5,29 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
+import com.example.genggamin.dto.LoanSimulationBatchRequest;
+import com.example.genggamin.dto.LoanSimulationBatchResponse;
 import com.example.genggamin.dto.LoanSimulationRequest;
 import com.example.genggamin.dto.LoanSimulationResponse;
+import com.example.genggamin.dto.PlafondRecommendationRequest;
+import com.example.genggamin.dto.PlafondRecommendationResponse;
 import com.example.genggamin.dto.PlafondRequest;
 import com.example.genggamin.dto.PlafondResponse;
 import com.example.genggamin.entity.Plafond;
 import com.example.genggamin.repository.PlafondRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -44,13 +51,24 @@ class PlafondServiceTest {
 
   @Mock private PlafondRepository plafondRepository;
 
-  @InjectMocks private PlafondService plafondService;
+  @Mock private PlafondCatalog plafondCatalog;
+
+  @Mock private PlafondCacheKeys plafondCacheKeys;
+
+  private PlafondService plafondService;
 
   private Plafond testPlafond;
   private PlafondRequest testPlafondRequest;
 
   @BeforeEach
   void setUp() {
+    plafondService =
+        new PlafondService(
+            plafondRepository,
+            plafondCatalog,
+            new SimulationCache(plafondCatalog, new SimpleMeterRegistry(), 100),
+            plafondCacheKeys);
+
     // Arrange: Setup common test data
     testPlafond =
         Plafond.builder()
@@ -184,7 +202,9 @@ class PlafondServiceTest {
     void shouldReturnMatchingPlafonds_whenIncomeProvided() {
       // Arrange
       BigDecimal income = new BigDecimal("10000000");
-      given(plafondRepository.findByIncomeRange(income)).willReturn(List.of(testPlafond));
+      BigDecimal bracket = new BigDecimal("5000000");
+      given(plafondCatalog.incomeBracket(income)).willReturn(bracket);
+      given(plafondRepository.findByIncomeRange(bracket)).willReturn(List.of(testPlafond));
 
       // Act
       List<PlafondResponse> result = plafondService.getPlafondsByIncome(income);
@@ -192,7 +212,21 @@ class PlafondServiceTest {
       // Assert
       assertThat(result).hasSize(1);
       assertThat(result.get(0).getMinIncome()).isLessThanOrEqualTo(income);
-      verify(plafondRepository).findByIncomeRange(income);
+      verify(plafondRepository).findByIncomeRange(bracket);
+    }
+
+    @Test
+    @DisplayName("should return empty list without querying when income is below every plafond")
+    void shouldReturnEmptyList_whenIncomeBelowAllBrackets() {
+      // Arrange
+      given(plafondCatalog.incomeBracket(new BigDecimal("100"))).willReturn(null);
+
+      // Act
+      List<PlafondResponse> result = plafondService.getPlafondsByIncome(new BigDecimal("100"));
+
+      // Assert
+      assertThat(result).isEmpty();
+      verifyNoInteractions(plafondRepository);
     }
   }
 
@@ -214,7 +248,7 @@ class PlafondServiceTest {
               .tenor(12L)
               .build();
 
-      given(plafondRepository.findByIdActive(1L)).willReturn(Optional.of(testPlafond));
+      given(plafondCatalog.find(1L)).willReturn(Optional.of(PlafondCatalog.Entry.of(testPlafond)));
 
       // Act
       LoanSimulationResponse result = plafondService.simulateLoan(request);
@@ -232,6 +266,105 @@ class PlafondServiceTest {
       assertThat(result.getMonthlyInstallment()).isEqualByComparingTo(new BigDecimal("983333.33"));
     }
 
+    @Test
+    @DisplayName("should calculate annuity installment from the catalog factor")
+    void shouldCalculateAnnuity_whenModeIsAnnuity() {
+      // Arrange
+      LoanSimulationRequest request =
+          LoanSimulationRequest.builder()
+              .plafondId(1L)
+              .amount(new BigDecimal("10000000"))
+              .tenor(12L)
+              .calculationMode("annuity")
+              .build();
+
+      given(plafondCatalog.find(1L)).willReturn(Optional.of(PlafondCatalog.Entry.of(testPlafond)));
+      given(plafondCatalog.annuityFactor(testPlafond.getInterestRate(), 12L))
+          .willReturn(AnnuityCalculator.factor(1_500_000L, 12));
+
+      // Act
+      LoanSimulationResponse result = plafondService.simulateLoan(request);
+
+      // Assert: 10000000 * 0.015 / (1 - 1.015^-12) = 916799.93
+      assertThat(result.getCalculationMode()).isEqualTo("ANNUITY");
+      assertThat(result.getMonthlyInstallment()).isEqualByComparingTo(new BigDecimal("916799.93"));
+      // Total Payment = 916799.93 * 12, Total Interest = Total Payment - Principal
+      assertThat(result.getTotalPayment()).isEqualByComparingTo(new BigDecimal("11001599.16"));
+      assertThat(result.getTotalInterest()).isEqualByComparingTo(new BigDecimal("1001599.16"));
+    }
+
+    @Test
+    @DisplayName("should throw exception when calculation mode is unknown")
+    void shouldThrowException_whenCalculationModeIsInvalid() {
+      // Arrange
+      LoanSimulationRequest request =
+          LoanSimulationRequest.builder()
+              .plafondId(1L)
+              .amount(new BigDecimal("10000000"))
+              .tenor(12L)
+              .calculationMode("EFFECTIVE")
+              .build();
+
+      // Act & Assert
+      assertThatThrownBy(() -> plafondService.simulateLoan(request))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessageContaining("Invalid calculation mode");
+      verifyNoInteractions(plafondCatalog);
+    }
+
+    @Test
+    @DisplayName("should serve a repeated request from the local cache")
+    void shouldUseCache_whenSameRequestRepeats() {
+      // Arrange: same amount, written with a different scale
+      LoanSimulationRequest first =
+          LoanSimulationRequest.builder()
+              .plafondId(1L)
+              .amount(new BigDecimal("10000000"))
+              .tenor(12L)
+              .build();
+      LoanSimulationRequest second =
+          LoanSimulationRequest.builder()
+              .plafondId(1L)
+              .amount(new BigDecimal("10000000.00"))
+              .tenor(12L)
+              .calculationMode("flat")
+              .build();
+
+      given(plafondCatalog.find(1L)).willReturn(Optional.of(PlafondCatalog.Entry.of(testPlafond)));
+
+      // Act
+      LoanSimulationResponse cached = plafondService.simulateLoan(first);
+      LoanSimulationResponse hit = plafondService.simulateLoan(second);
+
+      // Assert
+      verify(plafondCatalog, times(1)).find(1L);
+      assertThat(hit.getMonthlyInstallment()).isEqualTo(cached.getMonthlyInstallment());
+      assertThat(hit.getLoanAmount()).isEqualTo(new BigDecimal("10000000.00"));
+      assertThat(hit).isNotSameAs(cached);
+    }
+
+    @Test
+    @DisplayName("should recompute once the plafond catalog has been reloaded")
+    void shouldRecompute_whenCatalogVersionChanges() {
+      // Arrange
+      LoanSimulationRequest request =
+          LoanSimulationRequest.builder()
+              .plafondId(1L)
+              .amount(new BigDecimal("10000000"))
+              .tenor(12L)
+              .build();
+
+      given(plafondCatalog.version()).willReturn(1L, 2L);
+      given(plafondCatalog.find(1L)).willReturn(Optional.of(PlafondCatalog.Entry.of(testPlafond)));
+
+      // Act
+      plafondService.simulateLoan(request);
+      plafondService.simulateLoan(request);
+
+      // Assert
+      verify(plafondCatalog, times(2)).find(1L);
+    }
+
     @Test
     @DisplayName("should calculate loan simulation by tenor when no plafondId")
     void shouldFindMatchingPlafond_whenTenorProvided() {
@@ -239,7 +372,8 @@ class PlafondServiceTest {
       LoanSimulationRequest request =
           LoanSimulationRequest.builder().amount(new BigDecimal("10000000")).tenor(12L).build();
 
-      given(plafondRepository.findByTenor(12L)).willReturn(List.of(testPlafond));
+      given(plafondCatalog.lowestRateFor(12L, new BigDecimal("10000000")))
+          .willReturn(Optional.of(PlafondCatalog.Entry.of(testPlafond)));
 
       // Act
       LoanSimulationResponse result = plafondService.simulateLoan(request);
@@ -247,7 +381,8 @@ class PlafondServiceTest {
       // Assert
       assertThat(result).isNotNull();
       assertThat(result.getTenorMonth()).isEqualTo(12L);
-      verify(plafondRepository).findByTenor(12L);
+      verify(plafondCatalog).lowestRateFor(12L, new BigDecimal("10000000"));
+      verifyNoInteractions(plafondRepository);
     }
 
     @Test
@@ -261,7 +396,7 @@ class PlafondServiceTest {
               .tenor(24L) // Exceeds plafond's 12 months
               .build();
 
-      given(plafondRepository.findByIdActive(1L)).willReturn(Optional.of(testPlafond));
+      given(plafondCatalog.find(1L)).willReturn(Optional.of(PlafondCatalog.Entry.of(testPlafond)));
 
       // Act & Assert
       assertThatThrownBy(() -> plafondService.simulateLoan(request))
@@ -280,7 +415,7 @@ class PlafondServiceTest {
               .tenor(12L)
               .build();
 
-      given(plafondRepository.findByIdActive(1L)).willReturn(Optional.of(testPlafond));
+      given(plafondCatalog.find(1L)).willReturn(Optional.of(PlafondCatalog.Entry.of(testPlafond)));
 
       // Act & Assert
       assertThatThrownBy(() -> plafondService.simulateLoan(request))
@@ -295,7 +430,8 @@ class PlafondServiceTest {
       LoanSimulationRequest request =
           LoanSimulationRequest.builder().amount(new BigDecimal("100000000")).tenor(12L).build();
 
-      given(plafondRepository.findByTenor(12L)).willReturn(List.of(testPlafond));
+      given(plafondCatalog.lowestRateFor(12L, new BigDecimal("100000000")))
+          .willReturn(Optional.empty());
 
       // Act & Assert
       assertThatThrownBy(() -> plafondService.simulateLoan(request))
@@ -304,6 +440,126 @@ class PlafondServiceTest {
     }
   }
 
+  // =========================================================================
+  // Tests for recommend()
+  // =========================================================================
+  @Nested
+  @DisplayName("recommend()")
+  class RecommendTests {
+
+    @Test
+    @DisplayName("should rank matching plafonds by total cost without touching the database")
+    void shouldRankByTotalCost_fromCatalog() {
+      // Arrange
+      Plafond cheaper =
+          Plafond.builder()
+              .id(2L)
+              .title("Platinum Loan")
+              .minIncome(new BigDecimal("3000000"))
+              .maxAmount(new BigDecimal("20000000"))
+              .tenorMonth(24L)
+              .interestRate(new BigDecimal("1.2"))
+              .isActive(true)
+              .build();
+      PlafondRecommendationRequest request =
+          PlafondRecommendationRequest.builder()
+              .income(new BigDecimal("8000000"))
+              .amount(new BigDecimal("10000000"))
+              .tenor(12L)
+              .build();
+
+      given(plafondCatalog.recommend(new BigDecimal("8000000"), new BigDecimal("10000000"), 12L))
+          .willReturn(
+              List.of(PlafondCatalog.Entry.of(cheaper), PlafondCatalog.Entry.of(testPlafond)));
+
+      // Act
+      List<PlafondRecommendationResponse> result = plafondService.recommend(request);
+
+      // Assert: 10000000 * 1.2% * 12 = 1440000 < 10000000 * 1.5% * 12 = 1800000
+      assertThat(result).extracting(PlafondRecommendationResponse::getRank).containsExactly(1, 2);
+      assertThat(result.get(0).getPlafondId()).isEqualTo(2L);
+      assertThat(result.get(0).getTitle()).isEqualTo("Platinum Loan");
+      assertThat(result.get(0).getMaxTenorMonth()).isEqualTo(24L);
+      assertThat(result.get(0).getSimulation().getTotalInterest())
+          .isEqualByComparingTo("1440000.00");
+      assertThat(result.get(1).getSimulation().getTotalInterest())
+          .isEqualByComparingTo("1800000.00");
+      verifyNoInteractions(plafondRepository);
+    }
+  }
+
+  // =========================================================================
+  // Tests for simulateBatch()
+  // =========================================================================
+  @Nested
+  @DisplayName("simulateBatch()")
+  class SimulateBatchTests {
+
+    @Test
+    @DisplayName("should fill the amount x tenor grid from one catalog lookup")
+    void shouldSimulateGrid_withLowestRatePerTenor() {
+      // Arrange
+      LoanSimulationBatchRequest request =
+          LoanSimulationBatchRequest.builder()
+              .amounts(List.of(new BigDecimal("10000000"), new BigDecimal("90000000")))
+              .tenors(List.of(12L, 24L))
+              .build();
+      given(plafondCatalog.activeByTenor(List.of(12L, 24L)))
+          .willReturn(Map.of(12L, List.of(PlafondCatalog.Entry.of(testPlafond)), 24L, List.of()));
+
+      // Act
+      LoanSimulationBatchResponse result = plafondService.simulateBatch(request);
+
+      // Assert: only 10,000,000 x 12 fits the Gold Loan plafond
+      assertThat(result.getAvailableCount()).isEqualTo(1);
+      assertThat(result.getResults()).hasSize(2);
+      assertThat(result.getResults().get(0)).hasSize(2);
+      assertThat(result.getResults().get(0).get(0).getMonthlyInstallment())
+          .isEqualByComparingTo("983333.33");
+      assertThat(result.getResults().get(0).get(1)).isNull();
+      assertThat(result.getResults().get(1)).containsOnlyNulls();
+      verify(plafondCatalog, never()).lowestRateFor(any(), any());
+    }
+
+    @Test
+    @DisplayName("should give the same cells as simulateLoan for a large grid")
+    void shouldMatchSingleSimulation_whenComputedInParallel() {
+      // Arrange: 40 x 24 = 960 cells, above the parallel threshold
+      List<BigDecimal> amounts =
+          IntStream.rangeClosed(1, 40)
+              .mapToObj(i -> BigDecimal.valueOf(i * 1_000_000L + 12_345))
+              .toList();
+      List<Long> tenors = LongStream.rangeClosed(1, 24).boxed().toList();
+      testPlafond.setTenorMonth(24L);
+      PlafondCatalog.Entry longTenor = PlafondCatalog.Entry.of(testPlafond);
+      given(plafondCatalog.find(1L)).willReturn(Optional.of(longTenor));
+
+      // Act
+      LoanSimulationBatchResponse result =
+          plafondService.simulateBatch(
+              LoanSimulationBatchRequest.builder()
+                  .amounts(amounts)
+                  .tenors(tenors)
+                  .plafondId(1L)
+                  .build());
+
+      // Assert
+      assertThat(result.getAvailableCount()).isEqualTo(24 * 40);
+      for (int row = 0; row < amounts.size(); row++) {
+        for (int column = 0; column < tenors.size(); column++) {
+          LoanSimulationResponse single =
+              plafondService.simulateLoan(
+                  LoanSimulationRequest.builder()
+                      .plafondId(1L)
+                      .amount(amounts.get(row))
+                      .tenor(tenors.get(column))
+                      .build());
+          assertThat(result.getResults().get(row).get(column)).isEqualTo(single);
+        }
+      }
+    }
+  }
+
   // =========================================================================
   // Tests for createPlafond()
   // =========================================================================
@@ -328,6 +584,8 @@ class PlafondServiceTest {
       assertThat(result).isNotNull();
       assertThat(result.getTitle()).isEqualTo("Gold Loan");
       verify(plafondRepository).saveAndFlush(any(Plafond.class));
+      verify(plafondCatalog).refreshAfterCommit();
+      verify(plafondCacheKeys).invalidateAfterCommit(null);
     }
 
     @Test
@@ -343,6 +601,8 @@ class PlafondServiceTest {
       assertThatThrownBy(() -> plafondService.createPlafond(testPlafondRequest))
           .isInstanceOf(RuntimeException.class)
           .hasMessageContaining("already exists");
+      verify(plafondCatalog, never()).refreshAfterCommit();
+      verifyNoInteractions(plafondCacheKeys);
     }
 
     @Test
@@ -394,6 +654,7 @@ class PlafondServiceTest {
       // Assert
       assertThat(result).isNotNull();
       verify(plafondRepository).saveAndFlush(any(Plafond.class));
+      verify(plafondCacheKeys).invalidateAfterCommit(1L);
     }
 
     @Test
@@ -0,0 +1,201 @@
+package com.example.genggamin.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+import com.example.genggamin.dto.LoanScheduleResponse;
+import com.example.genggamin.entity.Loan;
+import com.example.genggamin.entity.LoanInstallment;
+import com.example.genggamin.repository.LoanDisbursementRepository;
+import com.example.genggamin.repository.LoanInstallmentRepository;
+import com.example.genggamin.repository.LoanRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/** Unit Tests for RepaymentScheduleService: perhitungan jadwal dalam sen dan response jadwal */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RepaymentScheduleService Unit Tests")
+class RepaymentScheduleServiceTest {
+
+  private static final LocalDate START = LocalDate.of(2026, 1, 31);
+
+  @Mock private LoanRepository loanRepository;
+
+  @Mock private LoanDisbursementRepository loanDisbursementRepository;
+
+  @Mock private LoanInstallmentRepository loanInstallmentRepository;
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @Mock private PlafondCatalog plafondCatalog;
+
+  @Mock private CacheManager cacheManager;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private RepaymentScheduleService repaymentScheduleService;
+
+  @BeforeEach
+  void setUp() {
+    repaymentScheduleService =
+        new RepaymentScheduleService(
+            loanRepository,
+            loanDisbursementRepository,
+            loanInstallmentRepository,
+            jdbcTemplate,
+            plafondCatalog,
+            cacheManager,
+            transactionManager);
+  }
+
+  // =========================================================================
+  // Tests for flatRate()
+  // =========================================================================
+  @Nested
+  @DisplayName("flatRate()")
+  class FlatRateTests {
+
+    @Test
+    @DisplayName("should use the simulated monthly installment and put the remainder last")
+    void shouldMatchSimulation_andAbsorbRemainderInLastInstallment() {
+      // Arrange: 10,000,000 at 1.5%/month for 7 months -> interest 1,050,000.00
+      long principal = 1_000_000_000L;
+
+      // Act
+      List<RepaymentScheduleService.Row> rows =
+          RepaymentScheduleService.flatRate(principal, new BigDecimal("1.5"), 7, START);
+
+      // Assert: 11,050,000.00 / 7 = 1,578,571.43 (HALF_UP), like simulateLoan
+      assertThat(rows).hasSize(7);
+      assertThat(rows.subList(0, 6))
+          .allSatisfy(row -> assertThat(row.amountCents()).isEqualTo(157_857_143L));
+      assertThat(rows.stream().mapToLong(RepaymentScheduleService.Row::principalCents).sum())
+          .isEqualTo(principal);
+      assertThat(rows.stream().mapToLong(RepaymentScheduleService.Row::interestCents).sum())
+          .isEqualTo(105_000_000L);
+      assertThat(rows.stream().mapToLong(RepaymentScheduleService.Row::amountCents).sum())
+          .isEqualTo(1_105_000_000L);
+      assertThat(rows.get(6).outstandingCents()).isZero();
+    }
+
+    @Test
+    @DisplayName("should compute every due date from the start date")
+    void shouldKeepEndOfMonthDueDates() {
+      // Act
+      List<RepaymentScheduleService.Row> rows =
+          RepaymentScheduleService.flatRate(1_200_000L, new BigDecimal("2"), 3, START);
+
+      // Assert
+      assertThat(rows)
+          .extracting(RepaymentScheduleService.Row::dueDate)
+          .containsExactly(
+              LocalDate.of(2026, 2, 28), LocalDate.of(2026, 3, 31), LocalDate.of(2026, 4, 30));
+    }
+
+    @Test
+    @DisplayName("should reject a non-positive tenor")
+    void shouldThrow_whenTenorIsZero() {
+      assertThatThrownBy(
+              () -> RepaymentScheduleService.flatRate(1_000L, new BigDecimal("2"), 0, START))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  // =========================================================================
+  // Tests for getSchedule()
+  // =========================================================================
+  @Nested
+  @DisplayName("getSchedule()")
+  class GetScheduleTests {
+
+    @Test
+    @DisplayName("should convert stored cents into amounts and totals")
+    void shouldReturnSchedule_fromStoredInstallments() {
+      // Arrange
+      Loan loan =
+          Loan.builder()
+              .id(5L)
+              .amount(new BigDecimal("1000.00"))
+              .tenureMonths(2L)
+              .interestRate(new BigDecimal("1.00"))
+              .build();
+      given(loanRepository.findById(5L)).willReturn(Optional.of(loan));
+      given(loanInstallmentRepository.findByLoanIdOrderByInstallmentNumberAsc(5L))
+          .willReturn(
+              List.of(
+                  installment(1, 50_000L, 1_000L, 50_000L), installment(2, 50_000L, 1_000L, 0L)));
+
+      // Act
+      LoanScheduleResponse schedule = repaymentScheduleService.getSchedule(5L);
+
+      // Assert
+      assertThat(schedule.getInstallments()).hasSize(2);
+      assertThat(schedule.getInstallments().get(0).getAmount()).isEqualByComparingTo("510.00");
+      assertThat(schedule.getTotalInterest()).isEqualByComparingTo("20.00");
+      assertThat(schedule.getTotalPayment()).isEqualByComparingTo("1020.00");
+      assertThat(schedule.getInterestRate()).isEqualByComparingTo("1.00");
+    }
+
+    @Test
+    @DisplayName("should throw when the loan has no schedule yet")
+    void shouldThrow_whenNotDisbursed() {
+      // Arrange
+      given(loanRepository.findById(5L)).willReturn(Optional.of(Loan.builder().id(5L).build()));
+      given(loanInstallmentRepository.findByLoanIdOrderByInstallmentNumberAsc(5L))
+          .willReturn(List.of());
+
+      // Act & Assert
+      assertThatThrownBy(() -> repaymentScheduleService.getSchedule(5L))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessageContaining("Repayment schedule not found");
+    }
+
+    @Test
+    @DisplayName("should reject a customer who does not own the loan")
+    void shouldThrow_whenNotOwner() {
+      // Arrange
+      given(loanRepository.isOwnedBy(5L, "other")).willReturn(false);
+
+      // Act & Assert
+      assertThatThrownBy(() -> repaymentScheduleService.requireOwnedBy(5L, "other"))
+          .isInstanceOf(RuntimeException.class)
+          .hasMessage("Loan not found");
+    }
+
+    @Test
+    @DisplayName("should accept the customer who owns the loan")
+    void shouldPass_whenOwner() {
+      // Arrange
+      given(loanRepository.isOwnedBy(5L, "budi")).willReturn(true);
+
+      // Act & Assert
+      assertThatCode(() -> repaymentScheduleService.requireOwnedBy(5L, "budi"))
+          .doesNotThrowAnyException();
+    }
+
+    private LoanInstallment installment(
+        int number, long principal, long interest, long outstanding) {
+      return LoanInstallment.builder()
+          .loanId(5L)
+          .installmentNumber(number)
+          .dueDate(START.plusMonths(number))
+          .principalCents(principal)
+          .interestCents(interest)
+          .amountCents(principal + interest)
+          .outstandingCents(outstanding)
+          .build();
+    }
+  }
+}
@@ -56,6 +56,8 @@ class UserServiceTest {
 
   @Mock private NotificationService notificationService;
 
+  @Mock private StaffDirectoryService staffDirectoryService;
+
   @InjectMocks private UserService userService;
 
   private User testUser;
@@ -346,6 +348,7 @@ class UserServiceTest {
       // Assert
       assertThat(result).isNotNull();
       verify(userRepository).saveAndFlush(any(User.class));
+      verify(staffDirectoryService).evict(testUser.getId());
     }
 
     @Test